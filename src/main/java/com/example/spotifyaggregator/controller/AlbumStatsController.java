@@ -1,15 +1,27 @@
 package com.example.spotifyaggregator.controller;
 
+import com.example.spotifyaggregator.dto.AlbumSketchRebuildResponse;
+import com.example.spotifyaggregator.dto.AlbumStatsBatchRequest;
 import com.example.spotifyaggregator.dto.AlbumStatsByArtistResponse;
 import com.example.spotifyaggregator.dto.AlbumStatsByYearResponse;
+import com.example.spotifyaggregator.dto.AlbumStatsRebuildResponse;
+import com.example.spotifyaggregator.dto.ApproximatePagedResponse;
+import com.example.spotifyaggregator.dto.ArtistAlbumStatsResponse;
+import com.example.spotifyaggregator.dto.CursorPageResponse;
 import com.example.spotifyaggregator.dto.PagedResponse;
+import com.example.spotifyaggregator.service.AlbumSketchStore;
+import com.example.spotifyaggregator.service.AlbumStatsMaintainer;
 import com.example.spotifyaggregator.service.AlbumStatsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
@@ -18,6 +30,8 @@ import reactor.core.publisher.Mono;
 public class AlbumStatsController {
 
     private final AlbumStatsService albumStatsService;
+    private final AlbumStatsMaintainer albumStatsMaintainer;
+    private final AlbumSketchStore albumSketchStore;
 
     @GetMapping("/by-year")
     public Mono<ResponseEntity<PagedResponse<AlbumStatsByYearResponse>>> getStatsByYear(
@@ -37,4 +51,92 @@ public class AlbumStatsController {
         return albumStatsService.getAlbumStatsByArtist(artist, page, size)
                 .map(ResponseEntity::ok);
     }
+
+    /**
+     * 연도별 앨범 통계 전체를 페이지 없이 스트리밍합니다. (Accept 에 따라 NDJSON 또는 SSE)
+     */
+    @GetMapping(value = "/by-year/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<AlbumStatsByYearResponse> exportStatsByYear() {
+        return albumStatsService.streamAlbumStatsByYear();
+    }
+
+    /**
+     * 모든 아티스트의 연도별 앨범 통계를 스트리밍합니다. (Accept 에 따라 NDJSON 또는 SSE)
+     */
+    @GetMapping(value = "/by-artist/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<AlbumStatsByArtistResponse> exportStatsByArtist() {
+        return albumStatsService.streamAlbumStatsByArtist();
+    }
+
+    /**
+     * 여러 아티스트의 연도별 앨범 통계를 아티스트 단위 NDJSON 으로 스트리밍합니다. 없는 아티스트는 found=false 로 응답합니다.
+     */
+    @PostMapping(value = "/by-artist/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ArtistAlbumStatsResponse> getStatsByArtists(@RequestBody AlbumStatsBatchRequest request) {
+        return albumStatsService.getAlbumStatsByArtists(request.artists());
+    }
+
+    /**
+     * HyperLogLog sketch 로 추정한 앨범 수와 상대 표준 오차를 반환합니다.
+     */
+    @GetMapping(value = "/by-year", params = "approximate=true")
+    public Mono<ResponseEntity<ApproximatePagedResponse<AlbumStatsByYearResponse>>> getApproximateStatsByYear(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        return albumStatsService.getApproximateAlbumStatsByYear(page, size)
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping(value = "/by-artist", params = "approximate=true")
+    public Mono<ResponseEntity<ApproximatePagedResponse<AlbumStatsByArtistResponse>>> getApproximateStatsByArtist(
+            @RequestParam String artist,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        return albumStatsService.getApproximateAlbumStatsByArtist(artist, page, size)
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * keyset 페이지네이션 : 응답의 nextCursor 를 다음 요청의 cursor 로 넘깁니다. (첫 페이지는 cursor 생략)
+     */
+    @GetMapping("/by-year/cursor")
+    public Mono<ResponseEntity<CursorPageResponse<AlbumStatsByYearResponse>>> getStatsByYearCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal
+    ) {
+        return albumStatsService.getAlbumStatsByYearAfter(cursor, size, withTotal)
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/by-artist/cursor")
+    public Mono<ResponseEntity<CursorPageResponse<AlbumStatsByArtistResponse>>> getStatsByArtistCursor(
+            @RequestParam String artist,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal
+    ) {
+        return albumStatsService.getAlbumStatsByArtistAfter(artist, cursor, size, withTotal)
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * 통계 테이블을 원본에서 다시 계산하고, 재계산 전 테이블이 원본 집계와 같았는지 함께 반환합니다.
+     */
+    @PostMapping("/stats/rebuild")
+    public Mono<ResponseEntity<AlbumStatsRebuildResponse>> rebuildStats() {
+        return albumStatsMaintainer.rebuild()
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * 앨범 HyperLogLog sketch 를 원본 테이블에서 다시 만듭니다.
+     */
+    @PostMapping("/stats/sketches/rebuild")
+    public Mono<ResponseEntity<AlbumSketchRebuildResponse>> rebuildSketches() {
+        return albumSketchStore.rebuild()
+                .map(ResponseEntity::ok);
+    }
 }
@@ -1,25 +1,182 @@
 package com.example.spotifyaggregator.controller;
 
 import com.example.spotifyaggregator.dto.CommonResponse;
+import com.example.spotifyaggregator.dto.DeadLetterQueueResponse;
+import com.example.spotifyaggregator.dto.DistributedIngestionResponse;
+import com.example.spotifyaggregator.dto.IndexRebuildResponse;
+import com.example.spotifyaggregator.dto.IngestionJobResponse;
+import com.example.spotifyaggregator.dto.IngestionRunResponse;
 import com.example.spotifyaggregator.dto.SongIngestionResult;
+import com.example.spotifyaggregator.service.DistributedIngestionCoordinator;
+import com.example.spotifyaggregator.service.IngestionJobManager;
+import com.example.spotifyaggregator.service.IngestionWriteMode;
+import com.example.spotifyaggregator.service.SecondaryIndexManager;
 import com.example.spotifyaggregator.service.SongIngestionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.nio.file.Path;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/songs")
 @RequiredArgsConstructor
 public class SongIngestionController {
 
     private final SongIngestionService songIngestionService;
+    private final IngestionJobManager ingestionJobManager;
+    private final DistributedIngestionCoordinator distributedIngestionCoordinator;
+    private final SecondaryIndexManager secondaryIndexManager;
 
     @GetMapping("/ingest")
-    public Mono<ResponseEntity<CommonResponse<SongIngestionResult>>> ingest() {
-        return songIngestionService.ingest()
+    public Mono<ResponseEntity<CommonResponse<SongIngestionResult>>> ingest(
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String path
+    ) {
+        IngestionWriteMode writeMode = mode == null
+                ? songIngestionService.defaultWriteMode()
+                : IngestionWriteMode.from(mode);
+        Mono<SongIngestionResult> result = path == null
+                ? songIngestionService.ingest(writeMode)
+                : songIngestionService.ingestFromFile(Path.of(path), writeMode);
+        return result
+                .map(CommonResponse::success)
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * 요청 본문의 NDJSON 을 스트리밍으로 적재합니다. 본문 전체를 메모리에 올리지 않고 저장 속도에 맞춰 읽습니다.
+     */
+    @PostMapping(value = "/ingest/upload", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<CommonResponse<SongIngestionResult>>> upload(
+            @RequestParam(required = false) String mode,
+            @RequestBody Flux<DataBuffer> body
+    ) {
+        IngestionWriteMode writeMode = mode == null
+                ? songIngestionService.defaultWriteMode()
+                : IngestionWriteMode.from(mode);
+        return songIngestionService.ingestUpload(body, writeMode)
+                .map(CommonResponse::success)
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * 분산 ingestion run 을 만들고 바로 반환합니다. 처리는 worker 가 켜진 인스턴스들이 partition lease 를 얻어 나눠 맡습니다.
+     */
+    @PostMapping("/ingest/distributed")
+    public Mono<ResponseEntity<CommonResponse<DistributedIngestionResponse>>> startDistributed(
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String path
+    ) {
+        IngestionWriteMode writeMode = mode == null
+                ? songIngestionService.defaultWriteMode()
+                : IngestionWriteMode.from(mode);
+        return distributedIngestionCoordinator.start(path, writeMode)
+                .map(CommonResponse::success)
+                .map(body -> ResponseEntity.status(HttpStatus.ACCEPTED).body(body));
+    }
+
+    @GetMapping("/ingest/distributed/{runId}")
+    public Mono<ResponseEntity<CommonResponse<DistributedIngestionResponse>>> getDistributed(@PathVariable String runId) {
+        return distributedIngestionCoordinator.status(runId)
+                .map(CommonResponse::success)
+                .map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/ingest/runs/{runId}/resume")
+    public Mono<ResponseEntity<CommonResponse<SongIngestionResult>>> resume(@PathVariable String runId) {
+        return songIngestionService.resume(runId)
+                .map(CommonResponse::success)
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/ingest/runs/{runId}")
+    public Mono<ResponseEntity<CommonResponse<IngestionRunResponse>>> getRun(@PathVariable String runId) {
+        return songIngestionService.getRun(runId)
+                .map(CommonResponse::success)
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/ingest/runs")
+    public Mono<ResponseEntity<CommonResponse<List<IngestionRunResponse>>>> getRuns() {
+        return songIngestionService.getRuns()
+                .collectList()
+                .map(CommonResponse::success)
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/ingest/dlq")
+    public Mono<ResponseEntity<CommonResponse<DeadLetterQueueResponse>>> getDeadLetterQueue() {
+        return Mono.fromSupplier(songIngestionService::getDeadLetterQueue)
+                .map(CommonResponse::success)
+                .map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/ingest/dlq/replay")
+    public Mono<ResponseEntity<CommonResponse<SongIngestionResult>>> replayDeadLetters() {
+        return songIngestionService.replayDeadLetters()
+                .map(CommonResponse::success)
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * bulk load 가 중간에 죽어 빠진 보조 index 를 다시 만듭니다. 이미 있는 index 는 건드리지 않습니다.
+     */
+    @PostMapping("/ingest/indexes/rebuild")
+    public Mono<ResponseEntity<CommonResponse<IndexRebuildResponse>>> rebuildIndexes() {
+        return secondaryIndexManager.rebuild()
+                .map(CommonResponse::success)
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * ingestion 을 비동기 job 으로 시작하고 job id 를 바로 반환합니다.
+     */
+    @PostMapping("/ingest/jobs")
+    public Mono<ResponseEntity<CommonResponse<IngestionJobResponse>>> startJob(
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String path
+    ) {
+        IngestionWriteMode writeMode = mode == null
+                ? songIngestionService.defaultWriteMode()
+                : IngestionWriteMode.from(mode);
+        return Mono.fromSupplier(() -> ingestionJobManager.start(path, writeMode))
+                .map(CommonResponse::success)
+                .map(body -> ResponseEntity.status(HttpStatus.ACCEPTED).body(body));
+    }
+
+    @GetMapping("/ingest/jobs/{jobId}")
+    public Mono<ResponseEntity<CommonResponse<IngestionJobResponse>>> getJob(@PathVariable String jobId) {
+        return ingestionJobManager.status(jobId)
+                .map(CommonResponse::success)
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping(value = "/ingest/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<IngestionJobResponse>> streamJob(@PathVariable String jobId) {
+        return ingestionJobManager.progress(jobId)
+                .map(progress -> ServerSentEvent.builder(progress)
+                        .event(progress.status().toLowerCase())
+                        .build());
+    }
+
+    @DeleteMapping("/ingest/jobs/{jobId}")
+    public Mono<ResponseEntity<CommonResponse<IngestionJobResponse>>> cancelJob(@PathVariable String jobId) {
+        return ingestionJobManager.cancel(jobId)
                 .map(CommonResponse::success)
                 .map(ResponseEntity::ok);
     }
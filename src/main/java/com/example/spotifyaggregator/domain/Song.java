@@ -28,5 +28,6 @@ public class Song {
     private String genre;
     private Boolean explicit;
     private Integer popularity;
+    private Long contentHash; // DELTA ingestion 변경 감지용 (SongContentHash)
 
 }
@@ -0,0 +1,13 @@
+package com.example.spotifyaggregator.dto;
+
+/**
+ * 앨범 HyperLogLog sketch 재생성 결과
+ *
+ * @param entries       원본에서 읽어 sketch 에 넣은 (연도 또는 아티스트·연도, 앨범) 조합 수
+ * @param elapsedMillis 재생성에 걸린 시간
+ */
+public record AlbumSketchRebuildResponse(
+        long entries,
+        long elapsedMillis
+) {
+}
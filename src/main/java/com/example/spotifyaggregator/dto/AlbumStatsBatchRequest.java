@@ -0,0 +1,13 @@
+package com.example.spotifyaggregator.dto;
+
+import java.util.List;
+
+/**
+ * 여러 아티스트의 연도별 앨범 통계 요청
+ *
+ * @param artists 아티스트 이름 (중복은 한 번만 조회, 최대 album-stats.batch.max-artists 명)
+ */
+public record AlbumStatsBatchRequest(
+        List<String> artists
+) {
+}
@@ -0,0 +1,23 @@
+package com.example.spotifyaggregator.dto;
+
+/**
+ * 앨범 통계 테이블 재계산 결과. mismatch 는 재계산 전 테이블이 원본 집계와 달랐던 row 수입니다.
+ *
+ * @param yearMissing         원본에는 있지만 테이블에 없던 (연도) row 수
+ * @param yearMismatched      album_count 가 달랐던 row 수
+ * @param yearStale           원본에는 없지만 테이블에 남아 있던 row 수
+ * artistYear* 는 (아티스트, 연도) 테이블에 대한 같은 값입니다.
+ */
+public record AlbumStatsRebuildResponse(
+        long yearRows,
+        long yearMissing,
+        long yearMismatched,
+        long yearStale,
+        long artistYearRows,
+        long artistYearMissing,
+        long artistYearMismatched,
+        long artistYearStale,
+        boolean consistent,
+        long elapsedMillis
+) {
+}
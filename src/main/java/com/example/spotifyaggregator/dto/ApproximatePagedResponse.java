@@ -0,0 +1,30 @@
+package com.example.spotifyaggregator.dto;
+
+import java.util.List;
+
+/**
+ * approximate=true 앨범 통계 응답
+ *
+ * @param approximate           content 의 albumCount 가 HyperLogLog 추정치이면 true (sketch 가 꺼져 있으면 정확한 값으로 false)
+ * @param relativeStandardError 추정치의 상대 표준 오차 (약 95% 확률로 실제 값은 albumCount × (1 ± 2 × 이 값) 안에 있음)
+ */
+public record ApproximatePagedResponse<T>(
+        List<T> content,
+        int page,
+        int size,
+        long totalElements,
+        int totalPages,
+        boolean approximate,
+        double relativeStandardError
+) {
+
+    public static <T> ApproximatePagedResponse<T> of(PagedResponse<T> page, double relativeStandardError) {
+        return new ApproximatePagedResponse<>(page.content(), page.page(), page.size(), page.totalElements(),
+                page.totalPages(), true, relativeStandardError);
+    }
+
+    public static <T> ApproximatePagedResponse<T> exact(PagedResponse<T> page) {
+        return new ApproximatePagedResponse<>(page.content(), page.page(), page.size(), page.totalElements(),
+                page.totalPages(), false, 0.0);
+    }
+}
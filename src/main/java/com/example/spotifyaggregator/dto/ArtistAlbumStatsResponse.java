@@ -0,0 +1,20 @@
+package com.example.spotifyaggregator.dto;
+
+import java.util.List;
+
+/**
+ * 여러 아티스트 조회 응답의 아티스트 한 명분
+ *
+ * @param found 통계가 있으면 true, 없는 아티스트(또는 발매일이 있는 노래가 없음)면 false 이고 years 는 비어 있음
+ * @param years 연도 오름차순 앨범 수
+ */
+public record ArtistAlbumStatsResponse(
+        String artist,
+        boolean found,
+        List<AlbumStatsByYearResponse> years
+) {
+
+    public static ArtistAlbumStatsResponse notFound(String artist) {
+        return new ArtistAlbumStatsResponse(artist, false, List.of());
+    }
+}
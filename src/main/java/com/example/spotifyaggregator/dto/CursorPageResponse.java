@@ -0,0 +1,17 @@
+package com.example.spotifyaggregator.dto;
+
+import java.util.List;
+
+/**
+ * keyset 페이지네이션 응답
+ *
+ * @param nextCursor    다음 페이지 요청에 그대로 넘길 cursor (마지막 페이지면 null)
+ * @param totalElements 전체 건수 (withTotal=true 로 요청한 경우만, 아니면 null)
+ */
+public record CursorPageResponse<T>(
+        List<T> content,
+        int size,
+        String nextCursor,
+        Long totalElements
+) {
+}
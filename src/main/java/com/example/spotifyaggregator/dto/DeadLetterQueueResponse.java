@@ -0,0 +1,16 @@
+package com.example.spotifyaggregator.dto;
+
+/**
+ * @param depth           재처리 대기 중인 전체 row 수
+ * @param inMemory        메모리 캐시에 있는 row 수 (spill 파일에도 기록되어 있음)
+ * @param spilled         spill / replaying 파일에 기록된 row 수
+ * @param oldestAgeMillis 가장 오래 대기 중인 row 의 대기 시간 (비어 있으면 0)
+ */
+public record DeadLetterQueueResponse(
+        long depth,
+        long inMemory,
+        long spilled,
+        long oldestAgeMillis,
+        String spillFile
+) {
+}
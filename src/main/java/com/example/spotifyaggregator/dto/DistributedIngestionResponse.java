@@ -0,0 +1,35 @@
+package com.example.spotifyaggregator.dto;
+
+import java.util.List;
+
+/**
+ * 분산 ingestion run 의 진행 상태
+ *
+ * @param donePartitions   처리가 끝난 partition 수
+ * @param failedPartitions 실패 횟수 한도(max-partition-attempts)에 이르러 더 이상 시도하지 않는 partition 수
+ */
+public record DistributedIngestionResponse(
+        String runId,
+        String source,
+        String writeMode,
+        String status,
+        long successCount,
+        long failureCount,
+        Double progressPercent,
+        int donePartitions,
+        int failedPartitions,
+        List<Partition> partitions
+) {
+    /**
+     * @param owner lease 를 가진 인스턴스 id (처리 중이 아니면 null)
+     */
+    public record Partition(
+            int partition,
+            String owner,
+            boolean done,
+            boolean failed,
+            long committedOffset,
+            long endOffset
+    ) {
+    }
+}
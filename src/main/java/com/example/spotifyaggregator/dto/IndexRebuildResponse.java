@@ -0,0 +1,15 @@
+package com.example.spotifyaggregator.dto;
+
+import java.util.List;
+
+/**
+ * 보조 index 재생성 결과
+ *
+ * @param rebuilt       새로 만든 index 이름 (이미 있던 index 는 제외)
+ * @param elapsedMillis 재생성에 걸린 시간
+ */
+public record IndexRebuildResponse(
+        List<String> rebuilt,
+        long elapsedMillis
+) {
+}
@@ -0,0 +1,15 @@
+package com.example.spotifyaggregator.dto;
+
+/**
+ * DELTA ingestion 의 row 분류 결과
+ *
+ * @param newRows       DB 에 없어 새로 INSERT 한 row 수
+ * @param changedRows   content hash 가 달라 UPDATE 한 row 수
+ * @param unchangedRows content hash 가 같아 쓰기 없이 skip 한 row 수
+ */
+public record IngestionDeltaCounts(
+        long newRows,
+        long changedRows,
+        long unchangedRows
+) {
+}
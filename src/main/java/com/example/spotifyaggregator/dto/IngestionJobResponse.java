@@ -0,0 +1,26 @@
+package com.example.spotifyaggregator.dto;
+
+import java.util.List;
+
+public record IngestionJobResponse(
+        String jobId,
+        String status,
+        String source,
+        String writeMode,
+        long parsedRows,
+        long writtenRows,
+        long duplicateRows,
+        long failedRows,
+        double rowsPerSecond,
+        double currentRowsPerSecond,
+        long dlqPending,
+        long dlqRecovered,
+        long dlqFailed,
+        long elapsedMillis,
+        List<IngestionStageStats> stages,
+        IngestionDeltaCounts delta,
+        List<IngestionShardResult> shards,
+        SongIngestionResult result,
+        String error
+) {
+}
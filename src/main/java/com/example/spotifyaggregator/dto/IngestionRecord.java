@@ -0,0 +1,12 @@
+package com.example.spotifyaggregator.dto;
+
+/**
+ * 파싱된 row 와 원본 입력에서의 위치.
+ * offset 은 이 row 다음 위치(classpath 입력은 줄 번호, 파일 입력은 byte offset)로, checkpoint 에 기록됩니다.
+ */
+public record IngestionRecord(
+        int partition,
+        long offset,
+        SongWithArtists row
+) {
+}
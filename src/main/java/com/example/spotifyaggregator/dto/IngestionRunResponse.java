@@ -0,0 +1,25 @@
+package com.example.spotifyaggregator.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record IngestionRunResponse(
+        String runId,
+        String source,
+        String writeMode,
+        String status,
+        long successCount,
+        long failureCount,
+        Double progressPercent,
+        List<Partition> partitions,
+        LocalDateTime startedAt,
+        LocalDateTime updatedAt
+) {
+    public record Partition(
+            int partition,
+            long startOffset,
+            long endOffset,
+            long committedOffset
+    ) {
+    }
+}
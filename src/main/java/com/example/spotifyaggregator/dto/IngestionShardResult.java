@@ -0,0 +1,20 @@
+package com.example.spotifyaggregator.dto;
+
+/**
+ * shard 입력의 shard 별 처리 결과
+ *
+ * @param partition       checkpoint partition 번호 (shard 정렬 순서)
+ * @param readRows        이번 실행에서 읽은 줄 수
+ * @param parseErrors     파싱에 실패한 줄 수
+ * @param processedRows   이번 실행에서 쓰기까지 끝난 row 수 (성공 + DLQ 적재)
+ * @param committedOffset 저장이 끝난 마지막 줄 번호 (resume 시 이 다음 줄부터 읽음)
+ */
+public record IngestionShardResult(
+        int partition,
+        String shard,
+        long readRows,
+        long parseErrors,
+        long processedRows,
+        long committedOffset
+) {
+}
@@ -0,0 +1,16 @@
+package com.example.spotifyaggregator.dto;
+
+/**
+ * ingestion 파이프라인 단계(read / parse / write) 별 진행 상태
+ *
+ * @param processed     이번 실행에서 해당 단계를 통과한 row 수
+ * @param queueDepth    이전 단계에서 넘어와 처리를 기다리는(또는 처리 중인) row 수
+ * @param rowsPerSecond 실행 시작 이후 평균 처리량
+ */
+public record IngestionStageStats(
+        String stage,
+        long processed,
+        long queueDepth,
+        double rowsPerSecond
+) {
+}
@@ -1,7 +1,35 @@
 package com.example.spotifyaggregator.dto;
 
+import java.util.List;
+
 public record SongIngestionResult(
+        String runId,
         int successCount,
-        int failureCount
+        int failureCount,
+        long elapsedMillis,
+        double rowsPerSecond,
+        IngestionDeltaCounts delta, // DELTA 모드가 아니면 null
+        List<IngestionShardResult> shards, // shard(디렉터리 / glob / 압축 파일) 입력이 아니면 null
+        Long indexRebuildMillis // bulk-load 에서 보조 index 를 내렸다가 다시 만든 경우의 재생성 시간, 아니면 null
 ) {
+    /**
+     * @param processedRows 이번 실행에서 처리한 row 수 (resume 시 이전 실행분 제외)
+     */
+    public static SongIngestionResult of(String runId, int successCount, int failureCount,
+                                         long processedRows, long elapsedMillis) {
+        double rowsPerSecond = elapsedMillis > 0 ? processedRows * 1000.0 / elapsedMillis : 0.0;
+        return new SongIngestionResult(runId, successCount, failureCount, elapsedMillis, rowsPerSecond, null, null, null);
+    }
+
+    public SongIngestionResult withDelta(IngestionDeltaCounts delta) {
+        return new SongIngestionResult(runId, successCount, failureCount, elapsedMillis, rowsPerSecond, delta, shards, indexRebuildMillis);
+    }
+
+    public SongIngestionResult withShards(List<IngestionShardResult> shards) {
+        return new SongIngestionResult(runId, successCount, failureCount, elapsedMillis, rowsPerSecond, delta, shards, indexRebuildMillis);
+    }
+
+    public SongIngestionResult withIndexRebuildMillis(Long indexRebuildMillis) {
+        return new SongIngestionResult(runId, successCount, failureCount, elapsedMillis, rowsPerSecond, delta, shards, indexRebuildMillis);
+    }
 }
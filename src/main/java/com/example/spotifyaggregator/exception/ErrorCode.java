@@ -6,6 +6,19 @@ import org.springframework.http.HttpStatus;
 @Getter
 public enum ErrorCode {
     SONG_INGESTION_ERROR(HttpStatus.INTERNAL_SERVER_ERROR, "SONG_INGESTION_ERROR", "노래 정보 수집 중 오류가 발생했습니다."),
+    INGESTION_FILE_NOT_FOUND(HttpStatus.BAD_REQUEST, "INGESTION_FILE_NOT_FOUND", "수집할 파일을 찾을 수 없습니다. 절대 경로의 파일이어야 합니다."),
+    INGESTION_PATH_NOT_ALLOWED(HttpStatus.BAD_REQUEST, "INGESTION_PATH_NOT_ALLOWED", "허용된 수집 디렉터리(ingestion.file.allowed-root) 밖의 경로입니다."),
+    INGESTION_RUN_NOT_FOUND(HttpStatus.NOT_FOUND, "INGESTION_RUN_NOT_FOUND", "해당 수집 작업을 찾을 수 없습니다."),
+    INGESTION_RUN_ALREADY_COMPLETED(HttpStatus.CONFLICT, "INGESTION_RUN_ALREADY_COMPLETED", "이미 완료된 수집 작업입니다."),
+    INGESTION_RUN_IN_PROGRESS(HttpStatus.CONFLICT, "INGESTION_RUN_IN_PROGRESS", "이미 진행 중인 수집 작업입니다."),
+    INGESTION_INVALID_WRITE_MODE(HttpStatus.BAD_REQUEST, "INGESTION_INVALID_WRITE_MODE", "지원하지 않는 수집 모드입니다. per-row / batch / bulk-load / delta 중 하나여야 합니다."),
+    INGESTION_UNSUPPORTED_COMPRESSION(HttpStatus.BAD_REQUEST, "INGESTION_UNSUPPORTED_COMPRESSION", "지원하지 않는 압축 형식입니다. gzip 또는 비압축 NDJSON 만 수집할 수 있습니다."),
+    INGESTION_SHARDS_CHANGED(HttpStatus.CONFLICT, "INGESTION_SHARDS_CHANGED", "수집 작업의 shard 목록이 시작 시점과 달라 이어서 처리할 수 없습니다."),
+    INGESTION_UPLOAD_NOT_RESUMABLE(HttpStatus.CONFLICT, "INGESTION_UPLOAD_NOT_RESUMABLE", "업로드로 시작한 수집 작업은 이어서 처리할 수 없습니다. 남은 데이터를 다시 업로드해 주세요."),
+    INGESTION_UPLOAD_LINE_TOO_LONG(HttpStatus.PAYLOAD_TOO_LARGE, "INGESTION_UPLOAD_LINE_TOO_LONG", "업로드한 NDJSON 의 한 줄이 허용 크기를 넘었습니다."),
+    INGESTION_DISTRIBUTED_MODE_NOT_SUPPORTED(HttpStatus.BAD_REQUEST, "INGESTION_DISTRIBUTED_MODE_NOT_SUPPORTED", "분산 수집은 per-row / batch / delta 모드만 지원합니다."),
+    INGESTION_BULK_LOAD_TARGET_NOT_EMPTY(HttpStatus.CONFLICT, "INGESTION_BULK_LOAD_TARGET_NOT_EMPTY", "bulk load 는 song / artist / song_artist 테이블이 비어 있을 때만 실행할 수 있습니다."),
+    INGESTION_INDEXES_DEFERRED(HttpStatus.CONFLICT, "INGESTION_INDEXES_DEFERRED", "bulk load 가 보조 index 를 내려둔 상태입니다. 적재가 끝나면 index 가 다시 생성됩니다."),
     SONG_NOT_FOUND(HttpStatus.NOT_FOUND, "SONG_NOT_FOUND", "해당 노래를 찾을 수 없습니다."),
     USER_NOT_FOUND(HttpStatus.NOT_FOUND, "USER_NOT_FOUND", "해당 사용자를 찾을 수 없습니다."),
     SONG_LIKE_EXISTS(HttpStatus.CONFLICT, "SONG_LIKE_EXISTS", "이미 좋아요를 누른 노래입니다."),
@@ -14,6 +27,9 @@ public enum ErrorCode {
 
     // 앨범 관련 예외 추가
     INVALID_ARTIST_NAME(HttpStatus.BAD_REQUEST, "INVALID_ARTIST_NAME", "아티스트 이름은 필수입니다."),
+    INVALID_CURSOR(HttpStatus.BAD_REQUEST, "INVALID_CURSOR", "잘못된 페이지 cursor 입니다. 이전 응답의 nextCursor 를 그대로 사용해 주세요."),
+    ALBUM_STATS_BATCH_TOO_LARGE(HttpStatus.BAD_REQUEST, "ALBUM_STATS_BATCH_TOO_LARGE", "한 번에 조회할 수 있는 아티스트 수를 넘었습니다."),
+    ALBUM_SKETCH_DISABLED(HttpStatus.CONFLICT, "ALBUM_SKETCH_DISABLED", "앨범 sketch 가 꺼져 있습니다. album-stats.sketch.enabled 를 켜야 합니다."),
     ALBUM_STATS_NOT_FOUND(HttpStatus.NOT_FOUND, "ALBUM_STATS_NOT_FOUND", "앨범 통계 데이터를 찾을 수 없습니다.");
 
     private final HttpStatus httpStatus;
@@ -0,0 +1,7 @@
+package com.example.spotifyaggregator.exception;
+
+public class InvalidCursorException extends AlbumStatsException {
+    public InvalidCursorException() {
+        super(ErrorCode.INVALID_CURSOR);
+    }
+}
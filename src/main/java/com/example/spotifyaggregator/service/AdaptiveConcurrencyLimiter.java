@@ -0,0 +1,191 @@
+package com.example.spotifyaggregator.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Predicate;
+
+/**
+ * ingestion 쓰기 단계의 동시 실행 수를 AIMD 방식으로 조절합니다.
+ * - 지연이 무부하 지연(관측 최소값) * tolerance 이내이고 실패가 없으면 limit 을 완만히 증가 (+1 / limit)
+ * - 지연이 커지거나 실패가 나면 limit 을 backoffRatio 만큼 감소 (cooldown 당 1회)
+ * - 아무것도 쓰지 않은 작업(이미 있는 row 등)의 지연은 DB 부하를 나타내지 않으므로 limit 조절과 무부하 지연에 쓰지 않음
+ * - 무부하 지연은 진행 중인 run 이 없을 때 시작하는 run 마다 새로 측정 (이전 run 의 데이터 / DB 상태에 고정되지 않도록)
+ * limit 은 min ~ max 사이에서 움직이며, 현재 값은 ingestion.write.concurrency.* metric 으로 노출됩니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AdaptiveConcurrencyLimiter {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ingestion.concurrency.min:2}")
+    private int minLimit;
+
+    @Value("${ingestion.concurrency.max:32}")
+    private int maxLimit;
+
+    @Value("${ingestion.concurrency.initial:10}")
+    private int initialLimit;
+
+    @Value("${ingestion.concurrency.latency-tolerance:2.0}")
+    private double latencyTolerance;
+
+    @Value("${ingestion.concurrency.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    @Value("${ingestion.concurrency.cooldown:1s}")
+    private Duration cooldown;
+
+    private final Deque<MonoSink<Void>> waiters = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+    private int activeRuns;
+    private long noLoadLatencyNanos = Long.MAX_VALUE;
+    private long lastDecreaseAt;
+
+    @PostConstruct
+    void init() {
+        limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        lastDecreaseAt = System.nanoTime() - cooldown.toNanos();
+        Gauge.builder("ingestion.write.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("ingestion 쓰기 단계의 현재 동시 실행 limit")
+                .register(meterRegistry);
+        Gauge.builder("ingestion.write.concurrency.inflight", this, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("ingestion 쓰기 단계의 현재 실행 중인 작업 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * permit 을 얻은 뒤 task 를 실행합니다. isFailure 가 true 인 결과나 에러는 실패로 집계됩니다.
+     */
+    public <T> Mono<T> run(Mono<T> task, Predicate<? super T> isFailure) {
+        return run(task, isFailure, value -> false);
+    }
+
+    /**
+     * @param isNoOp true 인 결과는 limit 조절에 반영하지 않음 (실패가 아닐 때)
+     */
+    public <T> Mono<T> run(Mono<T> task, Predicate<? super T> isFailure, Predicate<? super T> isNoOp) {
+        return acquire().then(Mono.defer(() -> {
+            long start = System.nanoTime();
+            boolean[] failed = {false};
+            boolean[] noOp = {false};
+            return task
+                    .doOnNext(value -> {
+                        failed[0] = isFailure.test(value);
+                        noOp[0] = !failed[0] && isNoOp.test(value);
+                    })
+                    .doOnError(ex -> failed[0] = true)
+                    .doFinally(signal -> release(System.nanoTime() - start, failed[0], noOp[0]));
+        }));
+    }
+
+    /**
+     * ingestion run 시작 시 호출합니다. 진행 중인 다른 run 이 없으면 무부하 지연을 다시 측정합니다.
+     */
+    public synchronized void runStarted() {
+        if (activeRuns++ == 0) noLoadLatencyNanos = Long.MAX_VALUE;
+    }
+
+    /**
+     * runStarted 를 호출한 run 이 끝날 때 (성공 / 실패 / 취소 모두) 한 번 호출합니다.
+     */
+    public synchronized void runFinished() {
+        if (activeRuns > 0) activeRuns--;
+    }
+
+    /**
+     * flatMap concurrency 상한으로 사용합니다. 실제 동시 실행 수는 limit 으로 제한됩니다.
+     */
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public synchronized double getLimit() {
+        return limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private Mono<Void> acquire() {
+        return Mono.create(sink -> {
+            boolean acquired;
+            synchronized (this) {
+                acquired = inFlight < (int) limit;
+                if (acquired) {
+                    inFlight++;
+                } else {
+                    waiters.add(sink);
+                }
+                // success 보다 먼저 취소되면 success 는 무시되므로, 대기 중이 아니면 (이미 받은) permit 을 돌려줌
+                sink.onCancel(() -> cancelled(sink));
+            }
+            if (acquired) sink.success();
+        });
+    }
+
+    private void cancelled(MonoSink<Void> sink) {
+        Deque<MonoSink<Void>> granted;
+        synchronized (this) {
+            if (waiters.remove(sink)) return;
+            inFlight--;
+            granted = grantWaiters();
+        }
+        granted.forEach(MonoSink::success);
+    }
+
+    private void release(long latencyNanos, boolean failed, boolean noOp) {
+        Deque<MonoSink<Void>> granted;
+        synchronized (this) {
+            inFlight--;
+            if (!noOp) adjust(latencyNanos, failed);
+            granted = grantWaiters();
+        }
+        granted.forEach(MonoSink::success);
+    }
+
+    /**
+     * limit 안에서 대기 중인 요청에 permit 을 넘깁니다. 반환한 sink 는 lock 밖에서 success 를 호출합니다.
+     */
+    private Deque<MonoSink<Void>> grantWaiters() {
+        Deque<MonoSink<Void>> granted = new ArrayDeque<>();
+        while (!waiters.isEmpty() && inFlight < (int) limit) {
+            granted.add(waiters.poll());
+            inFlight++;
+        }
+        return granted;
+    }
+
+    private void adjust(long latencyNanos, boolean failed) {
+        noLoadLatencyNanos = Math.min(noLoadLatencyNanos, latencyNanos);
+        boolean overloaded = failed || latencyNanos > noLoadLatencyNanos * latencyTolerance;
+
+        if (!overloaded) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (now - lastDecreaseAt < cooldown.toNanos()) return;
+        lastDecreaseAt = now;
+        limit = Math.max(minLimit, limit * backoffRatio);
+        // 오래된 최소 지연에 고정되지 않도록 기준을 조금씩 올림
+        noLoadLatencyNanos = (long) (noLoadLatencyNanos * 1.05);
+        log.debug("ingestion 쓰기 limit 감소 : limit = {}, latency = {}ms, failed = {}",
+                String.format("%.1f", limit), latencyNanos / 1_000_000, failed);
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.spotifyaggregator.service;
+
+import com.example.spotifyaggregator.domain.Song;
+import com.example.spotifyaggregator.dto.AlbumSketchRebuildResponse;
+import com.example.spotifyaggregator.dto.SongWithArtists;
+import com.example.spotifyaggregator.exception.AlbumStatsException;
+import com.example.spotifyaggregator.exception.ErrorCode;
+import com.example.spotifyaggregator.util.CollationKey;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 연도별 / 아티스트·연도별 앨범명의 HyperLogLog sketch 를 Redis 에 유지합니다. (album-stats.sketch.enabled = true 일 때만)
+ * - album-stats:hll:year:{year}, album-stats:hll:artist-year:{year}:{artist} : 앨범명 HLL (PFADD / PFCOUNT)
+ * - album-stats:hll:years, album-stats:hll:artist-years:{artist} : sketch 가 있는 연도 (score = 연도인 sorted set, 페이지 조회용)
+ * ingestion 은 저장한 row 의 (key, 앨범명) 을 메모리에 모아 두고 flush-interval 마다 key 별로 한 번씩 PFADD 합니다.
+ * 모든 인스턴스가 같은 key 에 PFADD 하므로 인스턴스 간 sketch 는 별도 병합 없이 합쳐지고, Redis 영속화로 재시작 후에도 유지됩니다.
+ * HLL 은 값을 뺄 수 없으므로 delta 로 앨범 / 연도가 바뀐 노래의 이전 값은 rebuild 전까지 남습니다.
+ * key 의 아티스트 이름과 PFADD 하는 앨범명은 DB collation (utf8mb4_unicode_ci) 처럼 CollationKey 로 접어,
+ * "ALB1" / "alb1" 을 COUNT(DISTINCT album) 처럼 하나로 세고 조회하는 아티스트 표기와 관계없이 같은 sketch 를 읽습니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AlbumSketchStore {
+
+    /**
+     * Redis HyperLogLog (레지스터 16384개) 의 상대 표준 오차
+     */
+    public static final double RELATIVE_STANDARD_ERROR = 0.0081;
+
+    private static final String KEY_PREFIX = "album-stats:hll:";
+    private static final String YEARS_KEY = KEY_PREFIX + "years";
+    private static final String YEAR_SKETCH_PREFIX = KEY_PREFIX + "year:";
+    private static final String ARTIST_YEARS_PREFIX = KEY_PREFIX + "artist-years:";
+    private static final String ARTIST_YEAR_SKETCH_PREFIX = KEY_PREFIX + "artist-year:";
+    private static final int FLUSH_CONCURRENCY = 16;
+    private static final int REBUILD_BATCH_SIZE = 10_000;
+
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final DatabaseClient databaseClient;
+
+    @Value("${album-stats.sketch.enabled:false}")
+    private boolean enabled;
+
+    @Value("${album-stats.sketch.flush-interval:1s}")
+    private Duration flushInterval;
+
+    private final Map<SketchKey, Set<String>> pending = new ConcurrentHashMap<>();
+    private Disposable flusher;
+
+    /**
+     * @param artist null 이면 연도별 sketch, 아니면 CollationKey 로 접은 이름
+     */
+    private record SketchKey(String artist, int year) {
+
+        static SketchKey of(String artist, int year) {
+            return new SketchKey(CollationKey.of(artist), year);
+        }
+    }
+
+    private record SketchEntry(SketchKey key, String album) {
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) return;
+
+        flusher = Flux.interval(flushInterval, flushInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> flush()
+                        .onErrorResume(e -> {
+                            log.warn("앨범 sketch 반영 실패, 다음 주기에 다시 시도합니다 : {}", e.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (flusher != null) flusher.dispose();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 저장한 row 의 앨범명을 다음 flush 대상으로 모읍니다.
+     */
+    public void add(SongWithArtists row) {
+        if (!enabled) return;
+        Song song = row.song();
+        if (song.getReleaseYear() != null) {
+            pend(SketchKey.of(null, song.getReleaseYear()), song.getAlbum());
+        }
+        LocalDate releaseDate = song.getReleaseDate();
+        if (releaseDate != null) {
+            for (String artist : row.artists()) {
+                pend(SketchKey.of(artist, releaseDate.getYear()), song.getAlbum());
+            }
+        }
+    }
+
+    /**
+     * 모아 둔 앨범명을 Redis 에 반영합니다. 실패하면 다음 flush 에서 다시 시도하도록 되돌립니다. (PFADD 는 다시 해도 같음)
+     */
+    public Mono<Void> flush() {
+        return Mono.defer(() -> {
+            List<Map.Entry<SketchKey, Set<String>>> drained = new ArrayList<>();
+            for (SketchKey key : pending.keySet()) {
+                Set<String> albums = pending.remove(key);
+                if (albums != null) drained.add(Map.entry(key, albums));
+            }
+            if (drained.isEmpty()) return Mono.empty();
+
+            return Flux.fromIterable(drained)
+                    .flatMap(entry -> write(entry.getKey(), entry.getValue()), FLUSH_CONCURRENCY)
+                    .then()
+                    .doOnError(e -> drained.forEach(entry ->
+                            entry.getValue().forEach(album -> pend(entry.getKey(), album))));
+        });
+    }
+
+    /**
+     * @param artist null 이면 연도별
+     * @return sketch 가 있는 연도 중 오름차순 [offset, offset + count) 범위
+     */
+    public Flux<Integer> years(String artist, long offset, int count) {
+        if (count <= 0) return Flux.empty();
+        return redisTemplate.opsForZSet()
+                .range(yearsKey(CollationKey.of(artist)), Range.closed(offset, offset + count - 1))
+                .map(Integer::parseInt);
+    }
+
+    public Mono<Long> yearCount(String artist) {
+        return redisTemplate.opsForZSet().size(yearsKey(CollationKey.of(artist)));
+    }
+
+    /**
+     * @return 해당 연도의 앨범 수 추정치 (PFCOUNT)
+     */
+    public Mono<Long> estimate(String artist, int year) {
+        return redisTemplate.opsForHyperLogLog().size(sketchKey(SketchKey.of(artist, year)));
+    }
+
+    /**
+     * 기존 sketch 를 지우고 원본 테이블에서 다시 만듭니다. (bulk load 후 / delta 로 바뀐 값 정리)
+     * 다시 만드는 동안의 조회는 일부 연도만 보이거나 작게 추정될 수 있습니다.
+     */
+    public Mono<AlbumSketchRebuildResponse> rebuild() {
+        if (!enabled) return Mono.error(new AlbumStatsException(ErrorCode.ALBUM_SKETCH_DISABLED));
+        long startTime = System.currentTimeMillis();
+        Mono<Long> deleted = redisTemplate.scan(ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(1000).build())
+                .buffer(500)
+                .concatMap(keys -> redisTemplate.delete(keys.toArray(String[]::new)))
+                .reduce(0L, Long::sum);
+
+        Flux<SketchEntry> years = databaseClient.sql("""
+                        SELECT DISTINCT release_year, album
+                        FROM song
+                        WHERE release_year IS NOT NULL
+                        """)
+                .map((row, meta) -> new SketchEntry(
+                        SketchKey.of(null, row.get("release_year", Integer.class)),
+                        row.get("album", String.class)))
+                .all();
+        Flux<SketchEntry> artistYears = databaseClient.sql("""
+                        SELECT DISTINCT a.name, YEAR(s.release_date) AS release_year, s.album
+                        FROM song_artist sa
+                        JOIN song s ON s.id = sa.song_id
+                        JOIN artist a ON a.id = sa.artist_id
+                        WHERE s.release_date IS NOT NULL
+                        """)
+                .map((row, meta) -> new SketchEntry(
+                        SketchKey.of(row.get("name", String.class), row.get("release_year", Integer.class)),
+                        row.get("album", String.class)))
+                .all();
+
+        return deleted
+                .thenMany(Flux.concat(years, artistYears))
+                .buffer(REBUILD_BATCH_SIZE)
+                .concatMap(batch -> {
+                    batch.forEach(entry -> pend(entry.key(), entry.album()));
+                    return flush().thenReturn((long) batch.size());
+                })
+                .reduce(0L, Long::sum)
+                .map(entries -> new AlbumSketchRebuildResponse(entries, System.currentTimeMillis() - startTime))
+                .doOnNext(result -> log.info("앨범 sketch 재생성 완료 : 조합 = {}, 소요 시간 = {}ms",
+                        result.entries(), result.elapsedMillis()));
+    }
+
+    private void pend(SketchKey key, String album) {
+        pending.compute(key, (k, albums) -> {
+            if (albums == null) albums = new HashSet<>();
+            if (album != null) albums.add(CollationKey.of(album));
+            return albums;
+        });
+    }
+
+    /**
+     * 앨범이 모두 NULL 인 연도도 GROUP BY 처럼 0 으로 보이도록 연도 목록에는 항상 추가합니다.
+     */
+    private Mono<Void> write(SketchKey key, Set<String> albums) {
+        Mono<Long> sketch = albums.isEmpty()
+                ? Mono.empty()
+                : redisTemplate.opsForHyperLogLog().add(sketchKey(key), albums.toArray(String[]::new));
+        Mono<Boolean> index = redisTemplate.opsForZSet()
+                .add(yearsKey(key.artist()), String.valueOf(key.year()), key.year());
+        return sketch.then(index).then();
+    }
+
+    private static String yearsKey(String artist) {
+        return artist == null ? YEARS_KEY : ARTIST_YEARS_PREFIX + artist;
+    }
+
+    private static String sketchKey(SketchKey key) {
+        return key.artist() == null
+                ? YEAR_SKETCH_PREFIX + key.year()
+                : ARTIST_YEAR_SKETCH_PREFIX + key.year() + ":" + key.artist();
+    }
+}
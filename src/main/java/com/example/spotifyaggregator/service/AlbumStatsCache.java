@@ -0,0 +1,262 @@
+package com.example.spotifyaggregator.service;
+
+import com.example.spotifyaggregator.util.LruCache;
+import com.example.spotifyaggregator.util.SingleFlight;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 앨범 통계 조회 결과의 read-through 캐시입니다.
+ * - 1차 : 프로세스 내 LRU (max-size, 항목마다 local-ttl), 2차 : 선택적으로 Redis (여러 인스턴스가 결과 공유)
+ * - 항목은 저장 시점의 data version 을 가지며, ingestion 이 끝날 때 version 을 올리면 이전 항목은 모두 miss 처리
+ * - Redis 캐시를 쓰거나 분산 ingestion 이 켜져 있으면 공유 version 을 Redis 에 두고 version-poll-interval 마다 읽어
+ *   다른 인스턴스의 ingestion 도 반영 (Redis 캐시를 꺼도 다른 인스턴스가 적재한 결과가 계속 남지 않도록)
+ * - 공유 version 을 읽지 못하는 동안에도 local-ttl 이 지난 1차 항목은 다시 조회
+ * - miss 로 조회하는 동안 같은 version 의 같은 key 요청이 또 들어오면 새로 조회하지 않고 진행 중인 결과를 함께 받음 (캐시를 꺼도 동작)
+ * 통계는 ingestion 이 끝날 때만 바뀐다고 보므로, ingestion 도중의 결과는 끝날 때까지 캐시된 값이 반환될 수 있습니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AlbumStatsCache {
+
+    private static final String VERSION_KEY = "album-stats:data-version";
+    private static final String ENTRY_KEY_PREFIX = "album-stats:cache:";
+
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${album-stats.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${album-stats.cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${album-stats.cache.local-ttl:1m}")
+    private Duration localTtl;
+
+    @Value("${album-stats.cache.redis.enabled:false}")
+    private boolean redisEnabled;
+
+    @Value("${album-stats.cache.redis.ttl:10m}")
+    private Duration redisTtl;
+
+    @Value("${album-stats.cache.redis.version-poll-interval:1s}")
+    private Duration versionPollInterval;
+
+    @Value("${ingestion.distributed.enabled:false}")
+    private boolean distributedIngestion;
+
+    private final AtomicLong localVersion = new AtomicLong();
+    private final AtomicLong sharedVersion = new AtomicLong();
+    private final AtomicInteger pendingSharedBumps = new AtomicInteger();
+    private final SingleFlight<String> inFlightQueries = new SingleFlight<>();
+    private final List<Runnable> sharedVersionListeners = new CopyOnWriteArrayList<>();
+    private LruCache<String, Entry> local;
+    private Counter localHits;
+    private Counter redisHits;
+    private Counter misses;
+    private Disposable versionPoller;
+
+    private record Entry(long localVersion, long sharedVersion, long expiresAtNanos, Object value) {
+    }
+
+    @PostConstruct
+    void init() {
+        local = new LruCache<>(maxSize);
+        localHits = requests("hit", "local");
+        redisHits = requests("hit", "redis");
+        misses = requests("miss", "none");
+        Gauge.builder("album.stats.cache.size", this, cache -> cache.local.size())
+                .description("앨범 통계 1차(프로세스 내) 캐시 항목 수")
+                .register(meterRegistry);
+        FunctionCounter.builder("album.stats.cache.evictions", this, cache -> cache.local.evictions())
+                .description("크기 제한으로 제거된 앨범 통계 캐시 항목 수")
+                .register(meterRegistry);
+        FunctionCounter.builder("album.stats.queries", inFlightQueries, SingleFlight::executions)
+                .description("DB(또는 통계 소스)를 실제로 조회한 앨범 통계 요청 수")
+                .tag("result", "executed")
+                .register(meterRegistry);
+        FunctionCounter.builder("album.stats.queries", inFlightQueries, SingleFlight::coalesced)
+                .description("진행 중인 같은 조회의 결과를 함께 받은 앨범 통계 요청 수")
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+
+        if (sharedVersionEnabled()) {
+            versionPoller = Flux.interval(Duration.ZERO, versionPollInterval)
+                    .onBackpressureDrop()
+                    .concatMap(tick -> redisTemplate.opsForValue().get(VERSION_KEY)
+                            .map(Long::parseLong)
+                            .doOnNext(this::advanceSharedVersion)
+                            .onErrorResume(e -> {
+                                log.debug("앨범 통계 캐시 version 조회 실패 : {}", e.getMessage());
+                                return Mono.empty();
+                            }))
+                    .subscribe();
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (versionPoller != null) versionPoller.dispose();
+    }
+
+    /**
+     * 캐시에 현재 version 의 값이 있으면 반환하고, 없으면 loader 결과를 캐시에 넣고 반환합니다. loader 의 에러는 캐시하지 않습니다.
+     *
+     * @param type 값 타입 (Redis 에서 읽을 때 역직렬화에 사용)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> get(String key, JavaType type, Supplier<Mono<T>> loader) {
+        return Mono.defer(() -> {
+            long localVer = localVersion.get();
+            long sharedVer = sharedVersion.get();
+            // 무효화 전에 시작한 조회에 합쳐져 그 결과가 새 version 으로 저장되지 않도록 version 이 같은 조회끼리만 합침
+            Mono<T> query = inFlightQueries.execute(localVer + ":" + sharedVer + ":" + key, loader);
+            if (!enabled) return query;
+
+            Entry entry = local.get(key);
+            if (entry != null && entry.localVersion() == localVer && entry.sharedVersion() == sharedVer
+                    && System.nanoTime() - entry.expiresAtNanos() < 0) {
+                localHits.increment();
+                return Mono.just((T) entry.value());
+            }
+
+            Mono<T> load = query
+                    .doOnSubscribe(s -> misses.increment())
+                    .doOnNext(value -> {
+                        store(key, entry(localVer, sharedVer, value));
+                        if (useRedis()) writeShared(key, sharedVer, value);
+                    });
+            if (!useRedis()) return load;
+
+            return readShared(key, sharedVer, type)
+                    .doOnNext(value -> {
+                        redisHits.increment();
+                        store(key, entry(localVer, sharedVer, value));
+                    })
+                    .switchIfEmpty(load);
+        });
+    }
+
+    public JavaType type(Class<?> container, Class<?> element) {
+        return objectMapper.getTypeFactory().constructParametricType(container, element);
+    }
+
+    /**
+     * 다른 인스턴스가 공유 version 을 올린 것을 poll 로 확인했을 때 호출할 listener 를 등록합니다.
+     * (인스턴스마다 따로 만드는 ColumnarAlbumStatsEngine 스냅샷 갱신용)
+     */
+    public void onSharedVersionChange(Runnable listener) {
+        sharedVersionListeners.add(listener);
+    }
+
+    /**
+     * data version 을 올려 이전 항목을 모두 무효화합니다. (ingestion / 통계 테이블 갱신이 끝났을 때 호출)
+     * 공유 version 을 쓰면 공유 version 도 올려 다른 인스턴스가 다음 poll 에서 무효화하도록 합니다.
+     */
+    public void invalidate() {
+        localVersion.incrementAndGet();
+        if (!sharedVersionEnabled()) return;
+
+        // 공유 version 이 올라가기 전까지는 이전 version 의 Redis 항목을 읽지 않음
+        pendingSharedBumps.incrementAndGet();
+        redisTemplate.opsForValue().increment(VERSION_KEY)
+                .doFinally(signal -> pendingSharedBumps.decrementAndGet())
+                .subscribe(this::advanceSharedVersion,
+                        e -> log.warn("앨범 통계 캐시 공유 version 갱신 실패 : {}", e.getMessage()));
+    }
+
+    /**
+     * 이 인스턴스의 항목만 무효화합니다. (이 인스턴스의 메모리 스냅샷만 바뀐 경우, 다른 인스턴스에 알리지 않음)
+     */
+    public void invalidateLocal() {
+        localVersion.incrementAndGet();
+    }
+
+    private Entry entry(long localVer, long sharedVer, Object value) {
+        return new Entry(localVer, sharedVer, System.nanoTime() + localTtl.toNanos(), value);
+    }
+
+    /**
+     * 늦게 끝난 이전 version 의 조회 결과가 이미 저장된 새 version 항목을 덮어쓰지 않도록 합니다.
+     */
+    private void store(String key, Entry entry) {
+        Entry current = local.get(key);
+        if (current != null && (current.localVersion() > entry.localVersion()
+                || current.sharedVersion() > entry.sharedVersion())) {
+            return;
+        }
+        local.put(key, entry);
+    }
+
+    private boolean sharedVersionEnabled() {
+        return enabled && redisEnabled || distributedIngestion;
+    }
+
+    private boolean useRedis() {
+        return redisEnabled && pendingSharedBumps.get() == 0;
+    }
+
+    private <T> Mono<T> readShared(String key, long version, JavaType type) {
+        return redisTemplate.opsForValue().get(ENTRY_KEY_PREFIX + version + ":" + key)
+                .<T>handle((json, sink) -> {
+                    try {
+                        sink.next(objectMapper.readValue(json, type));
+                    } catch (JsonProcessingException e) {
+                        log.warn("앨범 통계 캐시 항목 역직렬화 실패, DB 에서 다시 조회합니다 : key = {}", key);
+                    }
+                })
+                .onErrorResume(e -> {
+                    log.debug("앨범 통계 Redis 캐시 조회 실패 : {}", e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private void writeShared(String key, long version, Object value) {
+        try {
+            String json = objectMapper.writeValueAsString(value);
+            redisTemplate.opsForValue().set(ENTRY_KEY_PREFIX + version + ":" + key, json, redisTtl)
+                    .subscribe(ok -> {
+                    }, e -> log.debug("앨범 통계 Redis 캐시 저장 실패 : {}", e.getMessage()));
+        } catch (JsonProcessingException e) {
+            log.warn("앨범 통계 캐시 항목 직렬화 실패 : key = {}", key, e);
+        }
+    }
+
+    private void advanceSharedVersion(long version) {
+        long previous = sharedVersion.getAndAccumulate(version, Math::max);
+        if (version > previous) sharedVersionListeners.forEach(Runnable::run);
+    }
+
+    private Counter requests(String result, String tier) {
+        return Counter.builder("album.stats.cache.requests")
+                .description("앨범 통계 캐시 조회 수")
+                .tag("result", result)
+                .tag("tier", tier)
+                .register(meterRegistry);
+    }
+}
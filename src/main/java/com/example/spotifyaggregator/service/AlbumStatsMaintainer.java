@@ -0,0 +1,268 @@
+package com.example.spotifyaggregator.service;
+
+import com.example.spotifyaggregator.dto.AlbumStatsRebuildResponse;
+import com.example.spotifyaggregator.dto.SongWithArtists;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * album_stats_by_year / album_stats_by_artist_year 를 ingestion 과 함께 갱신합니다. (album-stats.read-source = materialized 일 때만)
+ * - ingestion 은 저장한 row 의 연도와 아티스트를 dirty 로 표시만 하고 (메모리 set 추가)
+ * - refresh-interval 마다 dirty 연도 / 아티스트의 통계만 index 범위 조회로 다시 계산해 트랜잭션으로 교체
+ * INSERT IGNORE / 중복 skip / delta UPDATE 등 실제로 반영된 row 를 알기 어려운 경로가 있어 +1 / -1 누적 대신
+ * 건드린 key 를 원본에서 다시 세므로, 어떤 쓰기 경로로 들어와도 원본 집계와 같아집니다.
+ * bulk load 후에는 전체를 다시 계산하고, rebuild 는 전체 재계산 전에 기존 테이블이 원본 집계와 같은지 비교해 보고합니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AlbumStatsMaintainer {
+
+    private static final int REFRESH_CHUNK_SIZE = 500;
+
+    private static final String YEAR_STATS = """
+            SELECT release_year, COUNT(DISTINCT album) AS album_count
+            FROM song
+            WHERE release_year IS NOT NULL %s
+            GROUP BY release_year
+            """;
+
+    private static final String ARTIST_YEAR_STATS = """
+            SELECT sa.artist_id, YEAR(s.release_date) AS release_year, COUNT(DISTINCT s.album) AS album_count
+            FROM song_artist sa
+            JOIN song s ON s.id = sa.song_id
+            WHERE s.release_date IS NOT NULL %s
+            GROUP BY sa.artist_id, YEAR(s.release_date)
+            """;
+
+    private static final String ARTIST_IDS_BY_NAME = "(SELECT id FROM artist WHERE name IN (:names))";
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final AlbumStatsCache albumStatsCache;
+
+    @Value("${album-stats.read-source:live}")
+    private String readSource;
+
+    @Value("${album-stats.materialized.refresh-interval:1s}")
+    private Duration refreshInterval;
+
+    private final Set<Integer> dirtyYears = ConcurrentHashMap.newKeySet();
+    private final Set<String> dirtyArtists = ConcurrentHashMap.newKeySet();
+    private boolean enabled;
+    private Disposable refresher;
+
+    @PostConstruct
+    void start() {
+        enabled = AlbumStatsReadSource.from(readSource) == AlbumStatsReadSource.MATERIALIZED;
+        if (!enabled) return;
+
+        refresher = Flux.interval(refreshInterval, refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> flush()
+                        .onErrorResume(e -> {
+                            log.warn("앨범 통계 갱신 실패, 다음 주기에 다시 시도합니다 : {}", e.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (refresher != null) refresher.dispose();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 저장한 row 의 연도와 아티스트를 다음 갱신 대상으로 표시합니다.
+     */
+    public void touch(SongWithArtists row) {
+        if (!enabled) return;
+        if (row.song().getReleaseYear() != null) dirtyYears.add(row.song().getReleaseYear());
+        dirtyArtists.addAll(row.artists());
+    }
+
+    /**
+     * 기존 song 을 바꾸기 전에 저장된 연도와 아티스트를 표시합니다. (delta UPDATE 로 연도 / 아티스트가 빠지는 경우)
+     */
+    public Mono<Void> touchStored(long songId) {
+        if (!enabled) return Mono.empty();
+        return databaseClient.sql("""
+                        SELECT s.release_year, a.name
+                        FROM song s
+                        LEFT JOIN song_artist sa ON sa.song_id = s.id
+                        LEFT JOIN artist a ON a.id = sa.artist_id
+                        WHERE s.id = :id
+                        """)
+                .bind("id", songId)
+                .map((row, meta) -> {
+                    Integer year = row.get("release_year", Integer.class);
+                    String name = row.get("name", String.class);
+                    if (year != null) dirtyYears.add(year);
+                    if (name != null) dirtyArtists.add(name);
+                    return Boolean.TRUE;
+                })
+                .all()
+                .then();
+    }
+
+    /**
+     * dirty 로 표시된 연도 / 아티스트의 통계를 다시 계산합니다. 실패하면 다음 갱신에서 다시 시도하도록 표시를 되돌립니다.
+     */
+    public Mono<Void> flush() {
+        return Mono.defer(() -> {
+            List<Integer> years = drain(dirtyYears);
+            List<String> artists = drain(dirtyArtists);
+            if (years.isEmpty() && artists.isEmpty()) return Mono.empty();
+
+            long startTime = System.currentTimeMillis();
+            return Flux.fromIterable(chunks(years))
+                    .concatMap(this::refreshYears)
+                    .thenMany(Flux.fromIterable(chunks(artists)).concatMap(this::refreshArtists))
+                    .then()
+                    .doOnSuccess(v -> {
+                        albumStatsCache.invalidate();
+                        log.debug("앨범 통계 갱신 : 연도 = {}, 아티스트 = {}, 소요 시간 = {}ms",
+                                years.size(), artists.size(), System.currentTimeMillis() - startTime);
+                    })
+                    .doOnError(e -> {
+                        dirtyYears.addAll(years);
+                        dirtyArtists.addAll(artists);
+                    });
+        });
+    }
+
+    /**
+     * 통계 테이블 전체를 원본에서 다시 계산합니다. (bulk load 직후)
+     */
+    public Mono<Void> recomputeAll() {
+        return Mono.defer(() -> {
+            dirtyYears.clear();
+            dirtyArtists.clear();
+            long startTime = System.currentTimeMillis();
+            return databaseClient.sql("DELETE FROM album_stats_by_year").then()
+                    .then(databaseClient.sql("INSERT INTO album_stats_by_year (release_year, album_count) "
+                            + YEAR_STATS.formatted("")).then())
+                    .then(databaseClient.sql("DELETE FROM album_stats_by_artist_year").then())
+                    .then(databaseClient.sql("INSERT INTO album_stats_by_artist_year (artist_id, release_year, album_count) "
+                            + ARTIST_YEAR_STATS.formatted("")).then())
+                    .as(transactionalOperator::transactional)
+                    .doOnSuccess(v -> {
+                        albumStatsCache.invalidate();
+                        log.info("앨범 통계 전체 재계산 완료 : 소요 시간 = {}ms", System.currentTimeMillis() - startTime);
+                    });
+        });
+    }
+
+    /**
+     * 현재 통계 테이블을 원본 집계와 비교한 뒤 전체를 다시 계산합니다.
+     */
+    public Mono<AlbumStatsRebuildResponse> rebuild() {
+        long startTime = System.currentTimeMillis();
+        Mono<long[]> years = compare(YEAR_STATS.formatted(""), "album_stats_by_year",
+                "m.release_year = f.release_year");
+        Mono<long[]> artistYears = compare(ARTIST_YEAR_STATS.formatted(""), "album_stats_by_artist_year",
+                "m.artist_id = f.artist_id AND m.release_year = f.release_year");
+
+        return Mono.zip(years, artistYears)
+                .flatMap(tuple -> recomputeAll().thenReturn(tuple))
+                .map(tuple -> {
+                    long[] y = tuple.getT1();
+                    long[] a = tuple.getT2();
+                    boolean consistent = y[1] + y[2] + y[3] + a[1] + a[2] + a[3] == 0;
+                    AlbumStatsRebuildResponse response = new AlbumStatsRebuildResponse(
+                            y[0], y[1], y[2], y[3], a[0], a[1], a[2], a[3],
+                            consistent, System.currentTimeMillis() - startTime);
+                    if (!consistent) {
+                        log.warn("앨범 통계 테이블이 원본 집계와 달랐습니다 (재계산으로 교정) : {}", response);
+                    }
+                    return response;
+                });
+    }
+
+    private Mono<Void> refreshYears(List<Integer> years) {
+        return databaseClient.sql("DELETE FROM album_stats_by_year WHERE release_year IN (:years)")
+                .bind("years", years)
+                .then()
+                .then(databaseClient.sql("INSERT INTO album_stats_by_year (release_year, album_count) "
+                                + YEAR_STATS.formatted("AND release_year IN (:years)"))
+                        .bind("years", years)
+                        .then())
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<Void> refreshArtists(List<String> names) {
+        return databaseClient.sql("DELETE FROM album_stats_by_artist_year WHERE artist_id IN " + ARTIST_IDS_BY_NAME)
+                .bind("names", names)
+                .then()
+                .then(databaseClient.sql("INSERT INTO album_stats_by_artist_year (artist_id, release_year, album_count) "
+                                + ARTIST_YEAR_STATS.formatted("AND sa.artist_id IN " + ARTIST_IDS_BY_NAME))
+                        .bind("names", names)
+                        .then())
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * @return {원본 row 수, 테이블에 없는 row 수, album_count 가 다른 row 수, 원본에 없는 row 수}
+     */
+    private Mono<long[]> compare(String freshSql, String table, String joinCondition) {
+        Mono<long[]> fresh = databaseClient.sql("""
+                        SELECT COUNT(*) AS fresh_rows,
+                               COUNT(m.album_count) AS matched,
+                               COUNT(CASE WHEN m.album_count <> f.album_count THEN 1 END) AS mismatched
+                        FROM (%s) f
+                        LEFT JOIN %s m ON %s
+                        """.formatted(freshSql, table, joinCondition))
+                .map((row, meta) -> new long[]{
+                        row.get("fresh_rows", Long.class),
+                        row.get("matched", Long.class),
+                        row.get("mismatched", Long.class)})
+                .one();
+        Mono<Long> stored = databaseClient.sql("SELECT COUNT(*) FROM " + table)
+                .map((row, meta) -> row.get(0, Long.class))
+                .one();
+        return Mono.zip(fresh, stored)
+                .map(tuple -> {
+                    long[] f = tuple.getT1();
+                    return new long[]{f[0], f[0] - f[1], f[2], tuple.getT2() - f[1]};
+                });
+    }
+
+    private static <T> List<T> drain(Set<T> set) {
+        List<T> drained = new ArrayList<>();
+        for (Iterator<T> it = set.iterator(); it.hasNext(); ) {
+            drained.add(it.next());
+            it.remove();
+        }
+        return drained;
+    }
+
+    private static <T> List<List<T>> chunks(Collection<T> values) {
+        List<T> list = List.copyOf(values);
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < list.size(); i += REFRESH_CHUNK_SIZE) {
+            chunks.add(list.subList(i, Math.min(list.size(), i + REFRESH_CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+}
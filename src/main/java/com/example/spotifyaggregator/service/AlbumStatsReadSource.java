@@ -0,0 +1,13 @@
+package com.example.spotifyaggregator.service;
+
+import java.util.Locale;
+
+public enum AlbumStatsReadSource {
+    LIVE,         // 요청마다 song / song_artist 를 GROUP BY
+    MATERIALIZED, // album_stats_by_year / album_stats_by_artist_year 를 page 단위로 조회
+    COLUMNAR;     // ColumnarAlbumStatsEngine 이 메모리에 올린 스냅샷에서 조회 (DB 조회 없음)
+
+    public static AlbumStatsReadSource from(String value) {
+        return AlbumStatsReadSource.valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+}
@@ -2,21 +2,82 @@ package com.example.spotifyaggregator.service;
 
 import com.example.spotifyaggregator.dto.AlbumStatsByArtistResponse;
 import com.example.spotifyaggregator.dto.AlbumStatsByYearResponse;
+import com.example.spotifyaggregator.dto.ApproximatePagedResponse;
+import com.example.spotifyaggregator.dto.ArtistAlbumStatsResponse;
+import com.example.spotifyaggregator.dto.CursorPageResponse;
 import com.example.spotifyaggregator.dto.PagedResponse;
+import com.example.spotifyaggregator.exception.AlbumStatsException;
 import com.example.spotifyaggregator.exception.AlbumStatsNotFoundException;
+import com.example.spotifyaggregator.exception.ErrorCode;
+import com.example.spotifyaggregator.exception.InvalidArtistNameException;
+import com.example.spotifyaggregator.exception.InvalidCursorException;
+import com.example.spotifyaggregator.util.CollationKey;
+import com.example.spotifyaggregator.util.ColumnarAlbumStats;
+import com.example.spotifyaggregator.util.YearCursor;
+import com.fasterxml.jackson.databind.JavaType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 
 @Service
 @RequiredArgsConstructor
 public class AlbumStatsService {
 private final DatabaseClient databaseClient;
+    private final AlbumStatsCache albumStatsCache;
+    private final ColumnarAlbumStatsEngine columnarEngine;
+    private final AlbumSketchStore albumSketchStore;
 
+    /**
+     * live : 요청마다 원본 테이블 GROUP BY, materialized : AlbumStatsMaintainer 가 갱신하는 통계 테이블을 page 만큼만 조회,
+     * columnar : ColumnarAlbumStatsEngine 의 메모리 스냅샷에서 조회 (스냅샷이 준비되기 전에는 live)
+     */
+    @Value("${album-stats.read-source:live}")
+    private String readSource;
+
+    @Value("${album-stats.batch.max-artists:500}")
+    private int maxBatchArtists;
+
+    @Value("${album-stats.export.fetch-size:500}")
+    private int exportFetchSize;
+
+    private record ArtistYearRow(long artistId, int releaseYear, long albumCount) {
+    }
+
+    /**
+     * 조회 결과는 AlbumStatsCache 에 (조회 조건 → 결과) 로 캐시되고, ingestion 이 끝나면 무효화됩니다.
+     */
     public Mono<PagedResponse<AlbumStatsByYearResponse>> getAlbumStatsByYear(int page, int size) {
+        return cached("by-year:" + page + ":" + size,
+                albumStatsCache.type(PagedResponse.class, AlbumStatsByYearResponse.class),
+                () -> loadAlbumStatsByYear(page, size));
+    }
+
+    private Mono<PagedResponse<AlbumStatsByYearResponse>> loadAlbumStatsByYear(int page, int size) {
+        Optional<ColumnarAlbumStats> columnar = columnarEngine.snapshot();
+        if (columnar.isPresent()) {
+            ColumnarAlbumStats.YearCounts counts = columnar.get().byYear();
+            List<AlbumStatsByYearResponse> content = columnarRows(counts, (long) page * size, size,
+                    AlbumStatsByYearResponse::new);
+            return Mono.just(toPage(content, page, size, counts.size()));
+        }
+        if (isMaterialized()) {
+            return getMaterializedStatsByYear(page, size);
+        }
         String dataSql = """
             SELECT release_year,
                    COUNT(DISTINCT album) AS album_count
@@ -61,6 +122,24 @@ private final DatabaseClient databaseClient;
     }
 
     public Mono<PagedResponse<AlbumStatsByArtistResponse>> getAlbumStatsByArtist(String artist, int page, int size) {
+        return cached("by-artist:" + page + ":" + size + ":" + artist,
+                albumStatsCache.type(PagedResponse.class, AlbumStatsByArtistResponse.class),
+                () -> loadAlbumStatsByArtist(artist, page, size));
+    }
+
+    private Mono<PagedResponse<AlbumStatsByArtistResponse>> loadAlbumStatsByArtist(String artist, int page, int size) {
+        Optional<ColumnarAlbumStats> columnar = columnarEngine.snapshot();
+        if (columnar.isPresent()) {
+            ColumnarAlbumStats.YearCounts counts = columnar.get().byArtist(artist);
+            List<AlbumStatsByArtistResponse> content = columnarRows(counts, (long) page * size, size,
+                    (year, count) -> new AlbumStatsByArtistResponse(artist, year, count));
+            return content.isEmpty()
+                    ? Mono.error(new AlbumStatsNotFoundException())
+                    : Mono.just(toPage(content, page, size, counts.size()));
+        }
+        if (isMaterialized()) {
+            return getMaterializedStatsByArtist(artist, page, size);
+        }
         String dataSql = """
             SELECT a.name AS artist_name,
                            YEAR(s.release_date) AS release_year,
@@ -118,4 +197,490 @@ private final DatabaseClient databaseClient;
                     return new PagedResponse<>(content, page, size, totalElements, totalPages);
                 });
     }
-}
\ No newline at end of file
+
+    private Mono<PagedResponse<AlbumStatsByYearResponse>> getMaterializedStatsByYear(int page, int size) {
+        Mono<List<AlbumStatsByYearResponse>> contentMono = databaseClient.sql("""
+                        SELECT release_year, album_count
+                        FROM album_stats_by_year
+                        ORDER BY release_year
+                        LIMIT :limit OFFSET :offset
+                        """)
+                .bind("limit", size)
+                .bind("offset", page * size)
+                .map((row, meta) -> new AlbumStatsByYearResponse(
+                        row.get("release_year", Integer.class),
+                        row.get("album_count", Long.class)
+                ))
+                .all()
+                .collectList();
+
+        Mono<Long> countMono = databaseClient.sql("SELECT COUNT(*) FROM album_stats_by_year")
+                .map((row, meta) -> row.get(0, Long.class))
+                .one()
+                .defaultIfEmpty(0L);
+
+        return Mono.zip(contentMono, countMono)
+                .map(tuple -> toPage(tuple.getT1(), page, size, tuple.getT2()));
+    }
+
+    private Mono<PagedResponse<AlbumStatsByArtistResponse>> getMaterializedStatsByArtist(String artist, int page, int size) {
+        Mono<List<AlbumStatsByArtistResponse>> contentMono = databaseClient.sql("""
+                        SELECT a.name AS artist_name, m.release_year, m.album_count
+                        FROM artist a
+                        JOIN album_stats_by_artist_year m ON m.artist_id = a.id
+                        WHERE a.name = :artist
+                        ORDER BY m.release_year
+                        LIMIT :limit OFFSET :offset
+                        """)
+                .bind("artist", artist)
+                .bind("limit", size)
+                .bind("offset", page * size)
+                .map((row, meta) -> new AlbumStatsByArtistResponse(
+                        row.get("artist_name", String.class),
+                        row.get("release_year", Integer.class),
+                        row.get("album_count", Long.class)
+                ))
+                .all()
+                .collectList()
+                .flatMap(list -> list.isEmpty()
+                        ? Mono.error(new AlbumStatsNotFoundException())
+                        : Mono.just(list)
+                );
+
+        Mono<Long> countMono = databaseClient.sql("""
+                        SELECT COUNT(*) AS total
+                        FROM artist a
+                        JOIN album_stats_by_artist_year m ON m.artist_id = a.id
+                        WHERE a.name = :artist
+                        """)
+                .bind("artist", artist)
+                .map((row, meta) -> row.get("total", Long.class))
+                .one()
+                .defaultIfEmpty(0L);
+
+        return Mono.zip(contentMono, countMono)
+                .map(tuple -> toPage(tuple.getT1(), page, size, tuple.getT2()));
+    }
+
+    /**
+     * 연도별 앨범 수 전체를 페이지 없이 스트리밍합니다. 결과를 모아 두지 않고 구독자의 요청(backpressure)만큼 DB 에서 fetch-size 단위로 읽습니다.
+     */
+    public Flux<AlbumStatsByYearResponse> streamAlbumStatsByYear() {
+        return Flux.defer(() -> {
+            Optional<ColumnarAlbumStats> columnar = columnarEngine.snapshot();
+            if (columnar.isPresent()) {
+                ColumnarAlbumStats.YearCounts counts = columnar.get().byYear();
+                return Flux.range(0, counts.size())
+                        .map(i -> new AlbumStatsByYearResponse(counts.year(i), counts.count(i)));
+            }
+            String sql = isMaterialized()
+                    ? """
+                    SELECT release_year, album_count
+                    FROM album_stats_by_year
+                    ORDER BY release_year
+                    """
+                    : """
+                    SELECT release_year, COUNT(DISTINCT album) AS album_count
+                    FROM song
+                    WHERE release_year IS NOT NULL
+                    GROUP BY release_year
+                    ORDER BY release_year
+                    """;
+            return databaseClient.sql(sql)
+                    .filter((statement, next) -> next.execute(statement.fetchSize(exportFetchSize)))
+                    .map((row, meta) -> new AlbumStatsByYearResponse(
+                            row.get("release_year", Integer.class),
+                            row.get("album_count", Long.class)
+                    ))
+                    .all();
+        });
+    }
+
+    /**
+     * 모든 아티스트의 연도별 앨범 수를 (아티스트, 연도) 순으로 스트리밍합니다. 아티스트는 읽기 방식과 관계없이 artist id 순입니다.
+     */
+    public Flux<AlbumStatsByArtistResponse> streamAlbumStatsByArtist() {
+        return Flux.defer(() -> {
+            Optional<ColumnarAlbumStats> columnar = columnarEngine.snapshot();
+            if (columnar.isPresent()) {
+                ColumnarAlbumStats stats = columnar.get();
+                return Flux.fromIterable(stats.artists())
+                        .concatMap(artist -> {
+                            ColumnarAlbumStats.YearCounts counts = stats.byArtist(artist);
+                            return Flux.range(0, counts.size())
+                                    .map(i -> new AlbumStatsByArtistResponse(artist, counts.year(i), counts.count(i)));
+                        });
+            }
+            String sql = isMaterialized()
+                    ? """
+                    SELECT a.name AS artist_name, m.release_year, m.album_count
+                    FROM album_stats_by_artist_year m
+                    JOIN artist a ON a.id = m.artist_id
+                    ORDER BY m.artist_id, m.release_year
+                    """
+                    : """
+                    SELECT a.name AS artist_name,
+                           YEAR(s.release_date) AS release_year,
+                           COUNT(DISTINCT s.album) AS album_count
+                    FROM song_artist sa
+                    JOIN song s ON s.id = sa.song_id
+                    JOIN artist a ON a.id = sa.artist_id
+                    WHERE s.release_date IS NOT NULL
+                    GROUP BY sa.artist_id, a.name, YEAR(s.release_date)
+                    ORDER BY sa.artist_id, release_year
+                    """;
+            return databaseClient.sql(sql)
+                    .filter((statement, next) -> next.execute(statement.fetchSize(exportFetchSize)))
+                    .map((row, meta) -> new AlbumStatsByArtistResponse(
+                            row.get("artist_name", String.class),
+                            row.get("release_year", Integer.class),
+                            row.get("album_count", Long.class)
+                    ))
+                    .all();
+        });
+    }
+
+    /**
+     * 여러 아티스트의 연도별 앨범 수를 한 번에 조회합니다.
+     * 이름 → id 를 한 번에 찾고, artist_id 로 묶은 쿼리 하나를 artist_id 순으로 읽으면서 아티스트 하나가 끝날 때마다 내보냅니다.
+     * 통계가 없는 아티스트는 전체를 실패시키지 않고 마지막에 found=false 로 내보냅니다.
+     */
+    public Flux<ArtistAlbumStatsResponse> getAlbumStatsByArtists(List<String> artists) {
+        return Flux.defer(() -> {
+            if (artists == null || artists.isEmpty() || artists.stream().anyMatch(name -> name == null || name.isBlank())) {
+                return Flux.error(new InvalidArtistNameException());
+            }
+            List<String> names = artists.stream().distinct().toList();
+            if (names.size() > maxBatchArtists) {
+                return Flux.error(new AlbumStatsException(ErrorCode.ALBUM_STATS_BATCH_TOO_LARGE));
+            }
+
+            Optional<ColumnarAlbumStats> columnar = columnarEngine.snapshot();
+            if (columnar.isPresent()) {
+                return Flux.fromIterable(names)
+                        .map(name -> {
+                            ColumnarAlbumStats.YearCounts counts = columnar.get().byArtist(name);
+                            return counts.size() == 0
+                                    ? ArtistAlbumStatsResponse.notFound(name)
+                                    : new ArtistAlbumStatsResponse(name, true,
+                                    columnarRows(counts, 0, counts.size(), AlbumStatsByYearResponse::new));
+                        });
+            }
+
+            return resolveArtistIds(names).flatMapMany(ids -> {
+                // artist.name 은 대소문자 / 악센트를 구분하지 않는 collation 이므로, DB 가 돌려준 이름과 같은 collation key 의
+                // 요청 이름을 그 artist id 로 묶음 ("drake", "Drake" 를 함께 요청하면 둘 다 같은 통계)
+                Map<String, Long> idsByKey = new HashMap<>();
+                ids.forEach((id, name) -> idsByKey.put(CollationKey.of(name), id));
+                Map<Long, List<String>> requested = new LinkedHashMap<>();
+                names.forEach(name -> {
+                    Long id = idsByKey.get(CollationKey.of(name));
+                    if (id != null) requested.computeIfAbsent(id, key -> new ArrayList<>()).add(name);
+                });
+
+                Set<Long> found = ConcurrentHashMap.newKeySet();
+                Flux<ArtistAlbumStatsResponse> stats = requested.isEmpty()
+                        ? Flux.empty()
+                        : artistYearRows(requested.keySet())
+                        .bufferUntilChanged(ArtistYearRow::artistId)
+                        .flatMapIterable(rows -> {
+                            Long id = rows.get(0).artistId();
+                            found.add(id);
+                            List<AlbumStatsByYearResponse> years = rows.stream()
+                                    .map(row -> new AlbumStatsByYearResponse(row.releaseYear(), row.albumCount()))
+                                    .toList();
+                            return requested.get(id).stream()
+                                    .map(name -> new ArtistAlbumStatsResponse(name, true, years))
+                                    .toList();
+                        });
+                Flux<ArtistAlbumStatsResponse> missing = Flux.defer(() -> Flux.fromIterable(names)
+                        .filter(name -> {
+                            Long id = idsByKey.get(CollationKey.of(name));
+                            return id == null || !found.contains(id);
+                        })
+                        .map(ArtistAlbumStatsResponse::notFound));
+                return stats.concatWith(missing);
+            });
+        });
+    }
+
+    /**
+     * @return artist id → 이름 (없는 이름은 빠짐)
+     */
+    private Mono<Map<Long, String>> resolveArtistIds(List<String> names) {
+        return databaseClient.sql("SELECT id, name FROM artist WHERE name IN (:names)")
+                .bind("names", names)
+                .map((row, meta) -> Map.entry(row.get("id", Long.class), row.get("name", String.class)))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    private Flux<ArtistYearRow> artistYearRows(Set<Long> artistIds) {
+        String sql = isMaterialized()
+                ? """
+                SELECT artist_id, release_year, album_count
+                FROM album_stats_by_artist_year
+                WHERE artist_id IN (:ids)
+                ORDER BY artist_id, release_year
+                """
+                : """
+                SELECT sa.artist_id,
+                       YEAR(s.release_date) AS release_year,
+                       COUNT(DISTINCT s.album) AS album_count
+                FROM song_artist sa
+                JOIN song s ON s.id = sa.song_id
+                WHERE sa.artist_id IN (:ids) AND s.release_date IS NOT NULL
+                GROUP BY sa.artist_id, YEAR(s.release_date)
+                ORDER BY sa.artist_id, release_year
+                """;
+        return databaseClient.sql(sql)
+                .bind("ids", List.copyOf(artistIds))
+                .map((row, meta) -> new ArtistYearRow(
+                        row.get("artist_id", Long.class),
+                        row.get("release_year", Integer.class),
+                        row.get("album_count", Long.class)))
+                .all();
+    }
+
+    /**
+     * approximate=true : 연도별 HyperLogLog sketch 의 PFCOUNT 로 앨범 수를 추정하므로 그룹 크기와 관계없이 연도당 상수 시간입니다.
+     * sketch 가 꺼져 있으면 정확한 값을 approximate=false 로 반환합니다.
+     */
+    public Mono<ApproximatePagedResponse<AlbumStatsByYearResponse>> getApproximateAlbumStatsByYear(int page, int size) {
+        if (!albumSketchStore.isEnabled()) {
+            return getAlbumStatsByYear(page, size).map(ApproximatePagedResponse::exact);
+        }
+        Mono<List<AlbumStatsByYearResponse>> contentMono = albumSketchStore.years(null, (long) page * size, size)
+                .flatMapSequential(year -> albumSketchStore.estimate(null, year)
+                        .map(count -> new AlbumStatsByYearResponse(year, count)))
+                .collectList();
+
+        return Mono.zip(contentMono, albumSketchStore.yearCount(null))
+                .map(tuple -> ApproximatePagedResponse.of(toPage(tuple.getT1(), page, size, tuple.getT2()),
+                        AlbumSketchStore.RELATIVE_STANDARD_ERROR));
+    }
+
+    public Mono<ApproximatePagedResponse<AlbumStatsByArtistResponse>> getApproximateAlbumStatsByArtist(String artist,
+                                                                                                      int page, int size) {
+        if (!albumSketchStore.isEnabled()) {
+            return getAlbumStatsByArtist(artist, page, size).map(ApproximatePagedResponse::exact);
+        }
+        Mono<List<AlbumStatsByArtistResponse>> contentMono = albumSketchStore.years(artist, (long) page * size, size)
+                .flatMapSequential(year -> albumSketchStore.estimate(artist, year)
+                        .map(count -> new AlbumStatsByArtistResponse(artist, year, count)))
+                .collectList()
+                .flatMap(list -> list.isEmpty()
+                        ? Mono.error(new AlbumStatsNotFoundException())
+                        : Mono.just(list)
+                );
+
+        return Mono.zip(contentMono, albumSketchStore.yearCount(artist))
+                .map(tuple -> ApproximatePagedResponse.of(toPage(tuple.getT1(), page, size, tuple.getT2()),
+                        AlbumSketchStore.RELATIVE_STANDARD_ERROR));
+    }
+
+    /**
+     * keyset 페이지네이션 : 이전 페이지의 마지막 연도 다음부터 size 건만 읽으므로 페이지 깊이와 관계없이 비용이 같습니다.
+     * 전체 건수는 withTotal=true 일 때 첫 페이지에서만 세고, 이후 페이지는 cursor 에 담긴 값을 그대로 씁니다.
+     */
+    public Mono<CursorPageResponse<AlbumStatsByYearResponse>> getAlbumStatsByYearAfter(String cursor, int size, boolean withTotal) {
+        return cached("by-year-cursor:" + cursor + ":" + size + ":" + withTotal,
+                albumStatsCache.type(CursorPageResponse.class, AlbumStatsByYearResponse.class),
+                () -> loadAlbumStatsByYearAfter(cursor, size, withTotal));
+    }
+
+    private Mono<CursorPageResponse<AlbumStatsByYearResponse>> loadAlbumStatsByYearAfter(String cursor, int size, boolean withTotal) {
+        return decodeCursor(cursor).flatMap(after -> {
+            int limit = Math.max(1, size);
+            Optional<ColumnarAlbumStats> columnar = columnarEngine.snapshot();
+            if (columnar.isPresent()) {
+                ColumnarAlbumStats.YearCounts counts = columnar.get().byYear();
+                List<AlbumStatsByYearResponse> rows = columnarRows(counts, counts.indexAfter(after.lastYear()), limit + 1,
+                        AlbumStatsByYearResponse::new);
+                return toCursorPage(Flux.fromIterable(rows), AlbumStatsByYearResponse::releaseYear, after, limit,
+                        withTotal, Mono.just((long) counts.size()));
+            }
+            String sql = isMaterialized()
+                    ? """
+                    SELECT release_year, album_count
+                    FROM album_stats_by_year
+                    WHERE release_year > :lastYear
+                    ORDER BY release_year
+                    LIMIT :limit
+                    """
+                    : """
+                    SELECT release_year, COUNT(DISTINCT album) AS album_count
+                    FROM song
+                    WHERE release_year > :lastYear
+                    GROUP BY release_year
+                    ORDER BY release_year
+                    LIMIT :limit
+                    """;
+            String countSql = isMaterialized()
+                    ? "SELECT COUNT(*) FROM album_stats_by_year"
+                    : "SELECT COUNT(DISTINCT release_year) FROM song";
+
+            Flux<AlbumStatsByYearResponse> rows = databaseClient.sql(sql)
+                    .bind("lastYear", after.lastYear())
+                    .bind("limit", limit + 1)
+                    .map((row, meta) -> new AlbumStatsByYearResponse(
+                            row.get("release_year", Integer.class),
+                            row.get("album_count", Long.class)
+                    ))
+                    .all();
+            Mono<Long> count = databaseClient.sql(countSql)
+                    .map((row, meta) -> row.get(0, Long.class))
+                    .one()
+                    .defaultIfEmpty(0L);
+            return toCursorPage(rows, AlbumStatsByYearResponse::releaseYear, after, limit, withTotal, count);
+        });
+    }
+
+    public Mono<CursorPageResponse<AlbumStatsByArtistResponse>> getAlbumStatsByArtistAfter(String artist, String cursor,
+                                                                                          int size, boolean withTotal) {
+        return cached("by-artist-cursor:" + cursor + ":" + size + ":" + withTotal + ":" + artist,
+                albumStatsCache.type(CursorPageResponse.class, AlbumStatsByArtistResponse.class),
+                () -> loadAlbumStatsByArtistAfter(artist, cursor, size, withTotal));
+    }
+
+    private Mono<CursorPageResponse<AlbumStatsByArtistResponse>> loadAlbumStatsByArtistAfter(String artist, String cursor,
+                                                                                            int size, boolean withTotal) {
+        return decodeCursor(cursor).flatMap(after -> {
+            int limit = Math.max(1, size);
+            Optional<ColumnarAlbumStats> columnar = columnarEngine.snapshot();
+            DatabaseClient.GenericExecuteSpec spec;
+            if (columnar.isPresent()) {
+                ColumnarAlbumStats.YearCounts counts = columnar.get().byArtist(artist);
+                List<AlbumStatsByArtistResponse> rows = columnarRows(counts, counts.indexAfter(after.lastYear()), limit + 1,
+                        (year, count) -> new AlbumStatsByArtistResponse(artist, year, count));
+                return toCursorPage(Flux.fromIterable(rows), AlbumStatsByArtistResponse::releaseYear, after, limit,
+                        withTotal, Mono.just((long) counts.size()))
+                        .flatMap(page -> cursor == null && page.content().isEmpty()
+                                ? Mono.error(new AlbumStatsNotFoundException())
+                                : Mono.just(page));
+            }
+            if (isMaterialized()) {
+                spec = databaseClient.sql("""
+                                SELECT a.name AS artist_name, m.release_year, m.album_count
+                                FROM artist a
+                                JOIN album_stats_by_artist_year m ON m.artist_id = a.id
+                                WHERE a.name = :artist AND m.release_year > :lastYear
+                                ORDER BY m.release_year
+                                LIMIT :limit
+                                """)
+                        .bind("lastYear", after.lastYear());
+            } else {
+                // YEAR(release_date) 를 계산하지 않고 날짜로 비교해 이전 페이지 연도의 row 를 집계 전에 거름
+                spec = databaseClient.sql("""
+                                SELECT a.name AS artist_name,
+                                       YEAR(s.release_date) AS release_year,
+                                       COUNT(DISTINCT s.album) AS album_count
+                                FROM artist a
+                                JOIN song_artist sa ON sa.artist_id = a.id
+                                JOIN song s ON s.id = sa.song_id
+                                WHERE a.name = :artist AND s.release_date >= :fromDate
+                                GROUP BY a.name, YEAR(s.release_date)
+                                ORDER BY release_year
+                                LIMIT :limit
+                                """)
+                        .bind("fromDate", LocalDate.of(Math.max(after.lastYear(), 0) + 1, 1, 1));
+            }
+            String countSql = isMaterialized()
+                    ? """
+                    SELECT COUNT(*)
+                    FROM artist a
+                    JOIN album_stats_by_artist_year m ON m.artist_id = a.id
+                    WHERE a.name = :artist
+                    """
+                    : """
+                    SELECT COUNT(DISTINCT YEAR(s.release_date))
+                    FROM artist a
+                    JOIN song_artist sa ON sa.artist_id = a.id
+                    JOIN song s ON s.id = sa.song_id
+                    WHERE a.name = :artist
+                    """;
+
+            Flux<AlbumStatsByArtistResponse> rows = spec
+                    .bind("artist", artist)
+                    .bind("limit", limit + 1)
+                    .map((row, meta) -> new AlbumStatsByArtistResponse(
+                            row.get("artist_name", String.class),
+                            row.get("release_year", Integer.class),
+                            row.get("album_count", Long.class)
+                    ))
+                    .all();
+            Mono<Long> count = databaseClient.sql(countSql)
+                    .bind("artist", artist)
+                    .map((row, meta) -> row.get(0, Long.class))
+                    .one()
+                    .defaultIfEmpty(0L);
+            return toCursorPage(rows, AlbumStatsByArtistResponse::releaseYear, after, limit, withTotal, count)
+                    .flatMap(page -> cursor == null && page.content().isEmpty()
+                            ? Mono.error(new AlbumStatsNotFoundException())
+                            : Mono.just(page));
+        });
+    }
+
+    /**
+     * size + 1 건을 읽어 다음 페이지가 있는지 판단하고, 있으면 마지막 연도로 다음 cursor 를 만듭니다.
+     */
+    private <T> Mono<CursorPageResponse<T>> toCursorPage(Flux<T> rows, ToIntFunction<T> yearOf, YearCursor after,
+                                                         int size, boolean withTotal, Mono<Long> count) {
+        Mono<Optional<Long>> totalMono = after.total() != null
+                ? Mono.just(Optional.of(after.total()))
+                : withTotal ? count.map(Optional::of) : Mono.just(Optional.empty());
+
+        return Mono.zip(rows.collectList(), totalMono)
+                .map(tuple -> {
+                    List<T> fetched = tuple.getT1();
+                    Long total = tuple.getT2().orElse(null);
+                    boolean hasNext = fetched.size() > size;
+                    List<T> content = hasNext ? fetched.subList(0, size) : fetched;
+                    String nextCursor = hasNext
+                            ? new YearCursor(yearOf.applyAsInt(content.get(content.size() - 1)), total).encode()
+                            : null;
+                    return new CursorPageResponse<>(content, size, nextCursor, total);
+                });
+    }
+
+    private static Mono<YearCursor> decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Mono.just(YearCursor.first());
+        }
+        try {
+            return Mono.just(YearCursor.decode(cursor));
+        } catch (IllegalArgumentException e) {
+            return Mono.error(new InvalidCursorException());
+        }
+    }
+
+    private <T> Mono<T> cached(String key, JavaType type, Supplier<Mono<T>> loader) {
+        return albumStatsCache.get(key, type, loader);
+    }
+
+    /**
+     * 컬럼 스냅샷의 [from, from + limit) 범위를 응답으로 만듭니다.
+     */
+    private static <T> List<T> columnarRows(ColumnarAlbumStats.YearCounts counts, long from, int limit, YearCountMapper<T> mapper) {
+        int start = (int) Math.min(from, counts.size());
+        int end = (int) Math.min((long) start + limit, counts.size());
+        List<T> rows = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            rows.add(mapper.map(counts.year(i), counts.count(i)));
+        }
+        return rows;
+    }
+
+    private interface YearCountMapper<T> {
+        T map(int year, long albumCount);
+    }
+
+    private static <T> PagedResponse<T> toPage(List<T> content, int page, int size, long totalElements) {
+        int totalPages = (int) Math.ceil((double) totalElements / size);
+        return new PagedResponse<>(content, page, size, totalElements, totalPages);
+    }
+
+    private boolean isMaterialized() {
+        return AlbumStatsReadSource.from(readSource) == AlbumStatsReadSource.MATERIALIZED;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.spotifyaggregator.service;
+
+import com.example.spotifyaggregator.domain.Artist;
+import com.example.spotifyaggregator.repository.ArtistRepository;
+import com.example.spotifyaggregator.util.SharedIndexRefresher;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ingestion 중 아티스트 name → id 를 메모리에서 해석하는 사전입니다.
+ * - run 사이에 유지하며, run 이 시작할 때 마지막으로 읽은 id 이후의 artist 만 추가로 읽음
+ *   (처음 한 번과, 다른 run 이 없을 때 full-reload-interval 마다 비우고 전체를 다시 읽어 삭제된 artist 를 정리)
+ * - 추가로 읽기 전에 artist 의 MAX(id) 가 사전이 아는 가장 큰 id 보다 작거나, 그 id 이하 artist 수가 사전이 아는 artist 수보다 적으면
+ *   (알던 row 가 삭제됨) 바로 전체를 다시 읽음. 같은 구간에 사전이 모르는 artist 가 있으면(maxSize 초과 등) 그만큼의 삭제는 드러나지 않으며
+ *   full-reload-interval 의 전체 재적재에서 정리됨
+ * - 처음 보는 이름은 동시 요청을 하나의 INSERT 로 합쳐(coalesce) 처리
+ * - maxSize 를 넘으면 더 이상 적재하지 않고 DB 조회로 해석
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ArtistDictionary {
+
+    private final ArtistRepository artistRepository;
+    private final DatabaseClient databaseClient;
+
+    @Value("${ingestion.artist-dictionary.max-size:500000}")
+    private int maxSize;
+
+    @Value("${ingestion.artist-dictionary.full-reload-interval:1h}")
+    private Duration fullReloadInterval;
+
+    private final ConcurrentHashMap<String, Long> ids = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Mono<Long>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong maxLoadedId = new AtomicLong();
+    private final AtomicLong maxKnownId = new AtomicLong();
+    private final AtomicLong aliases = new AtomicLong();
+    private SharedIndexRefresher refresher;
+
+    @PostConstruct
+    void init() {
+        refresher = new SharedIndexRefresher(fullReloadInterval);
+    }
+
+    /**
+     * run 이 시작할 때 호출합니다. 마지막 적재 이후 생긴 artist 를 읽어 사전을 최신으로 맞춥니다.
+     * 같은 key 로 이미 acquire 했으면 다시 읽지 않으며, 끝나면 release 를 호출해야 합니다.
+     */
+    public Mono<Void> acquire(String key) {
+        return refresher.acquire(key, this::load);
+    }
+
+    public void release(String key) {
+        refresher.release(key);
+    }
+
+    /**
+     * 사전을 비우고 다음 acquire 에서 전체를 다시 읽게 합니다. (bulk load 처럼 artist id 를 새로 부여한 경우)
+     */
+    public void invalidate() {
+        ids.clear();
+        maxLoadedId.set(0);
+        maxKnownId.set(0);
+        aliases.set(0);
+        refresher.invalidate();
+    }
+
+    private Mono<Void> load(boolean full) {
+        if (full) return read(true);
+        long knownId = maxKnownId.get();
+        long knownRows = ids.size() - aliases.get();
+        return databaseClient.sql("""
+                        SELECT (SELECT COALESCE(MAX(id), 0) FROM artist) AS max_id,
+                               (SELECT COUNT(*) FROM artist WHERE id <= :knownId) AS rows_count
+                        """)
+                .bind("knownId", knownId)
+                .map((row, meta) -> knownRowsDeleted(row.get("max_id", Long.class), row.get("rows_count", Long.class),
+                        knownId, knownRows))
+                .one()
+                .flatMap(this::read);
+    }
+
+    private boolean knownRowsDeleted(long maxId, long rows, long knownId, long knownRows) {
+        if (maxId >= knownId && rows >= knownRows) return false;
+        log.info("아티스트 사전이 아는 artist 가 삭제되어 전체를 다시 읽습니다 : MAX(id) = {}, 사전 최대 id = {}, "
+                + "id {} 이하 artist 수 = {}, 사전 artist 수 = {}", maxId, knownId, knownId, rows, knownRows);
+        return true;
+    }
+
+    private Mono<Void> read(boolean full) {
+        return Mono.defer(() -> {
+            if (full) {
+                ids.clear();
+                maxLoadedId.set(0);
+                maxKnownId.set(0);
+                aliases.set(0);
+            }
+            long fromId = maxLoadedId.get();
+            return databaseClient.sql("SELECT id, name FROM artist WHERE id > :fromId")
+                    .bind("fromId", fromId)
+                    .map((row, meta) -> Artist.builder()
+                            .id(row.get("id", Long.class))
+                            .name(row.get("name", String.class))
+                            .build())
+                    .all()
+                    .doOnNext(artist -> {
+                        put(artist.getName(), artist.getId(), false);
+                        maxLoadedId.accumulateAndGet(artist.getId(), Math::max);
+                    })
+                    .count()
+                    .doOnNext(count -> log.info("아티스트 사전 {} 완료 : {} 건 읽음, size = {}",
+                            fromId == 0 ? "전체 적재" : "추가 적재", count, ids.size()))
+                    .then();
+        });
+    }
+
+    /**
+     * 메모리에 있는 id 만 반환합니다. 없으면 null.
+     */
+    public Long lookup(String name) {
+        Long id = ids.get(name);
+        if (id != null) hits.incrementAndGet();
+        return id;
+    }
+
+    public void register(String name, Long id) {
+        put(name, id, true);
+    }
+
+    /**
+     * @param mayAlias DB 에서 읽은 row 가 아니라 ingestion 중 등록하는 값인지 여부.
+     *                 이미 아는 id 이하의 새 이름은 collation 으로만 같은 기존 artist 의 별칭일 수 있으므로 artist 수에서 뺌
+     */
+    private void put(String name, Long id, boolean mayAlias) {
+        if (name == null || id == null) return;
+        if (ids.size() < maxSize || ids.containsKey(name)) {
+            long known = maxKnownId.getAndAccumulate(id, Math::max);
+            if (ids.put(name, id) == null && mayAlias && id <= known) aliases.incrementAndGet();
+        }
+    }
+
+    /**
+     * name 을 id 로 해석합니다. 사전에 없으면 INSERT(중복 시 조회) 하며,
+     * 같은 이름에 대한 동시 요청은 하나의 Mono 를 공유합니다.
+     */
+    public Mono<Long> resolve(String name) {
+        Long id = lookup(name);
+        if (id != null) return Mono.just(id);
+
+        return inFlight.computeIfAbsent(name, n -> {
+            misses.incrementAndGet();
+            return artistRepository.save(Artist.builder().name(n).build())
+                    .map(Artist::getId)
+                    .onErrorResume(DuplicateKeyException.class, ex -> {
+                        log.debug("아티스트 중복 Skip 처리 : {}", n);
+                        return artistRepository.findByName(n).map(Artist::getId);
+                    })
+                    .doOnNext(resolved -> register(n, resolved))
+                    .doFinally(signal -> inFlight.remove(n))
+                    .cache();
+        });
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    public void logStats() {
+        log.info("아티스트 사전 통계 : size = {}, 누적 hit = {}, 누적 miss(INSERT 시도) = {}", ids.size(), hits.get(), misses.get());
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.spotifyaggregator.service;
+
+import com.example.spotifyaggregator.util.ColumnarAlbumStats;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 카탈로그를 메모리 컬럼 배열로 읽어 앨범 통계를 계산해 두고, AlbumStatsService 가 DB 대신 이 스냅샷에서 조회하도록 합니다.
+ * (album-stats.read-source = columnar 일 때만)
+ * - 기동 후 한 번 전체를 읽고, ingestion 이 끝나면 stale 로 표시해 refresh-interval 안에 다시 읽어 통째로 교체
+ * - 다른 인스턴스의 ingestion 은 AlbumStatsCache 의 공유 data version 이 오른 것으로 알고 같은 방식으로 다시 읽음
+ * - 다시 읽는 동안과 실패 시에는 이전 스냅샷을 그대로 사용, 첫 스냅샷이 준비되기 전에는 live 조회로 대신함
+ * 노래 / 아티스트 연결 두 번의 전체 조회만 하므로 YEAR(release_date) 로 묶는 아티스트 통계도 index 와 관계없이 같은 비용입니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ColumnarAlbumStatsEngine {
+
+    private final DatabaseClient databaseClient;
+    private final AlbumStatsCache albumStatsCache;
+
+    @Value("${album-stats.read-source:live}")
+    private String readSource;
+
+    @Value("${album-stats.columnar.refresh-interval:2s}")
+    private Duration refreshInterval;
+
+    private final AtomicReference<ColumnarAlbumStats> current = new AtomicReference<>();
+    private final AtomicBoolean stale = new AtomicBoolean(true);
+    private Disposable refresher;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!isEnabled()) return;
+
+        albumStatsCache.onSharedVersionChange(this::markStale);
+        refresher = Flux.interval(Duration.ZERO, refreshInterval)
+                .onBackpressureDrop()
+                .filter(tick -> stale.getAndSet(false))
+                .concatMap(tick -> reload()
+                        .onErrorResume(e -> {
+                            stale.set(true);
+                            log.warn("앨범 통계 컬럼 스냅샷 갱신 실패, 다음 주기에 다시 시도합니다 : {}", e.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (refresher != null) refresher.dispose();
+    }
+
+    public boolean isEnabled() {
+        return AlbumStatsReadSource.from(readSource) == AlbumStatsReadSource.COLUMNAR;
+    }
+
+    /**
+     * @return 현재 스냅샷, 비활성이거나 아직 읽지 않았으면 empty
+     */
+    public Optional<ColumnarAlbumStats> snapshot() {
+        return Optional.ofNullable(current.get());
+    }
+
+    /**
+     * 데이터가 바뀌었음을 표시합니다. 다음 refresh 주기에 한 번만 다시 읽습니다. (연속된 ingestion 은 합쳐짐)
+     */
+    public void markStale() {
+        if (isEnabled()) stale.set(true);
+    }
+
+    /**
+     * 카탈로그를 다시 읽어 스냅샷을 교체합니다.
+     */
+    public Mono<ColumnarAlbumStats> reload() {
+        return Mono.defer(() -> {
+            long startTime = System.currentTimeMillis();
+            ColumnarAlbumStats.Builder builder = ColumnarAlbumStats.builder();
+
+            Mono<Void> songs = databaseClient.sql("""
+                            SELECT id, release_year, YEAR(release_date) AS release_date_year, album
+                            FROM song
+                            """)
+                    .map((row, meta) -> builder.addSong(
+                            row.get("id", Long.class),
+                            row.get("release_year", Integer.class),
+                            row.get("release_date_year", Integer.class),
+                            row.get("album", String.class)))
+                    .all()
+                    .then();
+            Mono<Void> artistSongs = databaseClient.sql("""
+                            SELECT sa.song_id, sa.artist_id, a.name
+                            FROM song_artist sa
+                            JOIN artist a ON a.id = sa.artist_id
+                            """)
+                    .map((row, meta) -> builder.addArtistSong(
+                            row.get("artist_id", Long.class),
+                            row.get("name", String.class),
+                            row.get("song_id", Long.class)))
+                    .all()
+                    .then();
+
+            return songs.then(artistSongs)
+                    .publishOn(Schedulers.boundedElastic())
+                    .then(Mono.fromSupplier(builder::build))
+                    .doOnNext(stats -> {
+                        current.set(stats);
+                        // 공유 version 은 데이터를 바꾼 쪽이 이미 올렸으므로 이 인스턴스의 캐시만 비움 (인스턴스 간 reload 반복 방지)
+                        albumStatsCache.invalidateLocal();
+                        log.info("앨범 통계 컬럼 스냅샷 갱신 : 노래 = {}, 앨범 = {}, 아티스트 = {}, 연도 = {}, 소요 시간 = {}ms",
+                                stats.songCount(), stats.albumCount(), stats.artistCount(), stats.byYear().size(),
+                                System.currentTimeMillis() - startTime);
+                    });
+        });
+    }
+}
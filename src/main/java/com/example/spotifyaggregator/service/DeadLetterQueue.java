@@ -0,0 +1,314 @@
+package com.example.spotifyaggregator.service;
+
+import com.example.spotifyaggregator.dto.DeadLetterQueueResponse;
+import com.example.spotifyaggregator.dto.SongWithArtists;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 저장에 실패한 SongWithArtists 를 보관하는 DLQ 입니다.
+ * - 모든 건을 적재 즉시 spill 파일(NDJSON, append-only)에 기록해, 비정상 종료 후에도 재시작하면 다시 replay 할 수 있도록 함
+ * - 메모리는 spill 파일 전체가 memoryCapacity 건 이하일 때만 쓰는 읽기 캐시로, 이때 drain 은 파일을 다시 읽지 않음
+ * - drain 은 spill 파일을 replaying 파일로 옮긴 뒤 읽으며, 끝까지 읽은 경우에만 삭제 (중단되면 다음 drain 에서 다시 읽음)
+ * - 읽을 수 없는 줄은 건너뛰고 corrupt 파일(spill 파일 + .corrupt)로 옮겨, 한 줄 때문에 replay 가 계속 실패하지 않도록 함
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeadLetterQueue {
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ingestion.dlq.memory-capacity:10000}")
+    private int memoryCapacity;
+
+    @Value("${ingestion.dlq.spill-file:./dlq/songs-dlq.ndjson}")
+    private String spillFilePath;
+
+    @Value("${ingestion.dlq.max-attempts:3}")
+    private int maxAttempts;
+
+    /**
+     * @param attempts 지금까지 replay 에 실패한 횟수
+     */
+    public record DeadLetter(SongWithArtists row, int attempts, long enqueuedAt) {
+    }
+
+    private final Deque<DeadLetter> memory = new ArrayDeque<>();
+    private final AtomicLong replayingRemaining = new AtomicLong();
+    private Path spillFile;
+    private Path replayingFile;
+    private Path corruptFile;
+    private BufferedWriter spillWriter;
+    private long spilledCount;
+    private long oldestSpilledAt;
+    private volatile long oldestReplayingAt;
+    private boolean fileReplayInProgress;
+
+    @PostConstruct
+    void init() throws IOException {
+        spillFile = Path.of(spillFilePath);
+        replayingFile = spillFile.resolveSibling(spillFile.getFileName() + ".replaying");
+        corruptFile = spillFile.resolveSibling(spillFile.getFileName() + ".corrupt");
+        if (spillFile.getParent() != null) {
+            Files.createDirectories(spillFile.getParent());
+        }
+        if (Files.exists(replayingFile)) {
+            replayingRemaining.set(countLines(replayingFile));
+            oldestReplayingAt = firstEnqueuedAt(replayingFile);
+        }
+        if (Files.exists(spillFile)) {
+            spilledCount = countLines(spillFile);
+            oldestSpilledAt = firstEnqueuedAt(spillFile);
+        }
+        if (depth() > 0) {
+            log.info("이전 실행의 DLQ 를 복구했습니다 : {} 건 (다음 replay 에서 재처리)", depth());
+        }
+
+        Gauge.builder("ingestion.dlq.depth", this, DeadLetterQueue::depth)
+                .description("DLQ 에 대기 중인 row 수 (메모리 + spill 파일)")
+                .register(meterRegistry);
+        Gauge.builder("ingestion.dlq.oldest.age", this, dlq -> dlq.oldestAgeMillis() / 1000.0)
+                .description("DLQ 에서 가장 오래된 row 의 대기 시간(초)")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    public void add(SongWithArtists row) {
+        offer(new DeadLetter(row, 0, System.currentTimeMillis()));
+    }
+
+    /**
+     * replay 에 실패한 건을 다시 적재합니다. maxAttempts 를 넘으면 버리고 false 를 반환합니다.
+     */
+    public boolean retryLater(DeadLetter letter) {
+        int attempts = letter.attempts() + 1;
+        if (attempts >= maxAttempts) {
+            return false;
+        }
+        offer(new DeadLetter(letter.row(), attempts, letter.enqueuedAt()));
+        return true;
+    }
+
+    private synchronized void offer(DeadLetter letter) {
+        if (!spill(letter)) return;
+        // 캐시는 spill 파일의 모든 건을 담고 있을 때만 유효하므로, 한 건이라도 빠지면 다음 drain 까지 더 넣지 않음
+        if (memory.size() == spilledCount - 1 && memory.size() < memoryCapacity) {
+            memory.add(letter);
+        }
+    }
+
+    /**
+     * 지금까지 쌓인 건을 꺼냅니다.
+     * 꺼내는 중 새로 들어온 건이나 retryLater 로 다시 적재된 건은 다음 drain 대상입니다.
+     */
+    public Flux<DeadLetter> drain() {
+        return Flux.defer(() -> {
+            List<DeadLetter> cached = null;
+            boolean replayFile = false;
+            synchronized (this) {
+                if (!fileReplayInProgress) {
+                    long moving = spilledCount;
+                    boolean moved = !Files.exists(replayingFile) && moving > 0;
+                    replayFile = prepareReplayingFile();
+                    if (replayFile && moved) {
+                        if (memory.size() == moving) cached = new ArrayList<>(memory);
+                        memory.clear();
+                    }
+                }
+                fileReplayInProgress |= replayFile;
+            }
+            return replayFile ? readReplayingFile(cached) : Flux.<DeadLetter>empty();
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public synchronized long depth() {
+        return spilledCount + replayingRemaining.get();
+    }
+
+    /**
+     * 가장 오래 대기 중인 건의 대기 시간 (비어 있으면 0)
+     */
+    public synchronized long oldestAgeMillis() {
+        long oldest = Long.MAX_VALUE;
+        if (spilledCount > 0) oldest = Math.min(oldest, oldestSpilledAt);
+        if (replayingRemaining.get() > 0) oldest = Math.min(oldest, oldestReplayingAt);
+        return oldest == Long.MAX_VALUE ? 0 : System.currentTimeMillis() - oldest;
+    }
+
+    public synchronized DeadLetterQueueResponse status() {
+        return new DeadLetterQueueResponse(depth(), memory.size(), depth(),
+                oldestAgeMillis(), spillFile.toAbsolutePath().toString());
+    }
+
+    @PreDestroy
+    synchronized void flush() {
+        closeSpillWriter();
+    }
+
+    /**
+     * spill 파일을 replaying 파일로 옮깁니다. 이전에 끝까지 읽지 못한 replaying 파일이 있으면 그것을 먼저 읽습니다.
+     */
+    private boolean prepareReplayingFile() {
+        try {
+            if (!Files.exists(replayingFile)) {
+                if (spilledCount == 0) return false;
+                closeSpillWriter();
+                Files.move(spillFile, replayingFile, StandardCopyOption.ATOMIC_MOVE);
+                spilledCount = 0;
+                oldestSpilledAt = 0;
+            }
+            replayingRemaining.set(countLines(replayingFile));
+            oldestReplayingAt = firstEnqueuedAt(replayingFile);
+            return true;
+        } catch (IOException e) {
+            log.error("DLQ spill 파일을 replay 용으로 옮기지 못했습니다 : {}", spillFile, e);
+            return false;
+        }
+    }
+
+    /**
+     * @param cached replaying 파일의 모든 건을 담은 메모리 캐시, 없으면 null (파일에서 읽음)
+     */
+    private Flux<DeadLetter> readReplayingFile(List<DeadLetter> cached) {
+        Flux<DeadLetter> letters = cached != null
+                ? Flux.fromIterable(cached)
+                        .doOnNext(letter -> {
+                            replayingRemaining.decrementAndGet();
+                            oldestReplayingAt = letter.enqueuedAt();
+                        })
+                : Flux.using(
+                        () -> Files.newBufferedReader(replayingFile, StandardCharsets.UTF_8),
+                        reader -> Flux.fromStream(reader.lines())
+                                .filter(line -> !line.isBlank())
+                                .<DeadLetter>handle((line, sink) -> {
+                                    replayingRemaining.decrementAndGet();
+                                    DeadLetter letter = deserialize(line);
+                                    if (letter == null) {
+                                        quarantine(line);
+                                        return;
+                                    }
+                                    oldestReplayingAt = letter.enqueuedAt();
+                                    sink.next(letter);
+                                }),
+                        this::closeQuietly);
+        return letters
+                .doOnComplete(() -> {
+                    try {
+                        Files.deleteIfExists(replayingFile);
+                    } catch (IOException e) {
+                        log.warn("DLQ replaying 파일 삭제에 실패했습니다 : {}", replayingFile, e);
+                    }
+                    replayingRemaining.set(0);
+                })
+                .doFinally(signal -> {
+                    synchronized (this) {
+                        fileReplayInProgress = false;
+                    }
+                });
+    }
+
+    /**
+     * @return 기록에 실패해 row 를 버렸으면 false
+     */
+    private boolean spill(DeadLetter letter) {
+        try {
+            if (spillWriter == null) {
+                spillWriter = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            spillWriter.write(objectMapper.writeValueAsString(letter));
+            spillWriter.newLine();
+            spillWriter.flush();
+            if (spilledCount++ == 0) {
+                oldestSpilledAt = letter.enqueuedAt();
+            }
+            return true;
+        } catch (IOException e) {
+            log.error("DLQ spill 파일 기록에 실패하여 row 를 버립니다 : isrc = {}", letter.row().song().getIsrc(), e);
+            return false;
+        }
+    }
+
+    private void closeSpillWriter() {
+        if (spillWriter == null) return;
+        closeQuietly(spillWriter);
+        spillWriter = null;
+    }
+
+    /**
+     * @return 읽을 수 없는 줄이면 null
+     */
+    private DeadLetter deserialize(String line) {
+        try {
+            return objectMapper.readValue(line, DeadLetter.class);
+        } catch (IOException e) {
+            log.warn("DLQ 파일의 row 를 읽을 수 없어 건너뜁니다 : {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private synchronized void quarantine(String line) {
+        try (BufferedWriter writer = Files.newBufferedWriter(corruptFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(line);
+            writer.newLine();
+        } catch (IOException e) {
+            log.error("읽을 수 없는 DLQ row 를 corrupt 파일에 기록하지 못해 버립니다 : {}", corruptFile, e);
+        }
+    }
+
+    private long countLines(Path file) throws IOException {
+        try (var lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            return lines.filter(line -> !line.isBlank()).count();
+        }
+    }
+
+    /**
+     * @return 읽을 수 있는 첫 row 의 적재 시각, 없으면 지금
+     */
+    private long firstEnqueuedAt(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                DeadLetter letter = deserialize(line);
+                if (letter != null) return letter.enqueuedAt();
+            }
+            return System.currentTimeMillis();
+        }
+    }
+
+    private void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            log.warn("DLQ 파일을 닫지 못했습니다", e);
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.spotifyaggregator.service;
+
+import com.example.spotifyaggregator.dto.DistributedIngestionResponse;
+import com.example.spotifyaggregator.dto.IngestionRunResponse;
+import com.example.spotifyaggregator.exception.ErrorCode;
+import com.example.spotifyaggregator.exception.SongIngestionException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 여러 인스턴스가 하나의 ingestion run 을 partition 단위로 나눠 처리하도록 조율합니다.
+ * - start : run 을 만들고 Redis 의 진행 중 run 목록에 등록 (partition 은 인스턴스 수보다 넉넉하게 나눠 고르게 분배)
+ * - worker : poll-interval 마다 진행 중 run 의 미완료 partition 에 lease 를 시도하고, 얻은 partition 을 checkpoint 부터 처리
+ * - lease 는 ttl/3 마다 갱신하며, 다른 인스턴스가 가져갔거나 Redis 오류로 ttl 안에 갱신하지 못하면 처리를 멈춤
+ * - 인스턴스가 죽으면 lease 가 만료되고 다른 인스턴스가 마지막 checkpoint 부터 다시 처리 (재처리 구간은 unique key 로 중복 방지)
+ * - 처리에 실패한 partition 은 lease 를 반납해 다시 시도하고, 모든 인스턴스 합계 max-partition-attempts 번 실패하면 FAILED 로 두고 더 시도하지 않음
+ * - 모든 partition 이 끝나면(완료 또는 FAILED) run 을 COMPLETED (FAILED partition 이 있으면 FAILED) 로 바꾸고 목록에서 제거
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DistributedIngestionCoordinator {
+
+    private final SongIngestionService songIngestionService;
+    private final IngestionCheckpointStore checkpointStore;
+    private final PartitionLeaseStore leaseStore;
+
+    @Value("${ingestion.distributed.enabled:true}")
+    private boolean workerEnabled;
+
+    @Value("${ingestion.distributed.instance-id:}")
+    private String instanceId;
+
+    @Value("${ingestion.distributed.partitions:32}")
+    private int partitions;
+
+    @Value("${ingestion.distributed.max-partitions-per-instance:2}")
+    private int maxPartitionsPerInstance;
+
+    @Value("${ingestion.distributed.max-partition-attempts:3}")
+    private int maxPartitionAttempts;
+
+    @Value("${ingestion.distributed.lease-ttl:30s}")
+    private Duration leaseTtl;
+
+    @Value("${ingestion.distributed.poll-interval:2s}")
+    private Duration pollInterval;
+
+    private final Map<Lease, Disposable> running = new ConcurrentHashMap<>();
+    private Disposable poller;
+
+    @PostConstruct
+    void start() {
+        if (instanceId == null || instanceId.isBlank()) {
+            instanceId = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+        if (!workerEnabled) return;
+
+        poller = Flux.interval(pollInterval, pollInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> claimPartitions()
+                        .onErrorResume(e -> {
+                            log.warn("분산 ingestion partition 조회 실패 : {}", e.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+        log.info("분산 ingestion worker 시작 : instance = {}, 최대 partition = {}", instanceId, maxPartitionsPerInstance);
+    }
+
+    /**
+     * 처리 중인 partition 을 멈추고 lease 를 바로 반납해 다른 인스턴스가 만료를 기다리지 않고 이어받게 합니다.
+     */
+    @PreDestroy
+    void stop() {
+        if (poller != null) poller.dispose();
+        if (running.isEmpty()) return;
+
+        List<Lease> leases = new ArrayList<>(running.keySet());
+        leases.forEach(lease -> running.get(lease).dispose());
+        Flux.fromIterable(leases)
+                .flatMap(lease -> leaseStore.release(lease.runId(), lease.partition(), instanceId))
+                .onErrorResume(e -> Mono.empty())
+                .then()
+                .block(Duration.ofSeconds(5));
+        log.info("종료 전 partition lease 를 반납했습니다 : {} 개", leases.size());
+    }
+
+    public Mono<DistributedIngestionResponse> start(String path, IngestionWriteMode mode) {
+        return songIngestionService.createDistributedRun(path, mode, partitions)
+                .flatMap(run -> leaseStore.register(run.getRunId()).thenReturn(run.getRunId()))
+                .doOnNext(runId -> log.info("분산 ingestion 시작 : run = {}, source = {}, mode = {}",
+                        runId, path == null ? "classpath" : path, mode))
+                .flatMap(this::status);
+    }
+
+    public Mono<DistributedIngestionResponse> status(String runId) {
+        return Mono.zip(songIngestionService.getRun(runId), leaseStore.donePartitions(runId),
+                        leaseStore.failedPartitions(runId))
+                .flatMap(tuple -> {
+                    IngestionRunResponse run = tuple.getT1();
+                    Set<Integer> done = tuple.getT2();
+                    Set<Integer> failed = tuple.getT3();
+                    return Flux.fromIterable(run.partitions())
+                            .concatMap(partition -> leaseStore.owner(runId, partition.partition())
+                                    .map(Optional::of)
+                                    .defaultIfEmpty(Optional.empty())
+                                    .map(owner -> new DistributedIngestionResponse.Partition(
+                                            partition.partition(),
+                                            owner.orElse(null),
+                                            done.contains(partition.partition()),
+                                            failed.contains(partition.partition()),
+                                            partition.committedOffset(),
+                                            partition.endOffset())))
+                            .collectList()
+                            .map(list -> new DistributedIngestionResponse(
+                                    run.runId(), run.source(), run.writeMode(), run.status(),
+                                    run.successCount(), run.failureCount(), run.progressPercent(),
+                                    done.size(), failed.size(), list));
+                });
+    }
+
+    private Mono<Void> claimPartitions() {
+        if (freeSlots() <= 0) return Mono.empty();
+        return leaseStore.activeRuns()
+                .concatMap(this::claimFromRun)
+                .then();
+    }
+
+    private Mono<Void> claimFromRun(String runId) {
+        if (freeSlots() <= 0) return Mono.empty();
+        return Mono.zip(songIngestionService.getRun(runId), leaseStore.donePartitions(runId),
+                        leaseStore.failedPartitions(runId))
+                .flatMap(tuple -> {
+                    IngestionRunResponse run = tuple.getT1();
+                    Set<Integer> done = tuple.getT2();
+                    Set<Integer> failed = tuple.getT3();
+                    if (done.size() + failed.size() >= run.partitions().size()
+                            || IngestionRunState.COMPLETED.name().equals(run.status())) {
+                        return complete(runId, failed);
+                    }
+
+                    // 인스턴스들이 같은 순서로 경쟁하지 않도록 섞어서 시도
+                    List<Integer> candidates = new ArrayList<>();
+                    for (IngestionRunResponse.Partition partition : run.partitions()) {
+                        if (!done.contains(partition.partition())
+                                && !failed.contains(partition.partition())
+                                && !running.containsKey(new Lease(runId, partition.partition()))) {
+                            candidates.add(partition.partition());
+                        }
+                    }
+                    Collections.shuffle(candidates);
+                    return Flux.fromIterable(candidates)
+                            .concatMap(partition -> freeSlots() <= 0
+                                    ? Mono.<Boolean>empty()
+                                    : leaseStore.tryAcquire(runId, partition, instanceId, leaseTtl)
+                                    .filter(Boolean::booleanValue)
+                                    .doOnNext(acquired -> runPartition(runId, partition)))
+                            .then();
+                })
+                .onErrorResume(SongIngestionException.class, e -> {
+                    if (e.getErrorCode() != ErrorCode.INGESTION_RUN_NOT_FOUND) return Mono.error(e);
+                    log.warn("checkpoint 가 없는 분산 run 을 목록에서 제거합니다 : run = {}", runId);
+                    return leaseStore.unregister(runId);
+                });
+    }
+
+    private void runPartition(String runId, int partition) {
+        Lease lease = new Lease(runId, partition);
+        Disposable.Swap slot = Disposables.swap();
+        running.put(lease, slot);
+        log.info("partition lease 획득 : run = {}, partition = {}, instance = {}", runId, partition, instanceId);
+
+        Duration renewInterval = leaseTtl.dividedBy(3);
+        AtomicLong lastRenewed = new AtomicLong(System.nanoTime());
+        Flux<Boolean> leaseLost = Flux.interval(renewInterval)
+                .concatMap(tick -> {
+                    long attemptedAt = System.nanoTime();
+                    return leaseStore.renew(runId, partition, instanceId, leaseTtl)
+                            .timeout(renewInterval)
+                            .doOnNext(renewed -> {
+                                if (renewed) lastRenewed.set(attemptedAt);
+                            })
+                            .onErrorResume(e -> {
+                                // 이 인스턴스만 Redis 와 끊겼을 수 있으므로, 다음 갱신 시도 전에 lease 가 만료될 수 있으면 잃은 것으로 봄
+                                boolean expiring = System.nanoTime() - lastRenewed.get()
+                                        >= leaseTtl.minus(renewInterval).toNanos();
+                                log.warn("partition lease 갱신 실패 : run = {}, partition = {}, {}", runId, partition, e.getMessage());
+                                return Mono.just(!expiring);
+                            });
+                })
+                .filter(renewed -> !renewed)
+                .doOnNext(renewed -> log.warn("partition lease 를 잃어 처리를 중단합니다 : run = {}, partition = {}",
+                        runId, partition));
+
+        Mono<Void> work = songIngestionService.ingestPartition(runId, partition)
+                .takeUntilOther(leaseLost)
+                .flatMap(result -> leaseStore.markDone(runId, partition)
+                        .doOnSuccess(v -> log.info("partition 처리 완료 : run = {}, partition = {}, 성공 = {}, 실패 = {}",
+                                runId, partition, result.successCount(), result.failureCount()))
+                        .then(completeIfDone(runId)))
+                .onErrorResume(e -> failed(runId, partition, e))
+                .then(leaseStore.release(runId, partition, instanceId).onErrorResume(e -> Mono.just(false)))
+                .then()
+                .doFinally(signal -> running.remove(lease, slot));
+        slot.update(work.subscribe());
+    }
+
+    /**
+     * 실패 횟수를 올리고, 한도에 이르면 partition 을 FAILED 로 표시합니다. (한도 전이면 lease 반납 후 다음 poll 에서 다시 시도)
+     * 특정 인스턴스에만 있는 파일처럼 계속 실패하는 partition 이 매 poll 마다 다시 시도되지 않도록 합니다.
+     */
+    private Mono<Void> failed(String runId, int partition, Throwable error) {
+        return leaseStore.recordFailure(runId, partition)
+                .flatMap(attempts -> {
+                    if (attempts < maxPartitionAttempts) {
+                        log.error("partition 처리 실패, lease 를 반납해 다시 시도합니다 : run = {}, partition = {}, 실패 = {}/{}",
+                                runId, partition, attempts, maxPartitionAttempts, error);
+                        return Mono.<Void>empty();
+                    }
+                    log.error("partition 처리가 {} 번 실패해 FAILED 로 표시하고 더 시도하지 않습니다 : run = {}, partition = {}",
+                            attempts, runId, partition, error);
+                    return leaseStore.markFailed(runId, partition).then(completeIfDone(runId));
+                })
+                .onErrorResume(e -> {
+                    log.warn("partition 실패 횟수 기록 실패 : run = {}, partition = {}, {}", runId, partition, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> completeIfDone(String runId) {
+        return Mono.zip(songIngestionService.getRun(runId), leaseStore.donePartitions(runId),
+                        leaseStore.failedPartitions(runId))
+                .filter(tuple -> tuple.getT2().size() + tuple.getT3().size() >= tuple.getT1().partitions().size())
+                .flatMap(tuple -> complete(runId, tuple.getT3()));
+    }
+
+    private Mono<Void> complete(String runId, Set<Integer> failedPartitions) {
+        IngestionRunState state = failedPartitions.isEmpty() ? IngestionRunState.COMPLETED : IngestionRunState.FAILED;
+        return checkpointStore.updateStatus(runId, state)
+                .then(leaseStore.unregister(runId))
+                .then(songIngestionService.getRun(runId))
+                .doOnNext(run -> {
+                    if (failedPartitions.isEmpty()) {
+                        log.info("분산 ingestion 완료 : run = {}, 성공 = {}, 실패 = {}",
+                                runId, run.successCount(), run.failureCount());
+                    } else {
+                        log.error("분산 ingestion 이 일부 partition 실패로 끝났습니다 : run = {}, 실패 partition = {}, 성공 = {}, 실패 = {}",
+                                runId, failedPartitions, run.successCount(), run.failureCount());
+                    }
+                })
+                .then();
+    }
+
+    private int freeSlots() {
+        return maxPartitionsPerInstance - running.size();
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+
+    private record Lease(String runId, int partition) {
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.spotifyaggregator.service;
+
+import com.example.spotifyaggregator.dto.IngestionRunResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * ingestion_run / ingestion_checkpoint 테이블에 실행 상태와 partition 별 committed offset 을 저장합니다.
+ */
+@Component
+@RequiredArgsConstructor
+public class IngestionCheckpointStore {
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<Void> create(IngestionRun run) {
+        LocalDateTime now = LocalDateTime.now();
+        Mono<Void> insertRun = databaseClient.sql("""
+                        INSERT INTO ingestion_run (run_id, source, write_mode, status, success_count, failure_count, started_at, updated_at)
+                        VALUES (:runId, :source, :writeMode, :status, 0, 0, :now, :now)
+                        """)
+                .bind("runId", run.getRunId())
+                .bind("source", run.getSource())
+                .bind("writeMode", run.getMode().name())
+                .bind("status", IngestionRunState.RUNNING.name())
+                .bind("now", now)
+                .then();
+
+        Flux<Long> insertPartitions = Flux.fromIterable(run.getPartitions())
+                .concatMap(partition -> databaseClient.sql("""
+                                INSERT INTO ingestion_checkpoint (run_id, partition_no, start_offset, end_offset, committed_offset)
+                                VALUES (:runId, :partition, :start, :end, :start)
+                                """)
+                        .bind("runId", run.getRunId())
+                        .bind("partition", partition.index())
+                        .bind("start", partition.start())
+                        .bind("end", partition.end())
+                        .fetch()
+                        .rowsUpdated());
+
+        return insertRun.thenMany(insertPartitions).then();
+    }
+
+    /**
+     * partition 단위 실행(분산 ingestion)은 자기 partition 의 offset 과 늘어난 건수만 반영하고 run 상태는 바꾸지 않습니다.
+     */
+    public Mono<Void> save(IngestionRun run, IngestionRunState state) {
+        if (run.isPartitionScoped()) {
+            return savePartition(run);
+        }
+        Mono<Void> updateRun = databaseClient.sql("""
+                        UPDATE ingestion_run
+                        SET status = :status, success_count = :success, failure_count = :failure, updated_at = :now
+                        WHERE run_id = :runId
+                        """)
+                .bind("status", state.name())
+                .bind("success", run.getSuccessCount().get())
+                .bind("failure", run.getFailureCount().get())
+                .bind("now", LocalDateTime.now())
+                .bind("runId", run.getRunId())
+                .then();
+
+        Flux<Long> updatePartitions = Flux.fromIterable(run.getPartitions())
+                .concatMap(partition -> databaseClient.sql("""
+                                UPDATE ingestion_checkpoint SET committed_offset = :committed
+                                WHERE run_id = :runId AND partition_no = :partition
+                                """)
+                        .bind("committed", run.committedOffset(partition.index()))
+                        .bind("runId", run.getRunId())
+                        .bind("partition", partition.index())
+                        .fetch()
+                        .rowsUpdated());
+
+        return updatePartitions.then(updateRun)
+                .doOnSuccess(v -> run.markCheckpointed());
+    }
+
+    /**
+     * 다른 인스턴스의 checkpoint 와 겹칠 수 있으므로 offset 은 커지는 방향으로만, 건수는 차이만 더합니다.
+     */
+    private Mono<Void> savePartition(IngestionRun run) {
+        IngestionRun.Partition partition = run.activePartitions().get(0);
+        Mono<Long> updatePartition = databaseClient.sql("""
+                        UPDATE ingestion_checkpoint SET committed_offset = GREATEST(committed_offset, :committed)
+                        WHERE run_id = :runId AND partition_no = :partition
+                        """)
+                .bind("committed", run.committedOffset(partition.index()))
+                .bind("runId", run.getRunId())
+                .bind("partition", partition.index())
+                .fetch()
+                .rowsUpdated();
+
+        Mono<Void> updateRun = Mono.defer(() -> {
+            long[] delta = run.drainUnsavedCounts();
+            return databaseClient.sql("""
+                            UPDATE ingestion_run
+                            SET success_count = success_count + :success, failure_count = failure_count + :failure, updated_at = :now
+                            WHERE run_id = :runId
+                            """)
+                    .bind("success", delta[0])
+                    .bind("failure", delta[1])
+                    .bind("now", LocalDateTime.now())
+                    .bind("runId", run.getRunId())
+                    .then();
+        });
+
+        return updatePartition.then(updateRun)
+                .doOnSuccess(v -> run.markCheckpointed());
+    }
+
+    public Mono<Void> updateStatus(String runId, IngestionRunState state) {
+        return databaseClient.sql("UPDATE ingestion_run SET status = :status, updated_at = :now WHERE run_id = :runId")
+                .bind("status", state.name())
+                .bind("now", LocalDateTime.now())
+                .bind("runId", runId)
+                .then();
+    }
+
+    /**
+     * 저장된 checkpoint 로부터 실행 상태를 복원합니다.
+     */
+    public Mono<IngestionRun> load(String runId) {
+        return find(runId).map(response -> {
+            List<IngestionRun.Partition> partitions = response.partitions().stream()
+                    .map(p -> new IngestionRun.Partition(p.partition(), p.startOffset(), p.endOffset()))
+                    .toList();
+            long[] committed = response.partitions().stream()
+                    .mapToLong(IngestionRunResponse.Partition::committedOffset)
+                    .toArray();
+            return new IngestionRun(runId, response.source(), IngestionWriteMode.valueOf(response.writeMode()),
+                    partitions, committed, response.successCount(), response.failureCount());
+        });
+    }
+
+    public Mono<IngestionRunResponse> find(String runId) {
+        return databaseClient.sql("SELECT * FROM ingestion_run WHERE run_id = :runId")
+                .bind("runId", runId)
+                .map((row, meta) -> new RunRow(
+                        row.get("run_id", String.class),
+                        row.get("source", String.class),
+                        row.get("write_mode", String.class),
+                        row.get("status", String.class),
+                        row.get("success_count", Long.class),
+                        row.get("failure_count", Long.class),
+                        row.get("started_at", LocalDateTime.class),
+                        row.get("updated_at", LocalDateTime.class)))
+                .one()
+                .flatMap(this::withPartitions);
+    }
+
+    public Flux<IngestionRunResponse> findAll() {
+        return databaseClient.sql("SELECT run_id FROM ingestion_run ORDER BY started_at DESC")
+                .map((row, meta) -> row.get("run_id", String.class))
+                .all()
+                .concatMap(this::find);
+    }
+
+    private Mono<IngestionRunResponse> withPartitions(RunRow run) {
+        return databaseClient.sql("""
+                        SELECT partition_no, start_offset, end_offset, committed_offset
+                        FROM ingestion_checkpoint
+                        WHERE run_id = :runId
+                        ORDER BY partition_no
+                        """)
+                .bind("runId", run.runId())
+                .map((row, meta) -> new IngestionRunResponse.Partition(
+                        row.get("partition_no", Integer.class),
+                        row.get("start_offset", Long.class),
+                        row.get("end_offset", Long.class),
+                        row.get("committed_offset", Long.class)))
+                .all()
+                .collectList()
+                .map(partitions -> new IngestionRunResponse(
+                        run.runId(),
+                        run.source(),
+                        run.writeMode(),
+                        run.status(),
+                        run.successCount(),
+                        run.failureCount(),
+                        progressPercent(partitions),
+                        partitions,
+                        run.startedAt(),
+                        run.updatedAt()));
+    }
+
+    /**
+     * 파일 입력(byte range)만 진행률을 계산할 수 있습니다. classpath 입력은 전체 줄 수를 모르므로 null.
+     */
+    private static Double progressPercent(List<IngestionRunResponse.Partition> partitions) {
+        long total = 0;
+        long done = 0;
+        for (IngestionRunResponse.Partition p : partitions) {
+            if (p.endOffset() < 0) return null;
+            total += p.endOffset() - p.startOffset();
+            done += p.committedOffset() - p.startOffset();
+        }
+        return total == 0 ? 100.0 : done * 100.0 / total;
+    }
+
+    private record RunRow(String runId, String source, String writeMode, String status,
+                          long successCount, long failureCount,
+                          LocalDateTime startedAt, LocalDateTime updatedAt) {
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.spotifyaggregator.service;
+
+import com.example.spotifyaggregator.dto.IngestionJobResponse;
+import com.example.spotifyaggregator.dto.SongIngestionResult;
+import com.example.spotifyaggregator.exception.ErrorCode;
+import com.example.spotifyaggregator.exception.SongIngestionException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ingestion 을 비동기 job 으로 실행하고 진행 상태를 제공합니다.
+ * job id 는 ingestion run id 와 같으므로, 중단된 job 은 run resume 으로 이어서 처리할 수 있습니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IngestionJobManager {
+
+    private final SongIngestionService songIngestionService;
+
+    @Value("${ingestion.job.progress-interval:1s}")
+    private Duration progressInterval;
+
+    @Value("${ingestion.job.max-finished:100}")
+    private int maxFinishedJobs;
+
+    private final Map<String, IngestionJob> jobs = new ConcurrentHashMap<>();
+
+    public IngestionJobResponse start(String path, IngestionWriteMode mode) {
+        String jobId = UUID.randomUUID().toString();
+        IngestionJob job = new IngestionJob(jobId, path == null ? "classpath" : path, mode);
+        jobs.put(jobId, job);
+        evictFinishedJobs();
+
+        Disposable disposable = songIngestionService.startRun(jobId, path, mode)
+                .subscribe(job::complete, job::fail);
+        job.attach(disposable);
+        log.info("ingestion job 시작 : jobId = {}, source = {}, mode = {}", jobId, job.source, mode);
+        return job.snapshot();
+    }
+
+    public Mono<IngestionJobResponse> status(String jobId) {
+        return Mono.justOrEmpty(jobs.get(jobId))
+                .map(IngestionJob::snapshot)
+                .switchIfEmpty(Mono.error(new SongIngestionException(ErrorCode.INGESTION_RUN_NOT_FOUND)));
+    }
+
+    /**
+     * progressInterval 마다 진행 상태를 내보내고, job 이 끝나면 마지막 상태를 보낸 뒤 완료합니다.
+     */
+    public Flux<IngestionJobResponse> progress(String jobId) {
+        IngestionJob job = jobs.get(jobId);
+        if (job == null) {
+            return Flux.error(new SongIngestionException(ErrorCode.INGESTION_RUN_NOT_FOUND));
+        }
+        return Flux.interval(Duration.ZERO, progressInterval)
+                .map(tick -> job.snapshot())
+                .takeUntil(snapshot -> !IngestionRunState.RUNNING.name().equals(snapshot.status()));
+    }
+
+    public Mono<IngestionJobResponse> cancel(String jobId) {
+        return Mono.justOrEmpty(jobs.get(jobId))
+                .switchIfEmpty(Mono.error(new SongIngestionException(ErrorCode.INGESTION_RUN_NOT_FOUND)))
+                .map(job -> {
+                    job.cancel();
+                    return job.snapshot();
+                });
+    }
+
+    private void evictFinishedJobs() {
+        long finished = jobs.values().stream().filter(IngestionJob::isFinished).count();
+        if (finished <= maxFinishedJobs) return;
+
+        jobs.values().stream()
+                .filter(IngestionJob::isFinished)
+                .sorted(Comparator.comparingLong(job -> job.startedAt))
+                .limit(finished - maxFinishedJobs)
+                .forEach(job -> jobs.remove(job.jobId));
+    }
+
+    private class IngestionJob {
+
+        private final String jobId;
+        private final String source;
+        private final IngestionWriteMode mode;
+        private final long startedAt = System.currentTimeMillis();
+
+        private volatile IngestionRunState state = IngestionRunState.RUNNING;
+        private volatile Disposable disposable;
+        private volatile IngestionRun run;
+        private volatile SongIngestionResult result;
+        private volatile String error;
+        private volatile long finishedAt;
+
+        // 현재 처리량 계산용 직전 sample
+        private long sampledAt = startedAt;
+        private long sampledRows;
+        private double currentRowsPerSecond;
+
+        IngestionJob(String jobId, String source, IngestionWriteMode mode) {
+            this.jobId = jobId;
+            this.source = source;
+            this.mode = mode;
+        }
+
+        void attach(Disposable disposable) {
+            this.disposable = disposable;
+            if (state == IngestionRunState.CANCELLED) disposable.dispose();
+        }
+
+        void complete(SongIngestionResult result) {
+            this.result = result;
+            finish(IngestionRunState.COMPLETED);
+        }
+
+        void fail(Throwable ex) {
+            this.error = ex.getMessage();
+            finish(IngestionRunState.FAILED);
+        }
+
+        void cancel() {
+            if (state != IngestionRunState.RUNNING) return;
+            finish(IngestionRunState.CANCELLED);
+            Disposable current = disposable;
+            if (current != null) current.dispose();
+        }
+
+        boolean isFinished() {
+            return state != IngestionRunState.RUNNING;
+        }
+
+        private void finish(IngestionRunState finalState) {
+            captureRun();
+            finishedAt = System.currentTimeMillis();
+            state = finalState;
+        }
+
+        private void captureRun() {
+            if (run == null) {
+                songIngestionService.findActiveRun(jobId).ifPresent(found -> run = found);
+            }
+        }
+
+        synchronized IngestionJobResponse snapshot() {
+            captureRun();
+            long now = isFinished() ? finishedAt : System.currentTimeMillis();
+            long elapsed = now - startedAt;
+
+            IngestionRun current = run;
+            long parsed = current == null ? 0 : current.getParsedCount().get();
+            long written = current == null ? 0 : current.getSuccessCount().get();
+            long failed = current == null ? 0 : current.getFailureCount().get();
+            long processed = written + failed;
+
+            if (now - sampledAt >= 1000) {
+                currentRowsPerSecond = (processed - sampledRows) * 1000.0 / (now - sampledAt);
+                sampledAt = now;
+                sampledRows = processed;
+            }
+
+            return new IngestionJobResponse(
+                    jobId,
+                    state.name(),
+                    source,
+                    mode.name(),
+                    parsed,
+                    written,
+                    current == null ? 0 : current.getDuplicateCount().get(),
+                    failed,
+                    elapsed > 0 ? processed * 1000.0 / elapsed : 0.0,
+                    isFinished() ? 0.0 : currentRowsPerSecond,
+                    current == null ? 0 : current.getDlqPending().get(),
+                    current == null ? 0 : current.getDlqRecovered().get(),
+                    current == null ? 0 : current.getDlqFailed().get(),
+                    elapsed,
+                    current == null ? List.of() : current.stages(),
+                    current == null ? null : current.delta(),
+                    current == null ? null : current.shardResults(),
+                    result,
+                    error
+            );
+        }
+    }
+}
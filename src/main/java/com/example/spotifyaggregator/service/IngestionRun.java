@@ -0,0 +1,223 @@
+package com.example.spotifyaggregator.service;
+
+import com.example.spotifyaggregator.dto.IngestionDeltaCounts;
+import com.example.spotifyaggregator.dto.IngestionRecord;
+import com.example.spotifyaggregator.dto.IngestionShardResult;
+import com.example.spotifyaggregator.dto.IngestionStageStats;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 하나의 ingestion 실행 상태. partition 별로 "여기까지는 저장(또는 DLQ 적재)이 끝났다"는 committed offset 을 추적합니다.
+ * 쓰기 결과는 입력 순서대로(flatMapSequential) 전달되므로, 마지막으로 전달된 row 의 offset 이 곧 committed offset 입니다.
+ */
+@Getter
+public class IngestionRun {
+
+    public static final String CLASSPATH_PREFIX = "classpath:";
+    public static final String FILE_PREFIX = "file:";
+    public static final String SHARDS_PREFIX = "shards:"; // 디렉터리 / glob / 압축 파일, shard 하나가 partition 하나
+    public static final String DLQ_SOURCE = "dlq:"; // DLQ 단독 replay (checkpoint 저장 안 함)
+    public static final String UPLOAD_SOURCE = "upload:"; // HTTP 요청 본문 (다시 읽을 수 없으므로 resume 불가)
+
+    public record Partition(int index, long start, long end) {
+    }
+
+    private final String runId;
+    private final String source;
+    private final IngestionWriteMode mode;
+    private final List<Partition> partitions;
+    private final AtomicLongArray committed;
+    private final AtomicLong successCount;
+    private final AtomicLong failureCount;
+    private final long initialProcessed; // resume 이전 실행에서 처리한 row 수
+    private final AtomicLong readCount = new AtomicLong();
+    private final AtomicLong parsedCount = new AtomicLong();
+    private final AtomicLong parseErrorCount = new AtomicLong();
+    private final AtomicLong duplicateCount = new AtomicLong();
+    private final AtomicLong newCount = new AtomicLong();       // DELTA : 새로 INSERT
+    private final AtomicLong changedCount = new AtomicLong();   // DELTA : content hash 가 달라 UPDATE
+    private final AtomicLong unchangedCount = new AtomicLong(); // DELTA : 쓰기 없이 skip
+    private final AtomicLong dlqPending = new AtomicLong();
+    private final AtomicLong dlqRecovered = new AtomicLong();
+    private final AtomicLong dlqFailed = new AtomicLong();
+    private final AtomicLongArray partitionReadCount;
+    private final AtomicLongArray partitionParseErrorCount;
+    private final AtomicLongArray partitionProcessedCount;
+    private final long startedAt = System.currentTimeMillis();
+    private volatile long lastCheckpointAt = System.currentTimeMillis();
+    private volatile List<Path> shards = List.of(); // SHARDS 입력의 partition 순서별 shard 경로
+    private final int ownedPartition; // 분산 ingestion 에서 이 실행이 맡은 partition (-1 이면 전체)
+    private long savedSuccess; // partition 단위 checkpoint 에 이미 더한 건수
+    private long savedFailure;
+
+    public IngestionRun(String runId, String source, IngestionWriteMode mode, List<Partition> partitions,
+                        long[] committedOffsets, long successCount, long failureCount) {
+        this(runId, source, mode, partitions, committedOffsets, successCount, failureCount, -1);
+    }
+
+    private IngestionRun(String runId, String source, IngestionWriteMode mode, List<Partition> partitions,
+                         long[] committedOffsets, long successCount, long failureCount, int ownedPartition) {
+        this.runId = runId;
+        this.source = source;
+        this.mode = mode;
+        this.partitions = List.copyOf(partitions);
+        this.committed = new AtomicLongArray(committedOffsets);
+        this.successCount = new AtomicLong(successCount);
+        this.failureCount = new AtomicLong(failureCount);
+        this.initialProcessed = successCount + failureCount;
+        this.partitionReadCount = new AtomicLongArray(partitions.size());
+        this.partitionParseErrorCount = new AtomicLongArray(partitions.size());
+        this.partitionProcessedCount = new AtomicLongArray(partitions.size());
+        this.ownedPartition = ownedPartition;
+    }
+
+    public static IngestionRun start(String runId, String source, IngestionWriteMode mode, List<Partition> partitions) {
+        long[] committed = partitions.stream().mapToLong(Partition::start).toArray();
+        return new IngestionRun(runId, source, mode, partitions, committed, 0, 0);
+    }
+
+    /**
+     * 분산 ingestion : partition 하나만 처리하는 실행 상태를 만듭니다.
+     * 다른 인스턴스도 같은 run 의 건수를 더하므로 성공 / 실패 건수는 0 부터 세고, checkpoint 시 늘어난 만큼만 DB 에 더합니다.
+     */
+    public IngestionRun forPartition(int partition) {
+        long[] offsets = new long[partitions.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = committed.get(i);
+        }
+        IngestionRun scoped = new IngestionRun(runId, source, mode, partitions, offsets, 0, 0, partition);
+        scoped.shards = shards;
+        return scoped;
+    }
+
+    public boolean isPartitionScoped() {
+        return ownedPartition >= 0;
+    }
+
+    /**
+     * 이 실행이 읽을 partition (분산 ingestion 이면 맡은 partition 하나)
+     */
+    public List<Partition> activePartitions() {
+        return isPartitionScoped() ? List.of(partitions.get(ownedPartition)) : partitions;
+    }
+
+    /**
+     * 같은 노드에서 동시에 실행 중인 run 을 구분하는 key (partition 단위 실행은 run id + partition)
+     */
+    public String key() {
+        return isPartitionScoped() ? runId + "#" + ownedPartition : runId;
+    }
+
+    /**
+     * 마지막 호출 이후 늘어난 성공 / 실패 건수를 반환하고 저장된 것으로 표시합니다.
+     */
+    public synchronized long[] drainUnsavedCounts() {
+        long success = successCount.get();
+        long failure = failureCount.get();
+        long[] delta = {success - savedSuccess, failure - savedFailure};
+        savedSuccess = success;
+        savedFailure = failure;
+        return delta;
+    }
+
+    public void record(List<IngestionRecord> records, int success, int failure) {
+        for (IngestionRecord record : records) {
+            committed.accumulateAndGet(record.partition(), record.offset(), Math::max);
+            partitionProcessedCount.incrementAndGet(record.partition());
+        }
+        successCount.addAndGet(success);
+        failureCount.addAndGet(failure);
+    }
+
+    public void markRead(int partition) {
+        readCount.incrementAndGet();
+        partitionReadCount.incrementAndGet(partition);
+    }
+
+    public void markParseError(int partition) {
+        parseErrorCount.incrementAndGet();
+        partitionParseErrorCount.incrementAndGet(partition);
+    }
+
+    /**
+     * 이번 실행에서 쓰기까지 끝난 row 수 (성공 + DLQ 적재)
+     */
+    public long processedThisRun() {
+        return successCount.get() + failureCount.get() - initialProcessed;
+    }
+
+    /**
+     * read → parse → write 단계별 처리 건수, 대기 건수, 평균 처리량
+     */
+    public List<IngestionStageStats> stages() {
+        long elapsed = Math.max(1, System.currentTimeMillis() - startedAt);
+        long read = readCount.get();
+        long parsed = parsedCount.get() + parseErrorCount.get();
+        long written = processedThisRun();
+        return List.of(
+                new IngestionStageStats("read", read, 0, read * 1000.0 / elapsed),
+                new IngestionStageStats("parse", parsed, Math.max(0, read - parsed), parsed * 1000.0 / elapsed),
+                new IngestionStageStats("write", written, Math.max(0, parsedCount.get() - written), written * 1000.0 / elapsed));
+    }
+
+    /**
+     * DELTA 모드의 new / changed / unchanged 건수 (다른 모드는 null)
+     */
+    public IngestionDeltaCounts delta() {
+        if (mode != IngestionWriteMode.DELTA) return null;
+        return new IngestionDeltaCounts(newCount.get(), changedCount.get(), unchangedCount.get());
+    }
+
+    public void attachShards(List<Path> shards) {
+        this.shards = List.copyOf(shards);
+    }
+
+    /**
+     * SHARDS 입력의 shard 별 처리 결과 (다른 입력은 null)
+     */
+    public List<IngestionShardResult> shardResults() {
+        if (!isShardSource()) return null;
+        List<IngestionShardResult> results = new ArrayList<>(partitions.size());
+        for (Partition partition : partitions) {
+            int index = partition.index();
+            results.add(new IngestionShardResult(index,
+                    index < shards.size() ? shards.get(index).toString() : null,
+                    partitionReadCount.get(index), partitionParseErrorCount.get(index),
+                    partitionProcessedCount.get(index), committed.get(index)));
+        }
+        return results;
+    }
+
+    public long committedOffset(int partition) {
+        return committed.get(partition);
+    }
+
+    public boolean checkpointDue(Duration interval) {
+        return System.currentTimeMillis() - lastCheckpointAt >= interval.toMillis();
+    }
+
+    public void markCheckpointed() {
+        lastCheckpointAt = System.currentTimeMillis();
+    }
+
+    public boolean isClasspathSource() {
+        return source.startsWith(CLASSPATH_PREFIX);
+    }
+
+    public boolean isShardSource() {
+        return source.startsWith(SHARDS_PREFIX);
+    }
+
+    public String sourceLocation() {
+        if (isClasspathSource()) return source.substring(CLASSPATH_PREFIX.length());
+        if (isShardSource()) return source.substring(SHARDS_PREFIX.length());
+        return source.substring(FILE_PREFIX.length());
+    }
+}
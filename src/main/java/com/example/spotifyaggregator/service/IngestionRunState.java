@@ -0,0 +1,8 @@
+package com.example.spotifyaggregator.service;
+
+public enum IngestionRunState {
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    CANCELLED
+}
@@ -0,0 +1,24 @@
+package com.example.spotifyaggregator.service;
+
+import com.example.spotifyaggregator.exception.ErrorCode;
+import com.example.spotifyaggregator.exception.SongIngestionException;
+
+import java.util.Locale;
+
+public enum IngestionWriteMode {
+    PER_ROW,  // 한 건씩 repository save
+    BATCH,    // N 건 단위 multi-row INSERT
+    BULK_LOAD, // 빈 테이블 초기 적재 : CSV staging 후 LOAD DATA LOCAL INFILE (H2 는 CSVREAD)
+    DELTA;     // 재적재 : content hash 로 new 는 INSERT, changed 는 UPDATE, unchanged 는 skip
+
+    /**
+     * @throws SongIngestionException 모르는 mode 이면 INGESTION_INVALID_WRITE_MODE (400)
+     */
+    public static IngestionWriteMode from(String value) {
+        try {
+            return IngestionWriteMode.valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new SongIngestionException(ErrorCode.INGESTION_INVALID_WRITE_MODE);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.spotifyaggregator.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 분산 ingestion 의 partition lease 를 Redis 에 보관합니다.
+ * - ingestion:distributed:runs : 진행 중인 분산 run id 집합
+ * - ingestion:lease:{runId}:{partition} : 소유 인스턴스 id (SET NX PX, 소유자만 갱신 / 해제)
+ * - ingestion:done:{runId} : 처리가 끝난 partition 번호 집합
+ * - ingestion:attempts:{runId} : partition 번호 → 처리 실패 횟수 (모든 인스턴스 합계)
+ * - ingestion:failed:{runId} : 실패 횟수 한도에 이르러 더 이상 시도하지 않는 partition 번호 집합
+ */
+@Component
+@RequiredArgsConstructor
+public class PartitionLeaseStore {
+
+    private static final String RUNS_KEY = "ingestion:distributed:runs";
+    private static final Duration DONE_RETENTION = Duration.ofDays(1);
+
+    private static final RedisScript<Long> RENEW = RedisScript.of("""
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                return redis.call('pexpire', KEYS[1], ARGV[2])
+            end
+            return 0
+            """, Long.class);
+
+    private static final RedisScript<Long> RELEASE = RedisScript.of("""
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                return redis.call('del', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+
+    public Mono<Void> register(String runId) {
+        return redisTemplate.opsForSet().add(RUNS_KEY, runId).then();
+    }
+
+    public Flux<String> activeRuns() {
+        return redisTemplate.opsForSet().members(RUNS_KEY);
+    }
+
+    /**
+     * 진행 중 목록에서 빼고, 완료 / 실패 partition 집합은 조회용으로 DONE_RETENTION 동안 남깁니다.
+     */
+    public Mono<Void> unregister(String runId) {
+        return redisTemplate.opsForSet().remove(RUNS_KEY, runId)
+                .then(redisTemplate.expire(doneKey(runId), DONE_RETENTION))
+                .then(redisTemplate.expire(failedKey(runId), DONE_RETENTION))
+                .then(redisTemplate.expire(attemptsKey(runId), DONE_RETENTION))
+                .then();
+    }
+
+    /**
+     * @return lease 를 얻었으면 true (이미 다른 인스턴스가 가지고 있으면 false)
+     */
+    public Mono<Boolean> tryAcquire(String runId, int partition, String owner, Duration ttl) {
+        return redisTemplate.opsForValue().setIfAbsent(leaseKey(runId, partition), owner, ttl);
+    }
+
+    /**
+     * @return 여전히 owner 의 lease 여서 만료 시간을 연장했으면 true
+     */
+    public Mono<Boolean> renew(String runId, int partition, String owner, Duration ttl) {
+        return redisTemplate.execute(RENEW, List.of(leaseKey(runId, partition)),
+                        List.of(owner, Long.toString(ttl.toMillis())))
+                .next()
+                .map(result -> result == 1L)
+                .defaultIfEmpty(false);
+    }
+
+    public Mono<Boolean> release(String runId, int partition, String owner) {
+        return redisTemplate.execute(RELEASE, List.of(leaseKey(runId, partition)), List.of(owner))
+                .next()
+                .map(result -> result == 1L)
+                .defaultIfEmpty(false);
+    }
+
+    public Mono<String> owner(String runId, int partition) {
+        return redisTemplate.opsForValue().get(leaseKey(runId, partition));
+    }
+
+    public Mono<Void> markDone(String runId, int partition) {
+        return redisTemplate.opsForSet().add(doneKey(runId), Integer.toString(partition)).then();
+    }
+
+    public Mono<Set<Integer>> donePartitions(String runId) {
+        return redisTemplate.opsForSet().members(doneKey(runId))
+                .map(Integer::valueOf)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * @return 이번 실패를 더한 partition 의 실패 횟수
+     */
+    public Mono<Long> recordFailure(String runId, int partition) {
+        return redisTemplate.<String, String>opsForHash().increment(attemptsKey(runId), Integer.toString(partition), 1);
+    }
+
+    public Mono<Void> markFailed(String runId, int partition) {
+        return redisTemplate.opsForSet().add(failedKey(runId), Integer.toString(partition)).then();
+    }
+
+    public Mono<Set<Integer>> failedPartitions(String runId) {
+        return redisTemplate.opsForSet().members(failedKey(runId))
+                .map(Integer::valueOf)
+                .collect(Collectors.toSet());
+    }
+
+    private static String leaseKey(String runId, int partition) {
+        return "ingestion:lease:" + runId + ":" + partition;
+    }
+
+    private static String doneKey(String runId) {
+        return "ingestion:done:" + runId;
+    }
+
+    private static String attemptsKey(String runId) {
+        return "ingestion:attempts:" + runId;
+    }
+
+    private static String failedKey(String runId) {
+        return "ingestion:failed:" + runId;
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.spotifyaggregator.service;
+
+import com.example.spotifyaggregator.dto.IndexRebuildResponse;
+import com.example.spotifyaggregator.exception.ErrorCode;
+import com.example.spotifyaggregator.exception.SongIngestionException;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * bulk load 동안 song / song_artist 의 보조 index 를 내려두고, 적재 후 한 번에 다시 만듭니다.
+ * - row 마다 index 를 갱신하는 대신 적재가 끝난 데이터를 정렬해 index 를 한 번에 생성
+ * - drop / rebuild 모두 현재 존재하는 index 를 보고 필요한 것만 실행하므로 중간에 죽어도 다시 실행하면 됨
+ * - 적재 도중 프로세스가 죽어 index 가 빠진 채 남으면 다음 기동 시(또는 POST /ingest/indexes/rebuild) 다시 생성
+ * song_artist(artist_id) index 는 artist FK 가 사용하므로 (MySQL 은 FK 컬럼에 index 가 필요) 대상에서 제외합니다.
+ * song_artist(song_id) 는 PK (song_id, artist_id) 가 FK index 역할을 대신합니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SecondaryIndexManager {
+
+    private static final List<IndexDefinition> DEFERRABLE = List.of(
+            new IndexDefinition("idx_song_release_year", "song", "release_year"),
+            new IndexDefinition("idx_song_release_year_album", "song", "release_year, album"),
+            new IndexDefinition("idx_song_artist_song_id", "song_artist", "song_id")
+    );
+
+    private final DatabaseClient databaseClient;
+    private final ConnectionFactory connectionFactory;
+
+    @Value("${ingestion.bulk-load.rebuild-missing-indexes-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    private final AtomicBoolean deferred = new AtomicBoolean();
+
+    private record IndexDefinition(String name, String table, String columns) {
+    }
+
+    /**
+     * 이전 실행이 index 를 내려둔 채 종료된 경우를 복구합니다. 기동을 늦추지 않도록 백그라운드에서 실행합니다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void rebuildMissingOnStartup() {
+        if (!rebuildOnStartup) return;
+        rebuild()
+                .filter(result -> !result.rebuilt().isEmpty())
+                .subscribe(
+                        result -> log.warn("이전 bulk load 에서 빠진 보조 index 를 다시 만들었습니다 : {}, 소요 시간 = {}ms",
+                                result.rebuilt(), result.elapsedMillis()),
+                        e -> log.error("보조 index 복구 실패", e));
+    }
+
+    /**
+     * 보조 index 를 내립니다. 내린 뒤에는 반드시 {@link #restore()} 로 되돌려야 합니다.
+     * 내리는 도중 실패하면 이미 내린 index 를 다시 만든 뒤 오류를 전달합니다.
+     *
+     * @return 내린 index 이름
+     */
+    public Mono<List<String>> defer() {
+        return Mono.defer(() -> {
+            if (!deferred.compareAndSet(false, true)) {
+                return Mono.error(new SongIngestionException(ErrorCode.INGESTION_INDEXES_DEFERRED));
+            }
+            long startTime = System.currentTimeMillis();
+            return existingIndexes()
+                    .flatMap(existing -> {
+                        List<IndexDefinition> targets = DEFERRABLE.stream()
+                                .filter(index -> existing.contains(index.name()))
+                                .toList();
+                        return Flux.fromIterable(statements(targets, false))
+                                .concatMap(sql -> databaseClient.sql(sql).then())
+                                .then(Mono.just(names(targets)));
+                    })
+                    .doOnNext(dropped -> log.info("bulk load 전 보조 index 를 내렸습니다 : {}, 소요 시간 = {}ms",
+                            dropped, System.currentTimeMillis() - startTime))
+                    .onErrorResume(ex -> restore()
+                            .onErrorResume(rebuildError -> {
+                                ex.addSuppressed(rebuildError);
+                                return Mono.empty();
+                            })
+                            .then(Mono.error(ex)));
+        });
+    }
+
+    /**
+     * {@link #defer()} 로 내린 index 를 다시 만들고 deferred 상태를 해제합니다.
+     */
+    public Mono<IndexRebuildResponse> restore() {
+        return rebuildMissing()
+                .doFinally(signal -> deferred.set(false));
+    }
+
+    /**
+     * 빠진 보조 index 를 다시 만듭니다. bulk load 가 index 를 내려둔 동안에는 거부합니다.
+     */
+    public Mono<IndexRebuildResponse> rebuild() {
+        return Mono.defer(() -> deferred.get()
+                ? Mono.error(new SongIngestionException(ErrorCode.INGESTION_INDEXES_DEFERRED))
+                : rebuildMissing());
+    }
+
+    private Mono<IndexRebuildResponse> rebuildMissing() {
+        return Mono.defer(() -> {
+            long startTime = System.currentTimeMillis();
+            return existingIndexes()
+                    .flatMap(existing -> {
+                        List<IndexDefinition> missing = DEFERRABLE.stream()
+                                .filter(index -> !existing.contains(index.name()))
+                                .toList();
+                        return Flux.fromIterable(statements(missing, true))
+                                .concatMap(sql -> databaseClient.sql(sql).then())
+                                .then(Mono.fromSupplier(() -> new IndexRebuildResponse(
+                                        names(missing), System.currentTimeMillis() - startTime)));
+                    })
+                    .doOnNext(result -> {
+                        if (!result.rebuilt().isEmpty()) {
+                            log.info("보조 index 재생성 완료 : {}, 소요 시간 = {}ms", result.rebuilt(), result.elapsedMillis());
+                        }
+                    });
+        });
+    }
+
+    /**
+     * MySQL 은 테이블별로 ALTER TABLE 하나에 묶어 테이블을 한 번만 읽도록 하고, H2 는 index 별로 실행합니다.
+     */
+    private List<String> statements(List<IndexDefinition> indexes, boolean create) {
+        if (indexes.isEmpty()) return List.of();
+        if (!isMysql()) {
+            return indexes.stream()
+                    .map(index -> create
+                            ? "CREATE INDEX IF NOT EXISTS " + index.name() + " ON " + index.table() + "(" + index.columns() + ")"
+                            : "DROP INDEX IF EXISTS " + index.name())
+                    .toList();
+        }
+        Map<String, List<IndexDefinition>> byTable = indexes.stream()
+                .collect(Collectors.groupingBy(IndexDefinition::table, LinkedHashMap::new, Collectors.toList()));
+        return byTable.entrySet().stream()
+                .map(entry -> "ALTER TABLE " + entry.getKey() + " " + entry.getValue().stream()
+                        .map(index -> create
+                                ? "ADD INDEX " + index.name() + " (" + index.columns() + ")"
+                                : "DROP INDEX " + index.name())
+                        .collect(Collectors.joining(", ")))
+                .toList();
+    }
+
+    /**
+     * @return song / song_artist 에 현재 존재하는 index 이름 (소문자)
+     */
+    private Mono<Set<String>> existingIndexes() {
+        String sql = isMysql()
+                ? "SELECT DISTINCT index_name FROM information_schema.statistics "
+                + "WHERE table_schema = DATABASE() AND table_name IN ('song', 'song_artist')"
+                : "SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME IN ('SONG', 'SONG_ARTIST')";
+        return databaseClient.sql(sql)
+                .map((row, meta) -> row.get(0, String.class).toLowerCase())
+                .all()
+                .collect(Collectors.toSet());
+    }
+
+    private boolean isMysql() {
+        return connectionFactory.getMetadata().getName().toLowerCase().contains("mysql");
+    }
+
+    private static List<String> names(List<IndexDefinition> indexes) {
+        return indexes.stream().map(IndexDefinition::name).toList();
+    }
+}
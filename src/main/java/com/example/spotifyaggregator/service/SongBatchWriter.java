@@ -0,0 +1,277 @@
+package com.example.spotifyaggregator.service;
+
+import com.example.spotifyaggregator.domain.Song;
+import com.example.spotifyaggregator.dto.SongWithArtists;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * song / artist / song_artist 를 N 건 단위 multi-row INSERT 로 적재합니다.
+ * 1) song : 인덱스(SongFingerprintIndex)에 없는 song 을 (isrc, title) 로 일괄 조회해 DB 에도 없는 것만
+ *    INSERT ... ON DUPLICATE KEY UPDATE 후 다시 id 일괄 조회 (IGNORE 와 달리 중복 외의 에러는 그대로 실패)
+ * 2) artist : 사전(ArtistDictionary)에 없는 이름만 INSERT IGNORE 후 name 으로 id 일괄 조회
+ * 3) song_artist : INSERT IGNORE 로 매핑 일괄 저장
+ * DB collation 차이 등으로 id 를 확정하지 못한 row 는 unresolved 로 돌려주어 단건 경로에서 처리합니다.
+ * song 의 id 는 song_artist 까지 저장된 뒤에만 채웁니다. (실패해 단건 경로로 넘어간 row 가 UPDATE 로 저장되지 않도록)
+ * 한 문장의 bind 파라미터는 MySQL prepared statement 한도(65535)를 넘지 않도록 나눠 실행합니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SongBatchWriter {
+
+    private static final int MAX_BIND_PARAMETERS = 65_535;
+    private static final int SONG_COLUMNS = 9;
+
+    private final DatabaseClient databaseClient;
+    private final ArtistDictionary artistDictionary;
+    private final SongFingerprintIndex songIndex;
+
+    /**
+     * @param duplicates 이미 존재해 INSERT 하지 않은 song 수
+     * @param changed    새로 INSERT 한 song 이나 새 song_artist 연결이 생긴 row (통계 dirty 표시 대상)
+     */
+    public record BatchWriteResult(int written, int duplicates, List<SongWithArtists> unresolved,
+                                   List<SongWithArtists> changed) {
+    }
+
+    public Mono<BatchWriteResult> write(List<SongWithArtists> batch) {
+        if (batch.isEmpty()) {
+            return Mono.just(new BatchWriteResult(0, 0, List.of(), List.of()));
+        }
+
+        Map<String, Long> knownSongIds = new HashMap<>();
+        List<Song> songs = new ArrayList<>();
+        for (SongWithArtists swa : batch) {
+            Song song = swa.song();
+            Long id = songIndex.lookup(song.getIsrc(), song.getTitle());
+            if (id != null) {
+                knownSongIds.put(songKey(song), id);
+            } else {
+                songs.add(song);
+            }
+        }
+        Map<String, Long> knownArtistIds = new HashMap<>();
+        Set<String> newArtistNames = new LinkedHashSet<>();
+        batch.forEach(swa -> swa.artists().forEach(name -> {
+            if (knownArtistIds.containsKey(name) || newArtistNames.contains(name)) return;
+            Long id = artistDictionary.lookup(name);
+            if (id != null) {
+                knownArtistIds.put(name, id);
+            } else {
+                newArtistNames.add(name);
+            }
+        }));
+
+        // 인덱스에 없어도 DB 에 있는 song 은 INSERT 하지 않고 인덱스에 있던 song 처럼 연결만 저장
+        Mono<Map<String, Long>> songIdsMono = findSongIds(songs)
+                .flatMap(existing -> {
+                    knownSongIds.putAll(existing);
+                    List<Song> missing = songs.stream()
+                            .filter(song -> !existing.containsKey(songKey(song)))
+                            .toList();
+                    return insertSongs(missing).then(findSongIds(missing));
+                });
+
+        return songIdsMono
+                .zipWith(insertArtists(newArtistNames).then(findArtistIds(newArtistNames)))
+                .flatMap(tuple -> {
+                    Map<String, Long> songIds = tuple.getT1();
+                    // 새로 INSERT 한 (isrc, title) 만 중복이 아님. 같은 batch 안의 같은 song 은 한 번만 INSERT 됨
+                    int duplicates = batch.size() - songIds.size();
+                    songIds.putAll(knownSongIds);
+                    songs.forEach(song -> {
+                        Long id = songIds.get(songKey(song));
+                        if (id != null) songIndex.register(song.getIsrc(), song.getTitle(), id);
+                    });
+                    Map<String, Long> artistIds = tuple.getT2();
+                    artistIds.forEach(artistDictionary::register);
+                    artistIds.putAll(knownArtistIds);
+
+                    // 인덱스에 있던 song 의 연결은 재적재에서 대부분 이미 있으므로 따로 INSERT 해 새로 생긴 연결이 있는지 봄
+                    List<long[]> newLinks = new ArrayList<>();
+                    List<long[]> knownLinks = new ArrayList<>();
+                    List<SongWithArtists> inserted = new ArrayList<>();
+                    List<SongWithArtists> known = new ArrayList<>();
+                    List<SongWithArtists> unresolved = new ArrayList<>();
+                    List<SongWithArtists> resolved = new ArrayList<>();
+                    for (SongWithArtists swa : batch) {
+                        String key = songKey(swa.song());
+                        Long songId = songIds.get(key);
+                        if (songId == null || !artistIds.keySet().containsAll(swa.artists())) {
+                            unresolved.add(swa);
+                            continue;
+                        }
+                        boolean isKnown = knownSongIds.containsKey(key);
+                        resolved.add(swa);
+                        List<long[]> links = isKnown ? knownLinks : newLinks;
+                        swa.artists().forEach(name -> links.add(new long[]{songId, artistIds.get(name)}));
+                        (isKnown ? known : inserted).add(swa);
+                    }
+
+                    return insertSongArtists(newLinks)
+                            .then(insertSongArtists(knownLinks))
+                            .map(linked -> {
+                                resolved.forEach(swa -> swa.song().setId(songIds.get(songKey(swa.song()))));
+                                List<SongWithArtists> changed = new ArrayList<>(inserted);
+                                // 어느 row 에 새 연결이 생겼는지는 알 수 없으므로 하나라도 생기면 인덱스에 있던 row 모두
+                                if (linked > 0) changed.addAll(known);
+                                return new BatchWriteResult(resolved.size(), duplicates, unresolved, changed);
+                            });
+                });
+    }
+
+    private Mono<Long> insertSongs(List<Song> songs) {
+        return inChunks(songs, MAX_BIND_PARAMETERS / SONG_COLUMNS, this::insertSongChunk);
+    }
+
+    private Mono<Long> insertSongChunk(List<Song> songs) {
+        StringBuilder sql = new StringBuilder("""
+                INSERT INTO song (isrc, title, album, release_date, release_year, genre, explicit, popularity, content_hash)
+                VALUES\s""");
+        for (int i = 0; i < songs.size(); i++) {
+            if (i > 0) sql.append(", ");
+            sql.append("(:isrc").append(i)
+                    .append(", :title").append(i)
+                    .append(", :album").append(i)
+                    .append(", :releaseDate").append(i)
+                    .append(", :releaseYear").append(i)
+                    .append(", :genre").append(i)
+                    .append(", :explicit").append(i)
+                    .append(", :popularity").append(i)
+                    .append(", :contentHash").append(i)
+                    .append(')');
+        }
+        // 먼저 조회한 뒤 다른 writer 가 같은 song 을 넣었을 때만 중복 (기존 row 는 그대로 둠)
+        sql.append(" ON DUPLICATE KEY UPDATE id = id");
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < songs.size(); i++) {
+            Song song = songs.get(i);
+            spec = bind(spec, "isrc" + i, song.getIsrc(), String.class);
+            spec = bind(spec, "title" + i, song.getTitle(), String.class);
+            spec = bind(spec, "album" + i, song.getAlbum(), String.class);
+            spec = bind(spec, "releaseDate" + i, song.getReleaseDate(), LocalDate.class);
+            spec = bind(spec, "releaseYear" + i, song.getReleaseYear(), Integer.class);
+            spec = bind(spec, "genre" + i, song.getGenre(), String.class);
+            spec = bind(spec, "explicit" + i, song.getExplicit(), Boolean.class);
+            spec = bind(spec, "popularity" + i, song.getPopularity(), Integer.class);
+            spec = bind(spec, "contentHash" + i, song.getContentHash(), Long.class);
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    /**
+     * @return 요청한 (isrc, title) 의 id. 같은 isrc 의 다른 title 은 포함하지 않음
+     */
+    private Mono<Map<String, Long>> findSongIds(List<Song> songs) {
+        if (songs.isEmpty()) return Mono.just(new HashMap<>());
+
+        Set<String> keys = new HashSet<>();
+        songs.forEach(song -> keys.add(songKey(song)));
+        List<String> isrcs = songs.stream().map(Song::getIsrc).distinct().toList();
+        return Flux.fromIterable(chunks(isrcs, MAX_BIND_PARAMETERS))
+                .concatMap(chunk -> databaseClient.sql("SELECT id, isrc, title FROM song WHERE isrc IN (:isrcs)")
+                        .bind("isrcs", chunk)
+                        .map((row, meta) -> Map.entry(
+                                songKey(row.get("isrc", String.class), row.get("title", String.class)),
+                                row.get("id", Long.class)))
+                        .all())
+                .filter(entry -> keys.contains(entry.getKey()))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue, HashMap::new);
+    }
+
+    private Mono<Long> insertArtists(Set<String> names) {
+        return inChunks(List.copyOf(names), MAX_BIND_PARAMETERS, this::insertArtistChunk);
+    }
+
+    private Mono<Long> insertArtistChunk(List<String> names) {
+        StringBuilder sql = new StringBuilder("INSERT IGNORE INTO artist (name) VALUES ");
+        for (int i = 0; i < names.size(); i++) {
+            if (i > 0) sql.append(", ");
+            sql.append("(:name").append(i).append(')');
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        int i = 0;
+        for (String name : names) {
+            spec = spec.bind("name" + i++, name);
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    private Mono<Map<String, Long>> findArtistIds(Set<String> names) {
+        if (names.isEmpty()) return Mono.just(new HashMap<>());
+
+        return Flux.fromIterable(chunks(List.copyOf(names), MAX_BIND_PARAMETERS))
+                .concatMap(chunk -> databaseClient.sql("SELECT id, name FROM artist WHERE name IN (:names)")
+                        .bind("names", chunk)
+                        .map((row, meta) -> Map.entry(row.get("name", String.class), row.get("id", Long.class)))
+                        .all())
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue, HashMap::new);
+    }
+
+    private Mono<Long> insertSongArtists(List<long[]> links) {
+        return inChunks(links, MAX_BIND_PARAMETERS / 2, this::insertSongArtistChunk);
+    }
+
+    private Mono<Long> insertSongArtistChunk(List<long[]> links) {
+        StringBuilder sql = new StringBuilder("INSERT IGNORE INTO song_artist (song_id, artist_id) VALUES ");
+        for (int i = 0; i < links.size(); i++) {
+            if (i > 0) sql.append(", ");
+            sql.append("(:songId").append(i).append(", :artistId").append(i).append(')');
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < links.size(); i++) {
+            spec = spec.bind("songId" + i, links.get(i)[0])
+                    .bind("artistId" + i, links.get(i)[1]);
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    /**
+     * rows 를 chunkSize 건씩 나눠 차례로 실행하고 반영된 row 수를 합칩니다.
+     */
+    private static <T> Mono<Long> inChunks(List<T> rows, int chunkSize, Function<List<T>, Mono<Long>> insert) {
+        if (rows.isEmpty()) return Mono.just(0L);
+        return Flux.fromIterable(chunks(rows, chunkSize))
+                .concatMap(insert)
+                .reduce(0L, Long::sum);
+    }
+
+    private static <T> List<List<T>> chunks(List<T> rows, int chunkSize) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            chunks.add(rows.subList(from, Math.min(rows.size(), from + chunkSize)));
+        }
+        return chunks;
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec,
+                                                          String name, Object value, Class<?> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    private static String songKey(Song song) {
+        return songKey(song.getIsrc(), song.getTitle());
+    }
+
+    private static String songKey(String isrc, String title) {
+        return isrc + '\u0000' + title;
+    }
+}
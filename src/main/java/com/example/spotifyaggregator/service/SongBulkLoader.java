@@ -0,0 +1,311 @@
+package com.example.spotifyaggregator.service;
+
+import com.example.spotifyaggregator.domain.Song;
+import com.example.spotifyaggregator.dto.IngestionRecord;
+import com.example.spotifyaggregator.exception.ErrorCode;
+import com.example.spotifyaggregator.exception.SongIngestionException;
+import com.example.spotifyaggregator.util.CollationKey;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * 빈 song / artist / song_artist 테이블에 대한 초기 적재(BULK_LOAD 모드)입니다.
+ * 1) 파싱된 row 를 테이블별 CSV 로 staging 하면서 id 를 클라이언트에서 부여 (song 은 (isrc, title), artist 는 name 기준 중복 제거)
+ * 2) MySQL 은 LOAD DATA LOCAL INFILE, H2(테스트)는 INSERT ... SELECT FROM CSVREAD 로 artist → song → song_artist 순서로 적재
+ * 대상 테이블이 하나라도 비어 있지 않으면 id 충돌을 피하기 위해 실행하지 않습니다.
+ * defer-indexes 가 켜져 있으면 적재 동안 보조 index 를 내려두고 적재 후 한 번에 다시 만듭니다. ({@link SecondaryIndexManager})
+ * MySQL 은 r2dbc url 에 allowLoadLocalInfileInPath 로 stagingDir 을 허용해야 하며, 서버의 local_infile 이 켜져 있어야 합니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SongBulkLoader {
+
+    private static final String SONG_COLUMNS = "id, isrc, title, album, release_date, release_year, genre, explicit, popularity, content_hash";
+    private static final String ARTIST_COLUMNS = "id, name";
+    private static final String SONG_ARTIST_COLUMNS = "song_id, artist_id";
+
+    private final DatabaseClient databaseClient;
+    private final ConnectionFactory connectionFactory;
+    private final SecondaryIndexManager indexManager;
+
+    @Value("${ingestion.bulk-load.staging-dir:/tmp/spotify-bulk-load}")
+    private String stagingDir;
+
+    @Value("${ingestion.bulk-load.defer-indexes:true}")
+    private boolean deferIndexes;
+
+    /**
+     * @param rows        staging 된 입력 row 수 (중복 포함)
+     * @param duplicates  (isrc, title) 중복으로 song 을 새로 만들지 않은 row 수
+     * @param lastRecords partition 별 마지막 row (checkpoint 용)
+     * @param indexRebuildMillis 적재 후 보조 index 재생성 시간 (index 를 내리지 않았으면 null)
+     */
+    public record BulkLoadResult(long rows, long duplicates, long songs, long artists, long songArtists,
+                                 long stagingMillis, long loadMillis, List<IngestionRecord> lastRecords,
+                                 Long indexRebuildMillis) {
+
+        BulkLoadResult withIndexRebuildMillis(long indexRebuildMillis) {
+            return new BulkLoadResult(rows, duplicates, songs, artists, songArtists,
+                    stagingMillis, loadMillis, lastRecords, indexRebuildMillis);
+        }
+    }
+
+    public Mono<BulkLoadResult> load(IngestionRun run, Flux<IngestionRecord> records) {
+        Mono<BulkLoadResult> load = Mono.usingWhen(
+                Mono.fromCallable(() -> new CsvStaging(Path.of(stagingDir).resolve(run.getRunId())))
+                        .subscribeOn(Schedulers.boundedElastic()),
+                staging -> stageAndLoad(staging, records),
+                staging -> Mono.fromRunnable(staging::delete).subscribeOn(Schedulers.boundedElastic()));
+        return ensureEmpty()
+                .then(deferIndexes ? withDeferredIndexes(load) : load);
+    }
+
+    /**
+     * 보조 index 를 내린 뒤 적재하고, 성공하면 index 를 다시 만들면서 걸린 시간을 결과에 담습니다.
+     * 적재가 실패하거나 취소되어도 index 는 다시 만듭니다.
+     */
+    private Mono<BulkLoadResult> withDeferredIndexes(Mono<BulkLoadResult> load) {
+        return Mono.usingWhen(
+                indexManager.defer(),
+                dropped -> load.flatMap(loaded -> indexManager.restore()
+                        .map(rebuilt -> loaded.withIndexRebuildMillis(rebuilt.elapsedMillis()))),
+                dropped -> Mono.empty(),
+                (dropped, ex) -> indexManager.restore(),
+                dropped -> indexManager.restore());
+    }
+
+    private Mono<BulkLoadResult> stageAndLoad(CsvStaging staging, Flux<IngestionRecord> records) {
+        long startTime = System.currentTimeMillis();
+        return records
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(staging::append)
+                .then(Mono.fromRunnable(staging::close))
+                .then(Mono.defer(() -> {
+                    long stagingMillis = System.currentTimeMillis() - startTime;
+                    log.info("bulk load staging 완료 : song = {}, artist = {}, song_artist = {}, 중복 row = {}, 소요 시간 = {}ms",
+                            staging.songCount, staging.artistIds.size(), staging.links.size(), staging.duplicates, stagingMillis);
+                    long loadStart = System.currentTimeMillis();
+                    return loadTables(staging)
+                            .map(loaded -> new BulkLoadResult(staging.rows, staging.duplicates,
+                                    loaded[0], loaded[1], loaded[2], stagingMillis,
+                                    System.currentTimeMillis() - loadStart, List.copyOf(staging.lastRecords.values()), null));
+                }));
+    }
+
+    private Mono<Void> ensureEmpty() {
+        return databaseClient.sql("""
+                        SELECT (SELECT COUNT(*) FROM song) + (SELECT COUNT(*) FROM artist)
+                             + (SELECT COUNT(*) FROM song_artist) AS cnt
+                        """)
+                .map((row, meta) -> row.get("cnt", Long.class))
+                .one()
+                .flatMap(count -> count > 0
+                        ? Mono.error(new SongIngestionException(ErrorCode.INGESTION_BULK_LOAD_TARGET_NOT_EMPTY))
+                        : Mono.empty());
+    }
+
+    /**
+     * @return song, artist, song_artist 적재 건수
+     */
+    private Mono<long[]> loadTables(CsvStaging staging) {
+        boolean mysql = connectionFactory.getMetadata().getName().toLowerCase().contains("mysql");
+        Mono<Long> artists = loadTable("artist", ARTIST_COLUMNS, staging.artistFile, mysql);
+        Mono<Long> songs = loadTable("song", SONG_COLUMNS, staging.songFile, mysql);
+        Mono<Long> links = loadTable("song_artist", SONG_ARTIST_COLUMNS, staging.songArtistFile, mysql);
+
+        Mono<long[]> loaded = artists.flatMap(a -> songs.flatMap(s -> links.map(l -> new long[]{s, a, l})))
+                .doOnNext(counts -> {
+                    if (counts[0] != staging.songCount || counts[1] != staging.artistIds.size()
+                            || counts[2] != staging.links.size()) {
+                        // unicode_ci collation 에서만 같은 값으로 보는 row 는 LOAD DATA 가 skip 합니다.
+                        log.warn("bulk load 건수가 staging 과 다릅니다 : song {}/{}, artist {}/{}, song_artist {}/{}",
+                                counts[0], staging.songCount, counts[1], staging.artistIds.size(),
+                                counts[2], staging.links.size());
+                    }
+                });
+        if (mysql) return loaded;
+
+        // H2 는 id 를 직접 넣어도 identity 가 따라오지 않으므로 이후 INSERT 를 위해 재설정
+        return loaded.flatMap(counts -> restartIdentity("song", staging.songCount + 1)
+                .then(restartIdentity("artist", staging.artistIds.size() + 1L))
+                .thenReturn(counts));
+    }
+
+    private Mono<Long> loadTable(String table, String columns, Path file, boolean mysql) {
+        String path = file.toAbsolutePath().toString().replace("\\", "\\\\").replace("'", "''");
+        String sql = mysql
+                ? "LOAD DATA LOCAL INFILE '" + path + "' INTO TABLE " + table + " CHARACTER SET utf8mb4 "
+                + "FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"' ESCAPED BY '' "
+                + "LINES TERMINATED BY '\\n' IGNORE 1 LINES (" + columns + ")"
+                : "INSERT INTO " + table + " (" + columns + ") "
+                + "SELECT * FROM CSVREAD('" + path + "', NULL, 'charset=UTF-8 null=NULL')";
+        long startTime = System.currentTimeMillis();
+        return databaseClient.sql(sql)
+                .fetch()
+                .rowsUpdated()
+                .doOnNext(count -> log.info("bulk load : table = {}, rows = {}, 소요 시간 = {}ms",
+                        table, count, System.currentTimeMillis() - startTime));
+    }
+
+    private Mono<Void> restartIdentity(String table, long next) {
+        return databaseClient.sql("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next).then();
+    }
+
+    /**
+     * staging CSV 파일과 id 부여 상태. 한 스레드에서 순서대로 append 합니다.
+     * 문자열은 항상 "..." 로 감싸고 내부의 " 는 "" 로, NULL 은 감싸지 않은 NULL 로 기록합니다.
+     */
+    private static final class CsvStaging {
+
+        private final Path directory;
+        private final Path songFile;
+        private final Path artistFile;
+        private final Path songArtistFile;
+        private final BufferedWriter songs;
+        private final BufferedWriter artists;
+        private final BufferedWriter songArtists;
+
+        private final Map<String, Long> songIds = new HashMap<>();
+        private final Map<String, Long> artistIds = new HashMap<>();
+        private final Set<Long> links = new HashSet<>(); // song_id << 32 | artist_id
+        private final Map<Integer, IngestionRecord> lastRecords = new HashMap<>();
+        private long songCount;
+        private long rows;
+        private long duplicates;
+
+        private CsvStaging(Path directory) throws IOException {
+            this.directory = Files.createDirectories(directory);
+            this.songFile = directory.resolve("song.csv");
+            this.artistFile = directory.resolve("artist.csv");
+            this.songArtistFile = directory.resolve("song_artist.csv");
+            this.songs = open(songFile, SONG_COLUMNS);
+            this.artists = open(artistFile, ARTIST_COLUMNS);
+            this.songArtists = open(songArtistFile, SONG_ARTIST_COLUMNS);
+        }
+
+        private static BufferedWriter open(Path file, String columns) throws IOException {
+            BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            writer.write(columns.replace(" ", ""));
+            writer.write('\n');
+            return writer;
+        }
+
+        void append(IngestionRecord record) {
+            try {
+                rows++;
+                lastRecords.put(record.partition(), record);
+                Song song = record.row().song();
+                // LOAD DATA 는 unique key (unicode_ci) 로 같은 row 를 건너뛰므로, 같은 collation key 면 먼저 쓴 id 를 그대로 사용
+                // isrc / title 이 NULL 인 song 은 DB 에서도 중복이 아니므로 항상 새 id
+                String key = song.getIsrc() == null || song.getTitle() == null
+                        ? null
+                        : CollationKey.of(song.getIsrc()) + '\u0000' + CollationKey.of(song.getTitle());
+                Long songId = key == null ? null : songIds.get(key);
+                if (songId == null) {
+                    songId = ++songCount;
+                    if (key != null) songIds.put(key, songId);
+                    writeSong(songId, song);
+                } else {
+                    duplicates++;
+                }
+
+                for (String name : record.row().artists()) {
+                    String artistKey = CollationKey.of(name);
+                    Long artistId = artistIds.get(artistKey);
+                    if (artistId == null) {
+                        artistId = artistIds.size() + 1L;
+                        artistIds.put(artistKey, artistId);
+                        artists.write(Long.toString(artistId));
+                        artists.write(',');
+                        writeText(artists, name);
+                        artists.write('\n');
+                    }
+                    if (links.add(songId << 32 | artistId)) {
+                        songArtists.write(songId + "," + artistId + "\n");
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeSong(long id, Song song) throws IOException {
+            songs.write(Long.toString(id));
+            songs.write(',');
+            writeText(songs, song.getIsrc());
+            songs.write(',');
+            writeText(songs, song.getTitle());
+            songs.write(',');
+            writeText(songs, song.getAlbum());
+            songs.write(',');
+            writeValue(songs, song.getReleaseDate());
+            songs.write(',');
+            writeValue(songs, song.getReleaseYear());
+            songs.write(',');
+            writeText(songs, song.getGenre());
+            songs.write(',');
+            writeValue(songs, song.getExplicit() == null ? null : song.getExplicit() ? 1 : 0);
+            songs.write(',');
+            writeValue(songs, song.getPopularity());
+            songs.write(',');
+            writeValue(songs, song.getContentHash());
+            songs.write('\n');
+        }
+
+        private static void writeText(Writer writer, String value) throws IOException {
+            if (value == null) {
+                writer.write("NULL");
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        private static void writeValue(Writer writer, Object value) throws IOException {
+            writer.write(value == null ? "NULL" : value.toString());
+        }
+
+        void close() {
+            try {
+                songs.close();
+                artists.close();
+                songArtists.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void delete() {
+            try (Stream<Path> files = Files.walk(directory)) {
+                close();
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            } catch (IOException | UncheckedIOException e) {
+                log.warn("bulk load staging 디렉터리 삭제 실패 : {}", directory, e);
+            }
+        }
+    }
+}
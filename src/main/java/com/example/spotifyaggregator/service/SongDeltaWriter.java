@@ -0,0 +1,87 @@
+package com.example.spotifyaggregator.service;
+
+import com.example.spotifyaggregator.domain.Song;
+import com.example.spotifyaggregator.dto.SongWithArtists;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DELTA 모드에서 내용이 바뀐(content hash 가 다른) 기존 song 을 갱신합니다.
+ * 1) 아티스트 id 해석 후 더 이상 없는 song_artist 매핑 삭제, 새 매핑 INSERT IGNORE
+ * 2) song 컬럼과 content_hash UPDATE
+ * content_hash 를 마지막에 쓰므로 중간에 실패한 row 는 다음 DELTA 실행에서 다시 changed 로 분류됩니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SongDeltaWriter {
+
+    private final DatabaseClient databaseClient;
+    private final ArtistDictionary artistDictionary;
+
+    public Mono<Void> update(long songId, SongWithArtists row) {
+        return Flux.fromIterable(row.artists())
+                .flatMap(artistDictionary::resolve)
+                .distinct()
+                .collectList()
+                .flatMap(artistIds -> deleteStaleLinks(songId, artistIds)
+                        .then(insertLinks(songId, artistIds)))
+                .then(updateSong(songId, row.song()));
+    }
+
+    private Mono<Long> deleteStaleLinks(long songId, List<Long> artistIds) {
+        DatabaseClient.GenericExecuteSpec spec = artistIds.isEmpty()
+                ? databaseClient.sql("DELETE FROM song_artist WHERE song_id = :songId")
+                : databaseClient.sql("DELETE FROM song_artist WHERE song_id = :songId AND artist_id NOT IN (:artistIds)")
+                        .bind("artistIds", artistIds);
+        return spec.bind("songId", songId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private Mono<Long> insertLinks(long songId, List<Long> artistIds) {
+        if (artistIds.isEmpty()) return Mono.just(0L);
+
+        StringBuilder sql = new StringBuilder("INSERT IGNORE INTO song_artist (song_id, artist_id) VALUES ");
+        for (int i = 0; i < artistIds.size(); i++) {
+            if (i > 0) sql.append(", ");
+            sql.append("(:songId, :artistId").append(i).append(')');
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString()).bind("songId", songId);
+        for (int i = 0; i < artistIds.size(); i++) {
+            spec = spec.bind("artistId" + i, artistIds.get(i));
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    private Mono<Void> updateSong(long songId, Song song) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("""
+                        UPDATE song
+                        SET album = :album, release_date = :releaseDate, release_year = :releaseYear, genre = :genre,
+                            explicit = :explicit, popularity = :popularity, content_hash = :contentHash
+                        WHERE id = :id
+                        """)
+                .bind("id", songId);
+        spec = bind(spec, "album", song.getAlbum(), String.class);
+        spec = bind(spec, "releaseDate", song.getReleaseDate(), LocalDate.class);
+        spec = bind(spec, "releaseYear", song.getReleaseYear(), Integer.class);
+        spec = bind(spec, "genre", song.getGenre(), String.class);
+        spec = bind(spec, "explicit", song.getExplicit(), Boolean.class);
+        spec = bind(spec, "popularity", song.getPopularity(), Integer.class);
+        spec = bind(spec, "contentHash", song.getContentHash(), Long.class);
+        return spec.fetch().rowsUpdated().then();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec,
+                                                          String name, Object value, Class<?> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+}
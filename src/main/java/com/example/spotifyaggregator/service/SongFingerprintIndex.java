@@ -0,0 +1,270 @@
+package com.example.spotifyaggregator.service;
+
+import com.example.spotifyaggregator.domain.Song;
+import com.example.spotifyaggregator.util.LongLongHashMap;
+import com.example.spotifyaggregator.util.SharedIndexRefresher;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ingestion 중 (isrc, title) → song id 를 메모리에서 해석하는 인덱스입니다.
+ * - (isrc, title) 의 64-bit fingerprint 를 key 로 primitive 해시맵(LongLongHashMap)에 보관
+ * - run 사이에 유지하며, run 이 시작할 때 마지막으로 읽은 id 이후의 song 만 추가로 읽고 이후 새로 저장한 song 을 등록
+ *   (처음 한 번과, 다른 run 이 없을 때 full-reload-interval 마다 비우고 전체를 다시 읽어 삭제된 song 을 정리)
+ * - 추가로 읽기 전에 알던 row 가 삭제되었는지 확인하고, 삭제되었으면 없는 id 로 연결하지 않도록 바로 비우고 전체를 다시 읽음
+ *   (song 의 MAX(id) 가 인덱스가 아는 가장 큰 id 보다 작거나, 그 id 이하 song 수가 인덱스가 아는 song 수보다 적은 경우)
+ *   한계 : 같은 구간에 인덱스가 모르는 song 이 생기거나(최대 크기 초과, 다른 프로세스의 INSERT) fingerprint 가 충돌하면
+ *   그만큼의 삭제는 드러나지 않으며, 이런 삭제는 full-reload-interval 의 전체 재적재에서 정리됨
+ * - 이미 있는 song 은 INSERT 실패(DuplicateKeyException) + 재조회 없이 메모리에서 중복 처리
+ * 대소문자만 다른 값처럼 DB collation 에서만 같은 row 는 인덱스에 없으므로 기존처럼 DB 의 unique key 로 처리됩니다.
+ * title 이 null 인 song 은 DB 에서도 중복으로 보지 않으므로 인덱스에 넣지 않습니다.
+ * DELTA run 이 한 번이라도 오면 fingerprint → content hash 도 함께 보관해 변경 여부를 DB 조회 없이 판단합니다.
+ * (다른 모드의 run 이 함께 실행되어도 hash 보관은 끄지 않음)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SongFingerprintIndex {
+
+    private static final long MISSING = -1L;
+
+    private final DatabaseClient databaseClient;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ingestion.song-index.max-size:5000000}")
+    private int maxSize;
+
+    @Value("${ingestion.song-index.full-reload-interval:1h}")
+    private Duration fullReloadInterval;
+
+    private final LongLongHashMap ids = new LongLongHashMap(1024);
+    private final LongLongHashMap contentHashes = new LongLongHashMap(1024);
+    private volatile boolean trackContentHash;
+    private long maxLoadedId;
+    private long maxKnownId;
+    private long aliases;
+    private SharedIndexRefresher refresher;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        refresher = new SharedIndexRefresher(fullReloadInterval);
+        Gauge.builder("ingestion.song-index.size", this, SongFingerprintIndex::size)
+                .description("노래 fingerprint 인덱스 엔트리 수")
+                .register(meterRegistry);
+        Gauge.builder("ingestion.song-index.memory", this, SongFingerprintIndex::memoryBytes)
+                .description("노래 fingerprint 인덱스가 사용하는 메모리")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * run 이 시작할 때 호출합니다. 마지막 적재 이후 생긴 song 을 읽어 인덱스를 최신으로 맞춥니다.
+     * 같은 key 로 이미 acquire 했으면 다시 읽지 않으며, 끝나면 release 를 호출해야 합니다.
+     *
+     * @param withContentHash content hash 도 필요한지 여부 (DELTA 모드), 처음이면 비우지 않고 전체를 다시 읽어 hash 를 채움
+     */
+    public Mono<Void> acquire(String key, boolean withContentHash) {
+        return refresher.acquire(key, full -> load(full, withContentHash));
+    }
+
+    public void release(String key) {
+        refresher.release(key);
+    }
+
+    /**
+     * 인덱스를 비우고 다음 acquire 에서 전체를 다시 읽게 합니다.
+     * bulk load 처럼 테이블을 비우고 id 를 새로 부여하면 이전 (isrc, title) → id 가 다른 song 을 가리키므로 반드시 호출해야 합니다.
+     */
+    public void invalidate() {
+        synchronized (this) {
+            ids.clear();
+            contentHashes.clear();
+            maxLoadedId = 0;
+            maxKnownId = 0;
+            aliases = 0;
+        }
+        refresher.invalidate();
+    }
+
+    private Mono<Void> load(boolean full, boolean withContentHash) {
+        if (full) return read(true, withContentHash);
+        long knownId;
+        long knownRows;
+        synchronized (this) {
+            knownId = maxKnownId;
+            knownRows = ids.size() - aliases;
+        }
+        return databaseClient.sql("""
+                        SELECT (SELECT COALESCE(MAX(id), 0) FROM song) AS max_id,
+                               (SELECT COUNT(*) FROM song WHERE id <= :knownId AND isrc IS NOT NULL AND title IS NOT NULL) AS rows_count
+                        """)
+                .bind("knownId", knownId)
+                .map((row, meta) -> knownRowsDeleted(row.get("max_id", Long.class), row.get("rows_count", Long.class),
+                        knownId, knownRows))
+                .one()
+                .flatMap(deleted -> read(deleted, withContentHash));
+    }
+
+    private boolean knownRowsDeleted(long maxId, long rows, long knownId, long knownRows) {
+        if (maxId >= knownId && rows >= knownRows) return false;
+        log.info("노래 fingerprint 인덱스가 아는 song 이 삭제되어 전체를 다시 읽습니다 : MAX(id) = {}, 인덱스 최대 id = {}, "
+                + "id {} 이하 song 수 = {}, 인덱스 song 수 = {}", maxId, knownId, knownId, rows, knownRows);
+        return true;
+    }
+
+    private Mono<Void> read(boolean full, boolean withContentHash) {
+        return Mono.defer(() -> {
+            long fromId;
+            synchronized (this) {
+                boolean loadHashes = withContentHash && !trackContentHash;
+                if (full) {
+                    ids.clear();
+                    contentHashes.clear();
+                    maxLoadedId = 0;
+                    maxKnownId = 0;
+                    aliases = 0;
+                }
+                if (withContentHash) trackContentHash = true;
+                fromId = full || loadHashes ? 0 : maxLoadedId;
+            }
+            long startTime = System.currentTimeMillis();
+            return databaseClient.sql("SELECT id, isrc, title, content_hash FROM song WHERE id > :fromId")
+                    .bind("fromId", fromId)
+                    .map((row, meta) -> Song.builder()
+                            .id(row.get("id", Long.class))
+                            .isrc(row.get("isrc", String.class))
+                            .title(row.get("title", String.class))
+                            .contentHash(row.get("content_hash", Long.class))
+                            .build())
+                    .all()
+                    .doOnNext(this::loaded)
+                    .count()
+                    .doOnNext(count -> log.info("노래 fingerprint 인덱스 {} 완료 : {} 건 읽음, size = {}, 메모리 = {}, 100만 건당 = {}, 소요 시간 = {}ms",
+                            fromId == 0 ? "전체 적재" : "추가 적재", count, size(), formatBytes(memoryBytes()),
+                            formatBytes(bytesPerMillion()), System.currentTimeMillis() - startTime))
+                    .then();
+        });
+    }
+
+    private synchronized void loaded(Song song) {
+        put(song.getIsrc(), song.getTitle(), song.getId(), song.getContentHash(), false);
+        maxLoadedId = Math.max(maxLoadedId, song.getId());
+    }
+
+    /**
+     * 인덱스에 있는 song id 만 반환합니다. 없으면 null.
+     */
+    public Long lookup(String isrc, String title) {
+        if (isrc == null || title == null) return null;
+        long id;
+        synchronized (this) {
+            id = ids.get(fingerprint(isrc, title), MISSING);
+        }
+        if (id == MISSING) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return id;
+    }
+
+    /**
+     * 인덱스에 있는 song 의 content hash 를 반환합니다. 없거나 DB 에 hash 가 없는 song 이면 null.
+     */
+    public Long contentHash(String isrc, String title) {
+        if (isrc == null || title == null) return null;
+        long hash;
+        synchronized (this) {
+            hash = contentHashes.get(fingerprint(isrc, title), MISSING);
+        }
+        return hash == MISSING ? null : hash;
+    }
+
+    public void register(String isrc, String title, Long id) {
+        register(isrc, title, id, null);
+    }
+
+    public void register(String isrc, String title, Long id, Long contentHash) {
+        put(isrc, title, id, contentHash, true);
+    }
+
+    /**
+     * @param mayAlias DB 에서 읽은 row 가 아니라 ingestion 중 등록하는 값인지 여부.
+     *                 이미 아는 id 이하의 새 key 는 collation 으로만 같은 기존 song 의 별칭일 수 있으므로 song 수에서 뺌
+     */
+    private void put(String isrc, String title, Long id, Long contentHash, boolean mayAlias) {
+        if (isrc == null || title == null || id == null) return;
+        long key = fingerprint(isrc, title);
+        synchronized (this) {
+            boolean present = ids.get(key, MISSING) != MISSING;
+            if (ids.size() < maxSize || present) {
+                if (mayAlias && !present && id <= maxKnownId) aliases++;
+                ids.put(key, id);
+                maxKnownId = Math.max(maxKnownId, id);
+                if (trackContentHash && contentHash != null) {
+                    contentHashes.put(key, contentHash);
+                }
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return ids.size();
+    }
+
+    public synchronized long memoryBytes() {
+        return ids.memoryBytes() + contentHashes.memoryBytes();
+    }
+
+    /**
+     * 현재 load 기준 100만 건당 메모리 사용량
+     */
+    public synchronized long bytesPerMillion() {
+        return ids.size() == 0 ? 0 : memoryBytes() * 1_000_000L / ids.size();
+    }
+
+    public void logStats() {
+        log.info("노래 fingerprint 인덱스 통계 : size = {}, 누적 hit(중복 skip) = {}, 누적 miss = {}, 메모리 = {}, 100만 건당 = {}",
+                size(), hits.get(), misses.get(), formatBytes(memoryBytes()), formatBytes(bytesPerMillion()));
+    }
+
+    /**
+     * (isrc, title) 의 64-bit fingerprint (FNV-1a 후 murmur3 fmix64 로 섞음)
+     */
+    static long fingerprint(String isrc, String title) {
+        long hash = 0xcbf29ce484222325L;
+        hash = mix(hash, isrc);
+        hash = (hash ^ 0xFFFF) * 0x100000001b3L; // isrc / title 구분자
+        hash = mix(hash, title);
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static long mix(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static String formatBytes(long bytes) {
+        return String.format("%.1fMB", bytes / (1024.0 * 1024.0));
+    }
+}
@@ -1,178 +1,958 @@
 package com.example.spotifyaggregator.service;
 
+import com.example.spotifyaggregator.dto.DeadLetterQueueResponse;
+import com.example.spotifyaggregator.dto.IngestionRecord;
+import com.example.spotifyaggregator.dto.IngestionRunResponse;
 import com.example.spotifyaggregator.dto.SongIngestionResult;
 import com.example.spotifyaggregator.dto.SongWithArtists;
 import com.example.spotifyaggregator.exception.ErrorCode;
 import com.example.spotifyaggregator.exception.SongIngestionException;
-import com.example.spotifyaggregator.repository.ArtistRepository;
 import com.example.spotifyaggregator.repository.SongArtistRepository;
 import com.example.spotifyaggregator.repository.SongRepository;
-import com.fasterxml.jackson.core.StreamReadFeature;
-import com.fasterxml.jackson.core.json.JsonReadFeature;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.spotifyaggregator.util.MappedNdjsonReader;
+import com.example.spotifyaggregator.util.NdjsonBufferSplitter;
+import com.example.spotifyaggregator.util.NdjsonShards;
+import com.example.spotifyaggregator.util.NdjsonStreamReader;
+import com.example.spotifyaggregator.util.SongContentHash;
+import com.example.spotifyaggregator.util.SongRowDecoder;
 import com.example.spotifyaggregator.domain.*;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.util.retry.Retry;
 
-import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.atomic.AtomicInteger;
-
-import static com.example.spotifyaggregator.util.DateUtil.parseReleaseDate;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class SongIngestionService {
 
+    private static final int LOG_LINE_PREFIX_BYTES = 64;
+
     private final SongRepository songRepository;
-    private final ArtistRepository artistRepository;
     private final SongArtistRepository songArtistRepository;
+    private final SongBatchWriter songBatchWriter;
+    private final SongBulkLoader songBulkLoader;
+    private final SongDeltaWriter songDeltaWriter;
+    private final ArtistDictionary artistDictionary;
+    private final SongFingerprintIndex songIndex;
+    private final IngestionCheckpointStore checkpointStore;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final DeadLetterQueue deadLetterQueue;
+    private final AlbumStatsMaintainer albumStatsMaintainer;
+    private final AlbumSketchStore albumSketchStore;
+    private final AlbumStatsCache albumStatsCache;
+    private final ColumnarAlbumStatsEngine columnarEngine;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
-
-    private static final int PARALLELISM = 10;
+    private final SongRowDecoder songRowDecoder = new SongRowDecoder();
+    private final Map<String, IngestionRun> activeRuns = new ConcurrentHashMap<>();
+    private final Disposable.Composite backgroundDlqRetries = Disposables.composite(); // 기다리지 않는 run 의 DLQ 재시도
 
     @Value("${ingestion.file.path}")
     private String filePath;
 
+    @Value("${ingestion.file.allowed-root:data}")
+    private String allowedRoot;
+
+    @Value("${ingestion.file.read-partitions:0}")
+    private int readPartitions;
+
+    @Value("${ingestion.file.shard-concurrency:4}")
+    private int shardConcurrency;
+
+    @Value("${ingestion.write.mode:per-row}")
+    private String defaultWriteMode;
+
+    @Value("${ingestion.batch.size:500}")
+    private int batchSize;
+
+    @Value("${ingestion.batch.flush-interval:200ms}")
+    private Duration batchFlushInterval;
+
+    @Value("${ingestion.checkpoint.interval:5s}")
+    private Duration checkpointInterval;
+
+    @Value("${ingestion.pipeline.read-prefetch:4096}")
+    private int readPrefetch;
+
+    @Value("${ingestion.pipeline.parse-chunk-size:256}")
+    private int parseChunkSize;
+
+    @Value("${ingestion.pipeline.parse-concurrency:0}")
+    private int parseConcurrency;
+
+    @Value("${ingestion.pipeline.write-prefetch:2048}")
+    private int writePrefetch;
+
+    @Value("${ingestion.file.max-line-size:1MB}")
+    private DataSize fileMaxLineSize;
+
+    @Value("${ingestion.upload.max-line-size:1MB}")
+    private DataSize uploadMaxLineSize;
+
+    @Value("${ingestion.dlq.replay-rate:100}")
+    private int dlqReplayRate;
+
+    @Value("${ingestion.dlq.replay-concurrency:4}")
+    private int dlqReplayConcurrency;
+
+    /**
+     * @param changed success 중 실제로 row / 연결을 쓴 건수 (0 이면 concurrencyLimiter 의 limit 조절에서 제외)
+     */
+    private record WriteOutcome(List<IngestionRecord> records, int success, int failure, int changed) {
+    }
+
+    /**
+     * 한 건 저장 결과
+     */
+    private enum RowResult {
+        CHANGED, UNCHANGED, FAILED
+    }
+
+    /**
+     * read 단계가 넘기는 파싱 전 한 줄 (offset 은 checkpoint 위치, 최대 크기를 넘어 버린 줄은 bytes 가 null)
+     */
+    private record RawLine(int partition, long offset, byte[] bytes) {
+
+        static RawLine tooLong(int partition, long offset) {
+            return new RawLine(partition, offset, null);
+        }
+
+        boolean isTooLong() {
+            return bytes == null;
+        }
+    }
+
+    public IngestionWriteMode defaultWriteMode() {
+        return IngestionWriteMode.from(defaultWriteMode);
+    }
+
     public Mono<SongIngestionResult> ingest() {
-        return ingestFromJsonFile(filePath);
+        return ingest(defaultWriteMode());
+    }
+
+    public Mono<SongIngestionResult> ingest(IngestionWriteMode mode) {
+        return ingestFromJsonFile(filePath, mode);
+    }
+
+    public Mono<SongIngestionResult> ingestFromJsonFile(String classpathResource) {
+        return ingestFromJsonFile(classpathResource, defaultWriteMode());
     }
 
     /**
      * 1) NDJSON 스트리밍 파싱
      * 2) 한 건씩 순차 처리(concurrency 조정)
      * 3) 중복 ISRC는 skip
-     * 4) 기타 에러는 DLQ 에 모아서 최대 2회 재시도 후 skip
+     * 4) 기타 에러는 DLQ(메모리 + spill 파일)에 모아서 수집 후 재시도, max-attempts 를 넘으면 skip
+     * BATCH 모드에서는 batchSize 건 또는 flushInterval 단위로 묶어 multi-row INSERT 로 저장합니다.
+     * DELTA 모드에서는 content hash 를 비교해 새 row 는 INSERT, 바뀐 row 는 UPDATE 하고 그대로인 row 는 쓰지 않습니다.
+     * 실행마다 run id 를 발급하고 주기적으로 checkpoint 를 남겨, 중단 시 resume(runId) 로 이어서 처리할 수 있습니다.
      */
-    public Mono<SongIngestionResult> ingestFromJsonFile(String classpathResource) {
-        AtomicInteger successCount = new AtomicInteger(0);
-        Queue<Song> failedSongs = new ConcurrentLinkedQueue<>(); // DLQ
-        objectMapper.enable(JsonReadFeature.ALLOW_NON_NUMERIC_NUMBERS.mappedFeature());
-        objectMapper.enable(StreamReadFeature.INCLUDE_SOURCE_IN_LOCATION.mappedFeature());
+    public Mono<SongIngestionResult> ingestFromJsonFile(String classpathResource, IngestionWriteMode mode) {
+        return createClasspathRun(newRunId(), classpathResource, mode)
+                .flatMap(run -> execute(run, false));
+    }
 
+    /**
+     * 파일 시스템의 NDJSON 파일(절대 경로)을 memory-map 으로 읽어 적재합니다.
+     * 파일을 줄 경계에 맞춘 readPartitions 개 range 로 나누고, range 별로 병렬 파싱합니다.
+     * 디렉터리, glob, gzip 파일이면 shard 입력으로 보고 shard 별로 스트리밍(압축 해제) 하며 최대 shardConcurrency 개를 동시에 읽습니다.
+     * 쓰기 동시성은 입력 종류와 관계없이 concurrencyLimiter 하나로 제한됩니다.
+     */
+    public Mono<SongIngestionResult> ingestFromFile(Path path, IngestionWriteMode mode) {
+        return createFileRun(newRunId(), path, mode)
+                .flatMap(run -> execute(run, false));
+    }
+
+    /**
+     * HTTP 요청 본문(NDJSON)을 받는 대로 파싱해 적재합니다. 입력 외에는 파일 적재와 같은 parse / write 파이프라인을 탑니다.
+     * 본문은 write 단계가 요청한 만큼만 읽으므로 DB 가 느리면 업로드도 함께 느려지고, 메모리에는 단계 사이 버퍼만큼만 쌓입니다.
+     * offset 은 줄 번호이며, 본문은 다시 읽을 수 없으므로 resume 대상이 아닙니다.
+     */
+    public Mono<SongIngestionResult> ingestUpload(Flux<DataBuffer> body, IngestionWriteMode mode) {
+        return Mono.defer(() -> {
+            IngestionRun run = IngestionRun.start(newRunId(), IngestionRun.UPLOAD_SOURCE, mode,
+                    List.of(new IngestionRun.Partition(0, 0, -1)));
+            return checkpointStore.create(run)
+                    .then(execute(run, readUpload(body), false));
+        });
+    }
+
+    /**
+     * 주어진 run id 로 실행합니다. path 가 null 이면 설정된 classpath 파일을 읽습니다.
+     * 비동기 job 에서 사용하며, DLQ 재시도까지 끝난 뒤 완료됩니다.
+     */
+    public Mono<SongIngestionResult> startRun(String runId, String path, IngestionWriteMode mode) {
+        Mono<IngestionRun> run = path == null
+                ? createClasspathRun(runId, filePath, mode)
+                : createFileRun(runId, Path.of(path), mode);
+        return run.flatMap(created -> execute(created, true));
+    }
+
+    /**
+     * 실행 중인 run 의 진행 상태 (완료 후에는 empty)
+     */
+    public Optional<IngestionRun> findActiveRun(String runId) {
+        return Optional.ofNullable(activeRuns.get(runId));
+    }
+
+    private Mono<IngestionRun> createClasspathRun(String runId, String classpathResource, IngestionWriteMode mode) {
+        IngestionRun run = IngestionRun.start(runId, IngestionRun.CLASSPATH_PREFIX + classpathResource, mode,
+                List.of(new IngestionRun.Partition(0, 0, -1)));
+        return checkpointStore.create(run).thenReturn(run);
+    }
+
+    private Mono<IngestionRun> createFileRun(String runId, Path path, IngestionWriteMode mode) {
+        int partitions = readPartitions > 0 ? readPartitions : Runtime.getRuntime().availableProcessors();
+        return createFileRun(runId, path, mode, partitions);
+    }
+
+    private Mono<IngestionRun> createFileRun(String runId, Path requested, IngestionWriteMode mode, int partitions) {
+        if (!requested.isAbsolute()) {
+            return Mono.error(new SongIngestionException(ErrorCode.INGESTION_FILE_NOT_FOUND));
+        }
+        return Mono.fromCallable(() -> allowedPath(requested))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(path -> {
+                    if (NdjsonShards.isShardSource(path.toString())) {
+                        return createShardRun(runId, path.toString(), mode);
+                    }
+                    if (!Files.isRegularFile(path)) {
+                        return Mono.error(new SongIngestionException(ErrorCode.INGESTION_FILE_NOT_FOUND));
+                    }
+                    return Mono.fromCallable(() -> MappedNdjsonReader.split(path, partitions))
+                            .onErrorMap(IOException.class, e -> new SongIngestionException(ErrorCode.SONG_INGESTION_ERROR))
+                            .map(ranges -> IngestionRun.start(runId, IngestionRun.FILE_PREFIX + path, mode,
+                                    ranges.stream()
+                                            .map(r -> new IngestionRun.Partition(r.index(), r.start(), r.end()))
+                                            .toList()))
+                            .flatMap(run -> checkpointStore.create(run).thenReturn(run));
+                });
+    }
+
+    /**
+     * 파일 시스템 입력은 ingestion.file.allowed-root 아래만 허용합니다.
+     * '..' 와 symlink 를 풀어 정규화한 경로로 검사하며, glob 처럼 실제 파일이 아닌 경로는 '..' 만 정리한 뒤 검사합니다.
+     *
+     * @return 정규화한 경로
+     */
+    private Path allowedPath(Path path) {
+        Path root = realPath(Path.of(allowedRoot));
+        Path normalized = realPath(path);
+        if (!normalized.startsWith(root)) {
+            log.warn("허용되지 않은 수집 경로 요청 : {}", path);
+            throw new SongIngestionException(ErrorCode.INGESTION_PATH_NOT_ALLOWED);
+        }
+        return normalized;
+    }
+
+    private static Path realPath(Path path) {
+        Path normalized = path.toAbsolutePath().normalize();
+        try {
+            return normalized.toRealPath();
+        } catch (IOException | InvalidPathException e) {
+            return normalized;
+        }
+    }
+
+    /**
+     * shard 하나를 partition 하나로 등록합니다. offset 은 classpath 입력과 같이 줄 번호입니다.
+     */
+    private Mono<IngestionRun> createShardRun(String runId, String location, IngestionWriteMode mode) {
+        return resolveShards(location)
+                .flatMap(shards -> {
+                    List<IngestionRun.Partition> partitions = new ArrayList<>(shards.size());
+                    for (int i = 0; i < shards.size(); i++) {
+                        partitions.add(new IngestionRun.Partition(i, 0, -1));
+                    }
+                    IngestionRun run = IngestionRun.start(runId, IngestionRun.SHARDS_PREFIX + location, mode, partitions);
+                    run.attachShards(shards);
+                    log.info("shard 입력 : run = {}, {} 개 shard", runId, shards.size());
+                    return checkpointStore.create(run).thenReturn(run);
+                });
+    }
+
+    /**
+     * shard 목록을 정렬된 순서로 찾고, 모두 열 수 있는 형식인지 미리 확인합니다.
+     */
+    private Mono<List<Path>> resolveShards(String location) {
+        return Mono.fromCallable(() -> {
+                    List<Path> shards = NdjsonShards.resolve(location);
+                    for (Path shard : shards) {
+                        // 디렉터리 안의 symlink 로 허용 경로 밖을 가리키는 shard 도 막음
+                        allowedPath(shard);
+                        NdjsonShards.open(shard).close();
+                    }
+                    return shards;
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorMap(NdjsonShards.UnsupportedCompressionException.class,
+                        e -> new SongIngestionException(ErrorCode.INGESTION_UNSUPPORTED_COMPRESSION))
+                .onErrorMap(IOException.class, e -> new SongIngestionException(ErrorCode.SONG_INGESTION_ERROR))
+                .filter(shards -> !shards.isEmpty())
+                .switchIfEmpty(Mono.error(new SongIngestionException(ErrorCode.INGESTION_FILE_NOT_FOUND)));
+    }
+
+    /**
+     * 중단된 실행을 마지막 checkpoint 부터 이어서 처리합니다.
+     * shard 입력은 shard 목록을 다시 찾아 partition 수가 같을 때만 이어서 처리합니다.
+     */
+    public Mono<SongIngestionResult> resume(String runId) {
+        return checkpointStore.find(runId)
+                .switchIfEmpty(Mono.error(new SongIngestionException(ErrorCode.INGESTION_RUN_NOT_FOUND)))
+                .flatMap(status -> {
+                    if (IngestionRunState.COMPLETED.name().equals(status.status())) {
+                        return Mono.error(new SongIngestionException(ErrorCode.INGESTION_RUN_ALREADY_COMPLETED));
+                    }
+                    if (status.source().startsWith(IngestionRun.UPLOAD_SOURCE)) {
+                        return Mono.error(new SongIngestionException(ErrorCode.INGESTION_UPLOAD_NOT_RESUMABLE));
+                    }
+                    return checkpointStore.load(runId);
+                })
+                .flatMap(this::restoreShards)
+                .flatMap(run -> execute(run, false));
+    }
+
+    private Mono<IngestionRun> restoreShards(IngestionRun run) {
+        if (!run.isShardSource()) return Mono.just(run);
+        return resolveShards(run.sourceLocation())
+                .flatMap(shards -> {
+                    if (shards.size() != run.getPartitions().size()) {
+                        return Mono.error(new SongIngestionException(ErrorCode.INGESTION_SHARDS_CHANGED));
+                    }
+                    run.attachShards(shards);
+                    return Mono.just(run);
+                });
+    }
+
+    /**
+     * 분산 ingestion 용 run 을 만듭니다. 파일은 partitions 개 byte range 로, shard 입력은 shard 하나를 partition 하나로 나눕니다.
+     * path 가 null 이면 설정된 classpath 파일 (partition 1 개) 을 사용합니다. 실행은 각 인스턴스가 ingestPartition 으로 나눠 맡습니다.
+     */
+    public Mono<IngestionRun> createDistributedRun(String path, IngestionWriteMode mode, int partitions) {
+        if (mode == IngestionWriteMode.BULK_LOAD) {
+            return Mono.error(new SongIngestionException(ErrorCode.INGESTION_DISTRIBUTED_MODE_NOT_SUPPORTED));
+        }
+        return path == null
+                ? createClasspathRun(newRunId(), filePath, mode)
+                : createFileRun(newRunId(), Path.of(path), mode, partitions);
+    }
+
+    /**
+     * run 의 partition 하나를 마지막 checkpoint 부터 처리합니다. (분산 ingestion 에서 lease 를 얻은 인스턴스가 호출)
+     * checkpoint 는 해당 partition 의 offset 과 늘어난 건수만 반영하며, run 전체 완료 처리는 호출 측에서 합니다.
+     */
+    public Mono<SongIngestionResult> ingestPartition(String runId, int partition) {
+        return checkpointStore.load(runId)
+                .switchIfEmpty(Mono.error(new SongIngestionException(ErrorCode.INGESTION_RUN_NOT_FOUND)))
+                .flatMap(this::restoreShards)
+                .flatMap(run -> execute(run.forPartition(partition), false));
+    }
+
+    public Mono<IngestionRunResponse> getRun(String runId) {
+        return checkpointStore.find(runId)
+                .switchIfEmpty(Mono.error(new SongIngestionException(ErrorCode.INGESTION_RUN_NOT_FOUND)));
+    }
+
+    public Flux<IngestionRunResponse> getRuns() {
+        return checkpointStore.findAll();
+    }
+
+    private Mono<SongIngestionResult> execute(IngestionRun run, boolean awaitDlqRetry) {
+        return Mono.defer(() -> {
+            Flux<RawLine> lines;
+            if (run.isClasspathSource()) {
+                lines = readClasspath(run.sourceLocation(), run.committedOffset(0));
+            } else if (run.isShardSource()) {
+                lines = readShards(run);
+            } else {
+                lines = readMappedFile(run);
+            }
+            return execute(run, lines, awaitDlqRetry);
+        });
+    }
+
+    private Mono<SongIngestionResult> execute(IngestionRun run, Flux<RawLine> lines, boolean awaitDlqRetry) {
+        return Mono.defer(() -> {
+            if (activeRuns.putIfAbsent(run.key(), run) != null) {
+                return Mono.error(new SongIngestionException(ErrorCode.INGESTION_RUN_IN_PROGRESS));
+            }
+            log.info("Spotify Songs 메타 데이터에 대해 저장 배치 시작합니다. run = {}, source : {}, mode : {}",
+                    run.getRunId(), run.getSource(), run.getMode());
+
+            Mono<SongIngestionResult> result = run.getMode() == IngestionWriteMode.BULK_LOAD
+                    ? bulkLoad(run, parse(run, lines))
+                    : ingestRecords(run, parse(run, lines), awaitDlqRetry);
+            return result
+                    .doFinally(signal -> {
+                        activeRuns.remove(run.key());
+                        // 실패 / 취소여도 일부 row 는 반영되었을 수 있으므로 항상 캐시된 통계를 무효화
+                        albumStatsCache.invalidate();
+                        columnarEngine.markStale();
+                    });
+        });
+    }
+
+    private Mono<SongIngestionResult> ingestRecords(IngestionRun run, Flux<IngestionRecord> records,
+                                                    boolean awaitDlqRetry) {
         long startTime = System.currentTimeMillis();
-        log.info("Spotify Songs 메타 데이터에 대해 저장 배치 시작합니다. Raw data classpath : {}", classpathResource);
-        return Flux.using(
-                        () -> new BufferedReader(new InputStreamReader(
-                                new ClassPathResource(classpathResource).getInputStream())),
-                        reader -> Flux.fromStream(reader.lines()),
-                        reader -> {
+
+        // parse → write 사이 버퍼 (write 단계가 밀리면 parse 도 멈춤)
+        Flux<IngestionRecord> parsed = records.limitRate(writePrefetch);
+        // 실제 동시 쓰기 수는 concurrencyLimiter 가 지연/실패율에 따라 min ~ max 사이에서 조절
+        int maxConcurrency = concurrencyLimiter.getMaxLimit();
+        Flux<WriteOutcome> written = run.getMode() == IngestionWriteMode.BATCH
+                ? parsed.bufferTimeout(batchSize, batchFlushInterval)
+                        .flatMapSequential(batch -> concurrencyLimiter.run(
+                                saveBatch(batch, run),
+                                outcome -> outcome.failure() > 0,
+                                outcome -> outcome.changed() == 0), maxConcurrency)
+                : parsed.flatMapSequential(record -> concurrencyLimiter.run(
+                                saveSongAndArtists(record.row(), run),
+                                saved -> saved == RowResult.FAILED,
+                                saved -> saved == RowResult.UNCHANGED)
+                                .map(saved -> new WriteOutcome(List.of(record),
+                                        saved == RowResult.FAILED ? 0 : 1,
+                                        saved == RowResult.FAILED ? 1 : 0,
+                                        saved == RowResult.CHANGED ? 1 : 0)),
+                        maxConcurrency);
+
+        // 분산 run 의 partition 들은 같은 run id 로 acquire 하므로 인스턴스당 run 마다 한 번만 추가 적재
+        return Mono.when(artistDictionary.acquire(run.getRunId()),
+                        songIndex.acquire(run.getRunId(), run.getMode() == IngestionWriteMode.DELTA))
+                .doOnSubscribe(subscription -> concurrencyLimiter.runStarted())
+                .thenMany(written)
+                .concatMap(outcome -> {
+                    run.record(outcome.records(), outcome.success(), outcome.failure());
+                    return run.checkpointDue(checkpointInterval)
+                            ? checkpointStore.save(run, IngestionRunState.RUNNING).thenReturn(outcome)
+                            : Mono.just(outcome);
+                })
+                .then(Mono.defer(() -> checkpointStore.save(run, IngestionRunState.COMPLETED)))
+                .onErrorResume(ex -> {
+                    log.error("데이터 수집이 중단되었습니다 : run = {}, 마지막 checkpoint 부터 재개할 수 있습니다.", run.getRunId(), ex);
+                    return checkpointStore.save(run, IngestionRunState.FAILED).then(Mono.error(ex));
+                })
+                .doOnCancel(() -> {
+                    log.info("데이터 수집이 취소되었습니다 : run = {}, 마지막 checkpoint 부터 재개할 수 있습니다.", run.getRunId());
+                    checkpointStore.save(run, IngestionRunState.CANCELLED).subscribe();
+                })
+                .doFinally(signal -> {
+                    artistDictionary.release(run.getRunId());
+                    songIndex.release(run.getRunId());
+                    concurrencyLimiter.runFinished();
+                })
+                .then(Mono.fromSupplier(() -> {
+                    long elapsed = System.currentTimeMillis() - startTime;
+                    SongIngestionResult result = SongIngestionResult.of(run.getRunId(),
+                            (int) run.getSuccessCount().get(), (int) run.getFailureCount().get(),
+                            run.processedThisRun(), elapsed)
+                            .withDelta(run.delta())
+                            .withShards(run.shardResults());
+                    log.info("데이터 수집이 완료되었습니다 : run = {}, mode = {}, 성공 row(s) = {}, 실패 row(s) = {}, 소요 시간 = {}ms, " +
+                                    "처리량 = {} rows/s, 실패 건에 대해 등록 재시도를 시작하겠습니다.",
+                            run.getRunId(), run.getMode(), result.successCount(), result.failureCount(), elapsed,
+                            String.format("%.1f", result.rowsPerSecond()));
+
+                    log.info("단계별 처리 현황 : run = {}, stages = {}, 파싱 실패 row(s) = {}",
+                            run.getRunId(), run.stages(), run.getParseErrorCount().get());
+                    if (result.delta() != null) {
+                        log.info("delta 처리 현황 : run = {}, new = {}, changed = {}, unchanged = {}", run.getRunId(),
+                                result.delta().newRows(), result.delta().changedRows(), result.delta().unchangedRows());
+                    }
+                    artistDictionary.logStats();
+                    songIndex.logStats();
+                    return result;
+                }))
+                .flatMap(result -> {
+                    Mono<Void> dlqRetry = retryFromDlq(run);
+                    if (awaitDlqRetry) {
+                        return dlqRetry.thenReturn(result);
+                    }
+                    retryInBackground(dlqRetry); // DLQ 실행 비동기로 진행
+                    return Mono.just(result);
+                });
+    }
+
+    /**
+     * 끝나면 목록에서 빠지고, 종료 시(@PreDestroy) 아직 진행 중이면 취소됩니다. (취소된 row 는 DLQ 에 남아 다음 replay 대상)
+     */
+    private void retryInBackground(Mono<Void> dlqRetry) {
+        Disposable.Swap retry = Disposables.swap();
+        backgroundDlqRetries.add(retry);
+        retry.update(dlqRetry
+                .doFinally(signal -> backgroundDlqRetries.remove(retry))
+                .subscribe());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (backgroundDlqRetries.size() > 0) {
+            log.info("종료 전 진행 중인 DLQ 재시도를 취소합니다 : {} 건", backgroundDlqRetries.size());
+        }
+        backgroundDlqRetries.dispose();
+    }
+
+    /**
+     * BULK_LOAD 모드 : 파싱된 row 를 CSV 로 staging 한 뒤 DB 의 bulk loader 로 한 번에 적재합니다.
+     * 적재가 끝나야 반영되므로 중간 checkpoint 는 남기지 않고, 완료 시에만 offset 을 기록합니다.
+     * id 를 1 부터 새로 부여하므로 (실패해 일부만 적재된 경우도) 끝나면 노래 인덱스 / 아티스트 사전을 비워 다음 run 이 전체를 다시 읽게 합니다.
+     */
+    private Mono<SongIngestionResult> bulkLoad(IngestionRun run, Flux<IngestionRecord> records) {
+        long startTime = System.currentTimeMillis();
+        return songBulkLoader.load(run, records)
+                .doFinally(signal -> {
+                    songIndex.invalidate();
+                    artistDictionary.invalidate();
+                })
+                .flatMap(loaded -> {
+                    run.record(loaded.lastRecords(), (int) loaded.rows(), 0);
+                    run.getDuplicateCount().addAndGet(loaded.duplicates());
+                    Mono<Void> albumStats = albumStatsMaintainer.isEnabled()
+                            ? albumStatsMaintainer.recomputeAll()
+                            : Mono.empty();
+                    Mono<Void> albumSketches = albumSketchStore.isEnabled()
+                            ? albumSketchStore.rebuild().then()
+                            : Mono.empty();
+                    return albumStats
+                            .then(albumSketches)
+                            .then(checkpointStore.save(run, IngestionRunState.COMPLETED))
+                            .thenReturn(loaded);
+                })
+                .onErrorResume(ex -> {
+                    log.error("bulk load 가 중단되었습니다 : run = {}", run.getRunId(), ex);
+                    return checkpointStore.save(run, IngestionRunState.FAILED).then(Mono.error(ex));
+                })
+                .map(loaded -> {
+                    long elapsed = System.currentTimeMillis() - startTime;
+                    SongIngestionResult result = SongIngestionResult.of(run.getRunId(),
+                            (int) run.getSuccessCount().get(), (int) run.getFailureCount().get(),
+                            run.processedThisRun(), elapsed)
+                            .withShards(run.shardResults())
+                            .withIndexRebuildMillis(loaded.indexRebuildMillis());
+                    log.info("bulk load 가 완료되었습니다 : run = {}, row(s) = {}, song = {}, artist = {}, song_artist = {}, " +
+                                    "staging = {}ms, load = {}ms, index 재생성 = {}ms, 처리량 = {} rows/s",
+                            run.getRunId(), loaded.rows(), loaded.songs(), loaded.artists(), loaded.songArtists(),
+                            loaded.stagingMillis(), loaded.loadMillis(),
+                            loaded.indexRebuildMillis() == null ? "-" : loaded.indexRebuildMillis(),
+                            String.format("%.1f", result.rowsPerSecond()));
+                    return result;
+                });
+    }
+
+    /**
+     * parse 단계 : read 단계의 줄을 parseChunkSize 개씩 묶어 parallel scheduler 에서 파싱합니다.
+     * flatMapSequential 로 입력 순서를 유지하므로 checkpoint offset 계산은 그대로 유효합니다.
+     */
+    private Flux<IngestionRecord> parse(IngestionRun run, Flux<RawLine> lines) {
+        int concurrency = parseConcurrency > 0 ? parseConcurrency : Runtime.getRuntime().availableProcessors();
+        return lines
+                .doOnNext(line -> run.markRead(line.partition()))
+                .limitRate(readPrefetch) // read → parse 사이 버퍼
+                .buffer(parseChunkSize)
+                .flatMapSequential(chunk -> Mono.fromCallable(() -> parseChunk(run, chunk))
+                                .subscribeOn(Schedulers.parallel()),
+                        concurrency, 1)
+                .flatMapIterable(records -> records);
+    }
+
+    /**
+     * 파싱에 실패한 줄은 로그를 남기고 건너뜁니다.
+     */
+    private List<IngestionRecord> parseChunk(IngestionRun run, List<RawLine> chunk) {
+        List<IngestionRecord> records = new ArrayList<>(chunk.size());
+        for (RawLine line : chunk) {
+            if (line.isTooLong()) {
+                run.markParseError(line.partition());
+                log.error("파싱 에러 라인 : partition = {}, offset = {}, error: 한 줄 최대 크기({}) 초과", line.partition(),
+                        line.offset(), fileMaxLineSize);
+                continue;
+            }
+            try {
+                SongWithArtists row = songRowDecoder.decode(line.bytes(), 0, line.bytes().length);
+                row.song().setContentHash(SongContentHash.of(row));
+                records.add(new IngestionRecord(line.partition(), line.offset(), row));
+            } catch (Exception e) {
+                run.markParseError(line.partition());
+                log.error("파싱 에러 라인 : partition = {}, offset = {}, line : {}, error: {}", line.partition(), line.offset(),
+                        linePreview(line.bytes()), e.getMessage());
+            }
+        }
+        run.getParsedCount().addAndGet(records.size());
+        return records;
+    }
+
+    /**
+     * 로그에는 줄 앞부분 LOG_LINE_PREFIX_BYTES 만 남깁니다. (입력 내용이 로그로 그대로 새지 않도록)
+     */
+    private static String linePreview(byte[] bytes) {
+        if (bytes.length <= LOG_LINE_PREFIX_BYTES) return new String(bytes, StandardCharsets.UTF_8);
+        return new String(bytes, 0, LOG_LINE_PREFIX_BYTES, StandardCharsets.UTF_8) + "... (" + bytes.length + " bytes)";
+    }
+
+    /**
+     * read 단계 (classpath) : NDJSON 을 줄 단위 byte[] 로 읽습니다. skipLines 만큼의 줄은 넘기지 않고 건너뜁니다.
+     * offset 은 1 부터 시작하는 줄 번호입니다.
+     */
+    private Flux<RawLine> readClasspath(String classpathResource, long skipLines) {
+        return readStream(0, classpathResource,
+                () -> new ClassPathResource(classpathResource).getInputStream(), skipLines);
+    }
+
+    /**
+     * read 단계 (shard) : shard 별로 스트리밍(gzip 은 압축 해제) 하며 최대 shardConcurrency 개를 동시에 읽습니다.
+     * 각 shard 는 committed 줄 번호 다음 줄부터 넘깁니다.
+     */
+    private Flux<RawLine> readShards(IngestionRun run) {
+        int concurrency = Math.max(1, Math.min(shardConcurrency, run.activePartitions().size()));
+        return Flux.fromIterable(run.activePartitions())
+                .flatMap(partition -> {
+                    Path shard = run.getShards().get(partition.index());
+                    return readStream(partition.index(), shard.toString(), () -> NdjsonShards.open(shard),
+                            run.committedOffset(partition.index()));
+                }, concurrency);
+    }
+
+    /**
+     * read 단계 (업로드) : 요청 본문의 DataBuffer 를 하나씩 받아 줄로 나눕니다. (prefetch 1)
+     * 다음 DataBuffer 는 이전 buffer 의 줄이 parse 단계로 넘어간 뒤에 요청하므로, 뒤 단계가 밀리면 소켓 읽기도 멈춥니다.
+     */
+    private Flux<RawLine> readUpload(Flux<DataBuffer> body) {
+        return Flux.defer(() -> {
+            NdjsonBufferSplitter splitter = new NdjsonBufferSplitter((int) uploadMaxLineSize.toBytes());
+            return body
+                    .concatMapIterable(buffer -> {
+                        List<RawLine> lines = new ArrayList<>();
+                        splitter.split(buffer, (number, bytes) -> lines.add(new RawLine(0, number, bytes)));
+                        return lines;
+                    }, 1)
+                    .concatWith(Flux.defer(() -> {
+                        List<RawLine> last = new ArrayList<>(1);
+                        splitter.finish((number, bytes) -> last.add(new RawLine(0, number, bytes)));
+                        return Flux.fromIterable(last);
+                    }))
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                    .onErrorMap(NdjsonBufferSplitter.LineTooLongException.class, e -> {
+                        log.warn("업로드 중단 : {}", e.getMessage());
+                        return new SongIngestionException(ErrorCode.INGESTION_UPLOAD_LINE_TOO_LONG);
+                    });
+        });
+    }
+
+    private Flux<RawLine> readStream(int partition, String source, Callable<InputStream> opener, long skipLines) {
+        return Flux.<RawLine, NdjsonStreamReader>generate(
+                        () -> new NdjsonStreamReader(opener.call(), (int) fileMaxLineSize.toBytes()),
+                        (reader, sink) -> {
                             try {
-                                reader.close();
+                                int length;
+                                while ((length = reader.next()) != NdjsonStreamReader.EOF) {
+                                    if (reader.lineNumber() <= skipLines) continue;
+                                    sink.next(length == NdjsonStreamReader.LINE_TOO_LONG
+                                            ? RawLine.tooLong(partition, reader.lineNumber())
+                                            : new RawLine(partition, reader.lineNumber(), Arrays.copyOf(reader.line(), length)));
+                                    return reader;
+                                }
+                                sink.complete();
                             } catch (IOException e) {
-                                throw new SongIngestionException(ErrorCode.SONG_INGESTION_ERROR);
+                                log.error("파일 읽기 실패 : {}", source, e);
+                                sink.error(new SongIngestionException(ErrorCode.SONG_INGESTION_ERROR));
                             }
+                            return reader;
+                        },
+                        reader -> closeQuietly(reader, source))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * read 단계 (파일) : partition(byte range) 별로 병렬로 읽습니다. 각 partition 은 committed offset 부터 이어 읽습니다.
+     */
+    private Flux<RawLine> readMappedFile(IngestionRun run) {
+        Path path = Path.of(run.sourceLocation());
+        return Flux.fromIterable(run.activePartitions())
+                .flatMap(partition -> readRange(path,
+                                        new MappedNdjsonReader.ByteRange(partition.index(), partition.start(), partition.end()),
+                                        run.committedOffset(partition.index()))
+                                .subscribeOn(Schedulers.boundedElastic()),
+                        Math.max(1, run.activePartitions().size()));
+    }
+
+    /**
+     * range 하나를 순차적으로 읽습니다. offset 은 해당 줄 다음의 파일 offset 입니다.
+     */
+    private Flux<RawLine> readRange(Path path, MappedNdjsonReader.ByteRange range, long from) {
+        return Flux.generate(
+                () -> MappedNdjsonReader.open(path, range, from),
+                (cursor, sink) -> {
+                    try {
+                        int length = cursor.next();
+                        if (length >= 0) {
+                            sink.next(new RawLine(range.index(), cursor.position(), Arrays.copyOf(cursor.line(), length)));
+                        } else {
+                            sink.complete();
                         }
-                )
-                .flatMap(line ->
-                        Mono.fromCallable(() -> objectMapper.readTree(line))
-                                .map(this::mapJsonToSongWithArtists)
-                                .onErrorResume(e -> {
-                                    log.error("파싱 에러 라인 : {}, error: {}", line, e.getMessage());
-                                    return Mono.empty();
-                                })
-                )
-                .flatMapSequential(swa ->
-                        saveSongAndArtists(swa, failedSongs)
-                                .doOnSuccess(v -> successCount.incrementAndGet()),
-                        PARALLELISM
-                )
-                .collectList()
-                .map(savedList -> {
-                    int success = successCount.get();
-                    int failure = failedSongs.size();
-                    log.info("데이터 수집이 완료되었습니다 : 성공 row(s) = {}, 실패 row(s) = {}, 소요 시간 = {}ms, " +
-                                    "실패 건에 대해 등록 재시도를 시작하겠습니다.",
-                            success, failure, System.currentTimeMillis() - startTime);
-
-                    retryFromDlq(failedSongs); // DLQ 실행 비동기로 진행
-                    return new SongIngestionResult(success, failure);
-                });
+                    } catch (IOException e) {
+                        log.error("파일 읽기 실패 : {}, range = {}", path, range, e);
+                        sink.error(new SongIngestionException(ErrorCode.SONG_INGESTION_ERROR));
+                    }
+                    return cursor;
+                },
+                cursor -> closeQuietly(cursor, path.toString())
+        );
     }
 
-    private Mono<Void> saveSongAndArtists(SongWithArtists swa, Queue<Song> failedSongs) {
-        return songRepository.save(swa.song())
-                .onErrorResume(DuplicateKeyException.class, ex -> {
-                    log.debug("노래 중복 발생 Skip 처리 : {} - {}", swa.song().getIsrc(), swa.song().getTitle());
-                    return songRepository.findByIsrcAndTitle(swa.song().getIsrc(), swa.song().getTitle());
+    private static void closeQuietly(Closeable closeable, String source) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            log.warn("파일 닫기 실패 : {}", source);
+        }
+    }
+
+    /**
+     * batch 단위 multi-row INSERT 후, id 를 확정하지 못한 row 와 batch 전체 실패 시에는 단건 경로로 fallback 합니다.
+     */
+    private Mono<WriteOutcome> saveBatch(List<IngestionRecord> batch, IngestionRun run) {
+        List<SongWithArtists> rows = batch.stream().map(IngestionRecord::row).toList();
+        return songBatchWriter.write(rows)
+                .doOnNext(result -> {
+                    run.getDuplicateCount().addAndGet(result.duplicates());
+                    result.changed().forEach(albumStatsMaintainer::touch);
+                    result.changed().forEach(albumSketchStore::add);
                 })
-                .flatMap(savedSong ->
-                        Flux.fromIterable(swa.artists())
-                                .flatMap(name ->
-                                        artistRepository.save(Artist.builder().name(name).build())
-                                                .onErrorResume(DuplicateKeyException.class, ex -> {
-                                                    log.debug("아티스트 중복 Skip 처리 : {}", name);
-                                                    return artistRepository.findByName(name);
-                                                })
-                                )
-                                .flatMap(artist ->
-                                        songArtistRepository.save(SongArtist.builder()
-                                                        .songId(savedSong.getId())
-                                                        .artistId(artist.getId())
-                                                        .build())
-                                                .onErrorResume(DuplicateKeyException.class, ex -> {
-                                                    log.debug("최종 등록 리소스 중복 Skip 처리 : song={}, artist={}",
-                                                            savedSong.getId(), artist.getId());
-                                                    return Mono.empty();
-                                                })
-                                )
-                                .then()
-                )
+                .flatMapMany(result -> Flux.concat(
+                        Flux.fromIterable(Collections.nCopies(result.changed().size(), RowResult.CHANGED)),
+                        Flux.fromIterable(Collections.nCopies(result.written() - result.changed().size(), RowResult.UNCHANGED)),
+                        Flux.fromIterable(result.unresolved())
+                                .concatMap(swa -> saveSongAndArtists(swa, run))
+                ))
+                .onErrorResume(ex -> {
+                    log.warn("batch 저장 실패, 단건 저장으로 전환합니다 : size = {}, error Msg : {}", batch.size(), ex.toString());
+                    return Flux.fromIterable(rows)
+                            .concatMap(swa -> saveSongAndArtists(swa, run));
+                })
+                .reduceWith(() -> new int[RowResult.values().length], (counts, saved) -> {
+                    counts[saved.ordinal()]++;
+                    return counts;
+                })
+                .map(counts -> new WriteOutcome(batch,
+                        counts[RowResult.CHANGED.ordinal()] + counts[RowResult.UNCHANGED.ordinal()],
+                        counts[RowResult.FAILED.ordinal()],
+                        counts[RowResult.CHANGED.ordinal()]));
+    }
+
+    /**
+     * @return 저장 시 CHANGED, 그대로인 row / 중복 skip 시 UNCHANGED, DLQ 적재 시 FAILED
+     */
+    private Mono<RowResult> saveSongAndArtists(SongWithArtists swa, IngestionRun run) {
+        return write(swa, run)
+                .map(changed -> changed ? RowResult.CHANGED : RowResult.UNCHANGED)
+                .defaultIfEmpty(RowResult.UNCHANGED)
                 .onErrorResume(ex -> {
                     log.warn("중복 실패 : {}, error Msg : {}", swa.song().getIsrc(), ex.toString());
-                    failedSongs.add(swa.song());
-                    return Mono.empty();
+                    deadLetterQueue.add(swa);
+                    return Mono.just(RowResult.FAILED);
                 });
     }
 
-    private SongWithArtists mapJsonToSongWithArtists(JsonNode node) {
-        Song song = Song.builder()
-                .isrc(node.path("ISRC").asText())
-                .title(node.path("song").asText())
-                .album(node.path("Album").asText())
-                .releaseDate(parseReleaseDate(node.path("Release Date").asText()))
-                .releaseYear(parseReleaseDate(node.path("Release Date").asText()).getYear())
-                .genre(node.path("Genre").asText())
-                .explicit("Yes".equalsIgnoreCase(node.path("Explicit").asText()))
-                .popularity(node.path("Popularity").asInt())
-                .build();
+    /**
+     * @return row 나 연결을 실제로 썼으면 true
+     */
+    private Mono<Boolean> write(SongWithArtists swa, IngestionRun run) {
+        Mono<Boolean> written = run.getMode() == IngestionWriteMode.DELTA
+                ? writeDelta(swa, run)
+                : writeSongAndArtists(swa, run);
+        return written
+                .doOnNext(changed -> {
+                    // 그대로인 row, 연결까지 이미 있는 중복은 통계가 바뀌지 않으므로 dirty 로 표시하지 않음
+                    if (!changed) return;
+                    albumStatsMaintainer.touch(swa);
+                    albumSketchStore.add(swa);
+                });
+    }
 
-        List<String> artistNames = Arrays.stream(node.path("Artist(s)").asText().split("[;,]"))
-                .map(String::trim)
-                .filter(name -> !name.isEmpty())
-                .distinct()
-                .toList();
+    /**
+     * 노래와 아티스트 연결을 저장합니다. 중복은 skip 하고, 그 외 에러는 그대로 전달합니다.
+     * 인덱스(SongFingerprintIndex)에 있는 노래는 INSERT 없이 기존 id 로 아티스트만 연결합니다.
+     *
+     * @return 노래를 새로 INSERT 했거나 새 연결이 생겼으면 true
+     */
+    private Mono<Boolean> writeSongAndArtists(SongWithArtists swa, IngestionRun run) {
+        return Mono.defer(() -> {
+            Song song = swa.song();
+            Long knownId = songIndex.lookup(song.getIsrc(), song.getTitle());
+            if (knownId != null) {
+                run.getDuplicateCount().incrementAndGet();
+                return linkArtists(knownId, swa.artists());
+            }
+            return songRepository.save(song)
+                    .flatMap(saved -> {
+                        songIndex.register(song.getIsrc(), song.getTitle(), saved.getId(), song.getContentHash());
+                        return linkArtists(saved.getId(), swa.artists()).thenReturn(Boolean.TRUE);
+                    })
+                    .onErrorResume(DuplicateKeyException.class, ex -> {
+                        log.debug("노래 중복 발생 Skip 처리 : {} - {}", song.getIsrc(), song.getTitle());
+                        run.getDuplicateCount().incrementAndGet();
+                        return songRepository.findByIsrcAndTitle(song.getIsrc(), song.getTitle())
+                                .flatMap(existing -> {
+                                    songIndex.register(song.getIsrc(), song.getTitle(), existing.getId());
+                                    return linkArtists(existing.getId(), swa.artists());
+                                });
+                    });
+        });
+    }
+
+    /**
+     * DELTA 모드 저장 : 인덱스의 content hash 와 비교해 new / changed / unchanged 로 분류합니다.
+     * - new : 일반 경로와 같이 INSERT 후 아티스트 연결
+     * - changed : song 컬럼 UPDATE, 아티스트 매핑 교체
+     * - unchanged : DB 에 쓰지 않음
+     * 인덱스에 없지만 DB 에 있는 row (collation 차이, 인덱스 한도 초과) 는 INSERT 중복 시 DB 값과 비교합니다.
+     */
+    private Mono<Boolean> writeDelta(SongWithArtists swa, IngestionRun run) {
+        return Mono.defer(() -> {
+            Song song = swa.song();
+            Long knownId = songIndex.lookup(song.getIsrc(), song.getTitle());
+            if (knownId != null) {
+                return applyDelta(knownId, songIndex.contentHash(song.getIsrc(), song.getTitle()), swa, run);
+            }
+            return songRepository.save(song)
+                    .flatMap(saved -> {
+                        run.getNewCount().incrementAndGet();
+                        songIndex.register(song.getIsrc(), song.getTitle(), saved.getId(), song.getContentHash());
+                        return linkArtists(saved.getId(), swa.artists()).thenReturn(Boolean.TRUE);
+                    })
+                    .onErrorResume(DuplicateKeyException.class, ex ->
+                            songRepository.findByIsrcAndTitle(song.getIsrc(), song.getTitle())
+                                    .flatMap(existing -> applyDelta(existing.getId(), existing.getContentHash(), swa, run)));
+        });
+    }
+
+    /**
+     * @return 바뀐 row 를 UPDATE 했으면 true, 그대로면 false
+     */
+    private Mono<Boolean> applyDelta(Long songId, Long storedHash, SongWithArtists swa, IngestionRun run) {
+        Song song = swa.song();
+        if (storedHash != null && Objects.equals(storedHash, song.getContentHash())) {
+            run.getUnchangedCount().incrementAndGet();
+            return Mono.just(Boolean.FALSE);
+        }
+        return albumStatsMaintainer.touchStored(songId)
+                .then(songDeltaWriter.update(songId, swa))
+                .then(Mono.fromSupplier(() -> {
+                    run.getChangedCount().incrementAndGet();
+                    songIndex.register(song.getIsrc(), song.getTitle(), songId, song.getContentHash());
+                    return Boolean.TRUE;
+                }));
+    }
+
+    /**
+     * @return 새로 저장한 연결이 하나라도 있으면 true
+     */
+    private Mono<Boolean> linkArtists(Long songId, List<String> artists) {
+        return Flux.fromIterable(artists)
+                .flatMap(artistDictionary::resolve)
+                .flatMap(artistId ->
+                        songArtistRepository.save(SongArtist.builder()
+                                        .songId(songId)
+                                        .artistId(artistId)
+                                        .build())
+                                .thenReturn(Boolean.TRUE)
+                                .onErrorResume(DuplicateKeyException.class, ex -> {
+                                    log.debug("최종 등록 리소스 중복 Skip 처리 : song={}, artist={}",
+                                            songId, artistId);
+                                    return Mono.just(Boolean.FALSE);
+                                })
+                )
+                .reduce(Boolean.FALSE, Boolean::logicalOr);
+    }
 
-        return new SongWithArtists(song, artistNames);
+    public DeadLetterQueueResponse getDeadLetterQueue() {
+        return deadLetterQueue.status();
+    }
+
+    /**
+     * DLQ 에 남아 있는 row(재시작 전 spill 파일 포함)를 지금 다시 저장합니다.
+     * 결과의 success / failure 는 재등록 성공 / 실패 건수입니다.
+     */
+    public Mono<SongIngestionResult> replayDeadLetters() {
+        return Mono.defer(() -> {
+            IngestionRun run = IngestionRun.start(newRunId(), IngestionRun.DLQ_SOURCE, IngestionWriteMode.PER_ROW, List.of());
+            long startTime = System.currentTimeMillis();
+            return retryFromDlq(run).then(Mono.fromSupplier(() -> {
+                long recovered = run.getDlqRecovered().get();
+                long failed = run.getDlqFailed().get();
+                return SongIngestionResult.of(run.getRunId(), (int) recovered, (int) failed,
+                        recovered + failed, System.currentTimeMillis() - startTime);
+            }));
+        });
     }
 
-    private void retryFromDlq(Queue<Song> dlq) {
-        Flux.fromIterable(dlq)
-                .flatMap(song ->
-                        songRepository.save(song)
+    /**
+     * DLQ 의 row 를 일반 저장 경로(노래 + 아티스트 연결)로 다시 저장합니다.
+     * 초당 dlqReplayRate 건씩 (0 이하면 제한 없이) 꺼내 최대 dlqReplayConcurrency 건 동시에 저장하고,
+     * 실패한 row 는 DLQ 로 되돌려 다음 replay 에서 다시 시도합니다. (max-attempts 초과 시 skip)
+     */
+    private Mono<Void> retryFromDlq(IngestionRun run) {
+        run.getDlqPending().set(deadLetterQueue.depth());
+        Flux<DeadLetterQueue.DeadLetter> letters = dlqReplayRate > 0
+                ? deadLetterQueue.drain().delayElements(Duration.ofSeconds(1).dividedBy(dlqReplayRate))
+                : deadLetterQueue.drain();
+        return letters
+                .flatMap(letter ->
+                        write(letter.row(), run)
                                 .retryWhen(Retry.backoff(2, Duration.ofSeconds(1)))
+                                .doOnSuccess(v -> run.getDlqRecovered().incrementAndGet())
                                 .onErrorResume(ex -> {
-                                    log.error("DLQ 재등록에 실패 하였습니다 : song_id : {}, song_isrc : {}, msg : {}", song.getId(), song.getIsrc(), ex.getMessage());
+                                    Song song = letter.row().song();
+                                    run.getDlqFailed().incrementAndGet();
+                                    if (deadLetterQueue.retryLater(letter)) {
+                                        log.warn("DLQ 재등록에 실패하여 다시 적재합니다 : song_isrc : {}, msg : {}", song.getIsrc(), ex.getMessage());
+                                    } else {
+                                        log.error("DLQ 재등록에 실패 하였습니다 : song_id : {}, song_isrc : {}, msg : {}", song.getId(), song.getIsrc(), ex.getMessage());
+                                    }
                                     return Mono.empty();
                                 })
-                )
+                                .doFinally(signal -> run.getDlqPending().decrementAndGet()),
+                        dlqReplayConcurrency)
                 .doOnComplete(() -> log.info("DLQ 실패 작업에 대해 재등록 배치가 완료되었습니다."))
-                .subscribe();
+                .doFinally(signal -> {
+                    albumStatsCache.invalidate();
+                    columnarEngine.markStale();
+                })
+                .then();
+    }
+
+    private static String newRunId() {
+        return UUID.randomUUID().toString();
     }
 }
@@ -0,0 +1,41 @@
+package com.example.spotifyaggregator.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * MySQL utf8mb4_unicode_ci 비교에서 같은 값이 같은 key 가 되도록 문자열을 접습니다. (대소문자, 악센트, 끝 공백 무시)
+ * - NFKD 로 분해해 결합 문자(악센트)를 지우고, 대문자 → 소문자 순으로 바꿈 (ß → ss 처럼 대문자로 바꿀 때 늘어나는 문자 포함)
+ * - PAD SPACE 비교이므로 끝의 공백은 지움
+ * collation 가중치를 그대로 구현한 것은 아니므로 드문 문자에서는 DB 와 다를 수 있고, 최종 기준은 DB 의 unique key 입니다.
+ */
+public final class CollationKey {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private CollationKey() {
+    }
+
+    /**
+     * @return 접은 key, value 가 null 이면 null
+     */
+    public static String of(String value) {
+        if (value == null) return null;
+        String folded = isAscii(value)
+                ? value.toLowerCase(Locale.ROOT)
+                : COMBINING_MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFKD)).replaceAll("")
+                        .toUpperCase(Locale.ROOT)
+                        .toLowerCase(Locale.ROOT);
+        int end = folded.length();
+        while (end > 0 && folded.charAt(end - 1) == ' ') end--;
+        return end == folded.length() ? folded : folded.substring(0, end);
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) return false;
+        }
+        return true;
+    }
+}
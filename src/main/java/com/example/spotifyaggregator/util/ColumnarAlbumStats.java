@@ -0,0 +1,223 @@
+package com.example.spotifyaggregator.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 카탈로그를 컬럼 배열로 읽어 만든 연도별 / 아티스트·연도별 앨범 수 스냅샷입니다. 만든 뒤에는 바뀌지 않으므로 동기화 없이 읽습니다.
+ * - Builder 는 노래를 (release_year, YEAR(release_date), album id) 컬럼 배열에, 앨범명은 사전(int id)으로,
+ *   아티스트별 노래는 노래 위치 posting list 로 모읍니다. (song id → 위치는 LongLongHashMap)
+ * - build() 는 (연도 << 32 | album id) 를 long 배열로 정렬해 인접 값만 비교하는 방식으로 DISTINCT album 을 셉니다.
+ *   (연도 × 앨범 bitset 과 달리 메모리가 row 수에만 비례)
+ * 집계 기준은 album_stats_by_year / album_stats_by_artist_year 와 같습니다. (연도가 NULL 인 row 제외, album NULL 은 세지 않음)
+ * 앨범명 / 아티스트 이름은 DB collation (utf8mb4_unicode_ci) 처럼 CollationKey 로 접어 비교합니다.
+ * ("ALB1" 과 "alb1" 은 같은 앨범, byArtist("drake") 는 "Drake" 의 통계)
+ */
+public final class ColumnarAlbumStats {
+
+    private static final int NO_YEAR = Integer.MIN_VALUE;
+    private static final int NO_ALBUM = 0;
+
+    private final YearCounts byYear;
+    private final Map<String, YearCounts> byArtist;
+    private final List<String> artists;
+    private final int songCount;
+    private final int albumCount;
+
+    private ColumnarAlbumStats(YearCounts byYear, Map<String, YearCounts> byArtist, List<String> artists,
+                               int songCount, int albumCount) {
+        this.byYear = byYear;
+        this.byArtist = byArtist;
+        this.artists = artists;
+        this.songCount = songCount;
+        this.albumCount = albumCount;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public YearCounts byYear() {
+        return byYear;
+    }
+
+    /**
+     * @return 아티스트의 연도별 앨범 수, 없는 아티스트면 빈 결과
+     */
+    public YearCounts byArtist(String artist) {
+        if (artist == null) return YearCounts.EMPTY;
+        return byArtist.getOrDefault(CollationKey.of(artist), YearCounts.EMPTY);
+    }
+
+    /**
+     * @return 통계가 있는 아티스트 이름 (적재 중 처음 본 표기), live / materialized 조회처럼 artist id 순
+     */
+    public List<String> artists() {
+        return artists;
+    }
+
+    public int songCount() {
+        return songCount;
+    }
+
+    public int albumCount() {
+        return albumCount;
+    }
+
+    public int artistCount() {
+        return byArtist.size();
+    }
+
+    /**
+     * 연도 오름차순의 (연도, 앨범 수) 배열입니다.
+     */
+    public static final class YearCounts {
+
+        static final YearCounts EMPTY = new YearCounts(new int[0], new long[0]);
+
+        private final int[] years;
+        private final long[] counts;
+
+        private YearCounts(int[] years, long[] counts) {
+            this.years = years;
+            this.counts = counts;
+        }
+
+        public int size() {
+            return years.length;
+        }
+
+        public int year(int index) {
+            return years[index];
+        }
+
+        public long count(int index) {
+            return counts[index];
+        }
+
+        /**
+         * @return lastYear 보다 큰 첫 연도의 위치 (없으면 size())
+         */
+        public int indexAfter(int lastYear) {
+            int index = Arrays.binarySearch(years, lastYear);
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+    }
+
+    /**
+     * 한 스레드에서 순서대로 채운 뒤 build() 를 한 번 호출합니다.
+     */
+    public static final class Builder {
+
+        private int[] releaseYears = new int[1024];
+        private int[] releaseDateYears = new int[1024];
+        private int[] albumIds = new int[1024];
+        private int songs;
+
+        private final LongLongHashMap songIndex = new LongLongHashMap(1024);
+        private final Map<String, Integer> albumDictionary = new HashMap<>();
+        private final Map<String, Postings> postings = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder addSong(long songId, Integer releaseYear, Integer releaseDateYear, String album) {
+            if (songs == albumIds.length) {
+                int capacity = songs * 2;
+                releaseYears = Arrays.copyOf(releaseYears, capacity);
+                releaseDateYears = Arrays.copyOf(releaseDateYears, capacity);
+                albumIds = Arrays.copyOf(albumIds, capacity);
+            }
+            releaseYears[songs] = releaseYear == null ? NO_YEAR : releaseYear;
+            releaseDateYears[songs] = releaseDateYear == null ? NO_YEAR : releaseDateYear;
+            albumIds[songs] = album == null
+                    ? NO_ALBUM
+                    : albumDictionary.computeIfAbsent(CollationKey.of(album), key -> albumDictionary.size() + 1);
+            songIndex.put(songId, songs);
+            songs++;
+            return this;
+        }
+
+        /**
+         * addSong 으로 넣은 노래에 아티스트를 연결합니다. 모르는 노래는 무시합니다. (적재 중 추가된 연결)
+         */
+        public Builder addArtistSong(long artistId, String artist, long songId) {
+            long index = songIndex.get(songId, -1);
+            if (index < 0) return this;
+            postings.computeIfAbsent(CollationKey.of(artist), key -> new Postings(artistId, artist)).add((int) index);
+            return this;
+        }
+
+        public ColumnarAlbumStats build() {
+            int[] all = new int[songs];
+            for (int i = 0; i < songs; i++) all[i] = i;
+            YearCounts byYear = count(all, songs, releaseYears);
+
+            Map<String, YearCounts> byArtist = new HashMap<>(postings.size() * 2);
+            List<Postings> withStats = new ArrayList<>(postings.size());
+            postings.forEach((artistKey, list) -> {
+                YearCounts counts = count(list.songs, list.size, releaseDateYears);
+                if (counts.size() > 0) {
+                    byArtist.put(artistKey, counts);
+                    withStats.add(list);
+                }
+            });
+            withStats.sort(Comparator.comparingLong(list -> list.artistId));
+            List<String> artists = withStats.stream().map(list -> list.name).toList();
+            return new ColumnarAlbumStats(byYear, byArtist, artists, songs, albumDictionary.size());
+        }
+
+        private YearCounts count(int[] songPositions, int length, int[] yearColumn) {
+            long[] keys = new long[length];
+            int n = 0;
+            for (int i = 0; i < length; i++) {
+                int song = songPositions[i];
+                int year = yearColumn[song];
+                if (year == NO_YEAR) continue;
+                keys[n++] = ((long) year << 32) | albumIds[song];
+            }
+            Arrays.sort(keys, 0, n);
+
+            int[] years = new int[n];
+            long[] counts = new long[n];
+            int groups = -1;
+            for (int i = 0; i < n; i++) {
+                long key = keys[i];
+                int year = (int) (key >> 32);
+                int album = (int) key;
+                if (groups < 0 || years[groups] != year) {
+                    years[++groups] = year;
+                }
+                if (album != NO_ALBUM && (i == 0 || keys[i - 1] != key)) {
+                    counts[groups]++;
+                }
+            }
+            return new YearCounts(Arrays.copyOf(years, groups + 1), Arrays.copyOf(counts, groups + 1));
+        }
+    }
+
+    /**
+     * 아티스트 한 명의 노래 위치 목록
+     */
+    private static final class Postings {
+
+        private final long artistId;
+        private final String name;
+        private int[] songs = new int[4];
+        private int size;
+
+        Postings(long artistId, String name) {
+            this.artistId = artistId;
+            this.name = name;
+        }
+
+        void add(int song) {
+            if (size == songs.length) songs = Arrays.copyOf(songs, size * 2);
+            songs[size++] = song;
+        }
+    }
+}
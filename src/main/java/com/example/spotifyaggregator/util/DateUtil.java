@@ -3,26 +3,113 @@ package com.example.spotifyaggregator.util;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.Locale;
+import java.time.Month;
+import java.time.Year;
 
+/**
+ * "1st January 2020" 형식의 발매일을 regex / 중간 문자열 없이 직접 파싱합니다.
+ * 결과는 기존 구현(접미사 regex 제거 + DateTimeFormatter "d MMMM yyyy", Locale.ENGLISH, SMART)과 동일합니다.
+ * - 숫자 바로 뒤의 st / nd / rd / th 는 건너뜀
+ * - 일(day)은 1 ~ 19 자리, 값 1 ~ 31 (월 길이를 넘으면 말일로 보정)
+ * - 월은 대소문자를 구분하는 영문 전체 이름
+ * - 연도는 부호 없는 4 자리, 또는 '+' 뒤 5 자리 이상
+ * 발매일 종류는 많지 않으므로 파싱 결과(실패 포함)를 LRU 캐시에 보관합니다. (크기를 넘으면 오래 조회되지 않은 문자열부터 제거)
+ */
 @Slf4j
 public class DateUtil {
 
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("d MMMM yyyy", Locale.ENGLISH);
+    static final int CACHE_MAX_SIZE = 100_000;
+    private static final int MAX_DIGITS = 19; // DateTimeFormatter 숫자 필드 최대 자리수
+    private static final LocalDate UNPARSEABLE = LocalDate.MIN; // 실패 결과 캐시용 sentinel
+
+    private static final String[] MONTH_NAMES = {
+            "January", "February", "March", "April", "May", "June",
+            "July", "August", "September", "October", "November", "December"
+    };
+
+    private static final LruCache<String, LocalDate> CACHE = new LruCache<>(CACHE_MAX_SIZE);
 
     public static LocalDate parseReleaseDate(String rawDate) {
         if (rawDate == null || rawDate.isBlank()) return null;
 
-        try {
-            // 1. 접미사 제거 (1st, 2nd, 3rd, 4th → 1, 2, 3, 4)
-            String cleaned = rawDate.replaceAll("(?<=\\d)(st|nd|rd|th)", "");
+        LocalDate cached = CACHE.get(rawDate);
+        if (cached == null) {
+            cached = parse(rawDate);
+            if (cached == null) {
+                // 같은 문자열은 캐시에 남아 있는 동안 경고를 다시 남기지 않음
+                log.warn("날짜 파싱 작업에 실패하였습니다 : {}", rawDate);
+                cached = UNPARSEABLE;
+            }
+            CACHE.put(rawDate, cached);
+        }
+        return cached == UNPARSEABLE ? null : cached;
+    }
+
+    static int cacheSize() {
+        return CACHE.size();
+    }
+
+    static LocalDate parse(String text) {
+        int length = text.length();
+        int pos = 0;
+
+        // 1. 일 (d)
+        long day = 0;
+        int digits = 0;
+        while (pos < length && isDigit(text.charAt(pos))) {
+            day = Math.min(day * 10 + (text.charAt(pos) - '0'), 100);
+            digits++;
+            pos = skipSuffix(text, pos + 1);
+        }
+        if (digits == 0 || digits > MAX_DIGITS || day < 1 || day > 31) return null;
+        if (pos >= length || text.charAt(pos) != ' ') return null;
+        pos++;
+
+        // 2. 월 (MMMM)
+        int month = 0;
+        for (int i = 0; i < MONTH_NAMES.length; i++) {
+            String name = MONTH_NAMES[i];
+            if (text.startsWith(name, pos) && pos + name.length() < length && text.charAt(pos + name.length()) == ' ') {
+                month = i + 1;
+                pos += name.length() + 1;
+                break;
+            }
+        }
+        if (month == 0) return null;
 
-            // 2. 포맷 정의
-            return LocalDate.parse(cleaned, FORMATTER);
-        } catch (Exception e) {
-            log.warn("날짜 파싱 작업에 실패하였습니다 : {}", rawDate);
-            return null;
+        // 3. 연도 (yyyy) - 4 자리를 넘으면 '+' 가 필요
+        boolean signed = pos < length && text.charAt(pos) == '+';
+        if (signed) pos++;
+        long year = 0;
+        digits = 0;
+        while (pos < length && isDigit(text.charAt(pos))) {
+            year = Math.min(year * 10 + (text.charAt(pos) - '0'), Year.MAX_VALUE + 1L);
+            digits++;
+            pos = skipSuffix(text, pos + 1);
         }
+        if (pos != length || digits > MAX_DIGITS) return null;
+        if (signed ? digits <= 4 : digits != 4) return null;
+        if (year < 1 || year > Year.MAX_VALUE) return null;
+
+        int dayOfMonth = (int) Math.min(day, Month.of(month).length(Year.isLeap(year)));
+        return LocalDate.of((int) year, month, dayOfMonth);
+    }
+
+    /**
+     * 숫자 뒤에 오는 서수 접미사(st / nd / rd / th) 하나를 건너뜁니다.
+     */
+    private static int skipSuffix(String text, int pos) {
+        if (pos + 1 >= text.length()) return pos;
+        char first = text.charAt(pos);
+        char second = text.charAt(pos + 1);
+        boolean suffix = (first == 's' && second == 't')
+                || (first == 'n' && second == 'd')
+                || (first == 'r' && second == 'd')
+                || (first == 't' && second == 'h');
+        return suffix ? pos + 2 : pos;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
     }
 }
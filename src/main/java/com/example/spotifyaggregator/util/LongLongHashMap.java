@@ -0,0 +1,108 @@
+package com.example.spotifyaggregator.util;
+
+import java.util.Arrays;
+
+/**
+ * long → long open-addressing(linear probing) 해시맵입니다.
+ * 박싱 없이 key / value 를 long[] 두 개에 저장하므로 엔트리당 메모리는 (16 byte / load factor) 수준입니다.
+ * key 0 은 빈 슬롯 표시로 쓰므로 별도 필드에 보관합니다. 동기화하지 않으므로 호출 측에서 보호해야 합니다.
+ */
+public final class LongLongHashMap {
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    public LongLongHashMap(int expectedSize) {
+        allocate(tableSizeFor((int) Math.ceil(Math.max(expectedSize, 8) / LOAD_FACTOR)));
+    }
+
+    /**
+     * @return key 에 해당하는 값, 없으면 missing
+     */
+    public long get(long key, long missing) {
+        if (key == 0) return hasZeroKey ? zeroValue : missing;
+        int slot = slot(key);
+        while (true) {
+            long current = keys[slot];
+            if (current == key) return values[slot];
+            if (current == 0) return missing;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public void put(long key, long value) {
+        if (key == 0) {
+            if (!hasZeroKey) size++;
+            hasZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+        int slot = slot(key);
+        while (true) {
+            long current = keys[slot];
+            if (current == key) {
+                values[slot] = value;
+                return;
+            }
+            if (current == 0) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size >= resizeAt) resize();
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+        hasZeroKey = false;
+    }
+
+    /**
+     * key / value 배열이 차지하는 byte 수
+     */
+    public long memoryBytes() {
+        return (long) keys.length * Long.BYTES * 2;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(keys.length * 2);
+        size = hasZeroKey ? 1 : 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    private static int tableSizeFor(int capacity) {
+        return Math.max(16, Integer.highestOneBit(capacity - 1) << 1);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.spotifyaggregator.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 크기 제한이 있는 LRU 캐시입니다. maxSize 를 넘으면 가장 오래 조회되지 않은 항목부터 제거합니다.
+ * 조회 / 저장이 짧은 임계 구역이라 전체를 하나의 lock 으로 보호합니다.
+ */
+public final class LruCache<K, V> {
+
+    private final int maxSize;
+    private final LinkedHashMap<K, V> entries;
+    private long evictions;
+
+    public LruCache(int maxSize) {
+        if (maxSize < 1) throw new IllegalArgumentException("maxSize must be positive : " + maxSize);
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() <= LruCache.this.maxSize) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @return 값 (없으면 null). 조회한 항목은 가장 최근 항목이 됩니다.
+     */
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return 크기 제한으로 제거된 누적 항목 수 (remove / clear 제외)
+     */
+    public synchronized long evictions() {
+        return evictions;
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.spotifyaggregator.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 파일 시스템의 NDJSON 파일을 FileChannel memory-map 으로 읽습니다.
+ * - split : 파일을 줄 경계(\n)에 맞춘 byte range 로 나눠 range 별 병렬 파싱이 가능하도록 함
+ * - Cursor : range 안의 줄을 String 변환 없이 재사용 byte[] 로 꺼냄 (SongRowDecoder 가 UTF-8 바이트를 직접 파싱)
+ */
+public final class MappedNdjsonReader {
+
+    private static final long WINDOW_SIZE = 256L * 1024 * 1024; // 한 번에 map 하는 최대 크기
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+    private MappedNdjsonReader() {
+    }
+
+    public record ByteRange(int index, long start, long end) {
+    }
+
+    /**
+     * 파일을 최대 partitions 개의 줄 경계 정렬 range 로 나눕니다.
+     */
+    public static List<ByteRange> split(Path path, int partitions) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<ByteRange> ranges = new ArrayList<>(partitions);
+            long start = 0;
+            for (int i = 1; i <= partitions && start < size; i++) {
+                long end = i == partitions ? size : alignToNextLine(channel, size * i / partitions, size);
+                if (end <= start) continue;
+                ranges.add(new ByteRange(ranges.size(), start, end));
+                start = end;
+            }
+            return ranges;
+        }
+    }
+
+    /**
+     * position 이후 처음 나오는 줄의 시작 offset (position 이 이미 줄 시작이면 그대로)
+     */
+    private static long alignToNextLine(FileChannel channel, long position, long size) throws IOException {
+        if (position <= 0) return 0;
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long offset = position - 1;
+        while (offset < size) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') return offset + i + 1;
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    public static Cursor open(Path path, ByteRange range) throws IOException {
+        return open(path, range, range.start());
+    }
+
+    /**
+     * range 안의 from offset(줄 시작 위치여야 함)부터 읽습니다. checkpoint 에서 이어 읽을 때 사용합니다.
+     */
+    public static Cursor open(Path path, ByteRange range, long from) throws IOException {
+        return new Cursor(FileChannel.open(path, StandardOpenOption.READ), range, from);
+    }
+
+    /**
+     * 하나의 range 를 줄 단위로 순회합니다. 스레드 하나에서만 사용해야 합니다.
+     */
+    public static final class Cursor implements Closeable {
+
+        private final FileChannel channel;
+        private final ByteRange range;
+        private long position;
+        private MappedByteBuffer window;
+        private long windowStart;
+        private byte[] line = new byte[8 * 1024];
+
+        private Cursor(FileChannel channel, ByteRange range, long from) {
+            this.channel = channel;
+            this.range = range;
+            this.position = Math.max(range.start(), Math.min(from, range.end()));
+        }
+
+        /**
+         * 다음 줄을 line() 버퍼에 복사하고 길이를 반환합니다. (빈 줄은 건너뜀, range 끝이면 -1)
+         */
+        public int next() throws IOException {
+            while (position < range.end()) {
+                if (window == null || position >= windowStart + window.limit()) {
+                    map(position);
+                }
+
+                int from = (int) (position - windowStart);
+                int limit = window.limit();
+                int i = from;
+                while (i < limit && window.get(i) != '\n') i++;
+
+                if (i == limit && windowStart + limit < range.end()) {
+                    // 줄이 window 경계에 걸친 경우 줄 시작부터 다시 map
+                    if (from == 0) {
+                        throw new IOException("NDJSON 한 줄이 map window 크기를 초과합니다 : offset " + position);
+                    }
+                    map(position);
+                    continue;
+                }
+
+                int length = i - from;
+                if (line.length < length) {
+                    line = new byte[Math.max(length, line.length * 2)];
+                }
+                window.get(from, line, 0, length);
+                position = windowStart + Math.min(i + 1, limit);
+
+                if (length > 0 && line[length - 1] == '\r') length--;
+                if (length == 0) continue;
+                return length;
+            }
+            return -1;
+        }
+
+        public byte[] line() {
+            return line;
+        }
+
+        /**
+         * 마지막으로 읽은 줄 다음의 파일 offset
+         */
+        public long position() {
+            return position;
+        }
+
+        public ByteRange range() {
+            return range;
+        }
+
+        private void map(long from) throws IOException {
+            long size = Math.min(WINDOW_SIZE, range.end() - from);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, from, size);
+            windowStart = from;
+        }
+
+        @Override
+        public void close() throws IOException {
+            window = null;
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.spotifyaggregator.util;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+/**
+ * HTTP 요청 본문(Flux&lt;DataBuffer&gt;) 의 NDJSON 을 줄 단위 byte[] 로 나눕니다.
+ * DataBuffer 에서 \n 위치를 찾아 줄 조각만 재사용 버퍼로 읽고, 다 읽은 DataBuffer 는 바로 release 합니다.
+ * 여러 DataBuffer 에 걸친 줄은 재사용 버퍼에 이어 붙입니다. 스레드 하나에서 순서대로 사용해야 합니다.
+ */
+public final class NdjsonBufferSplitter {
+
+    @FunctionalInterface
+    public interface LineSink {
+        /**
+         * @param lineNumber 1 부터 시작하는 줄 번호 (빈 줄 포함)
+         */
+        void accept(long lineNumber, byte[] line);
+    }
+
+    private final int maxLineSize;
+    private byte[] line = new byte[8 * 1024];
+    private int length;
+    private long lineNumber;
+
+    public NdjsonBufferSplitter(int maxLineSize) {
+        this.maxLineSize = maxLineSize;
+    }
+
+    /**
+     * buffer 안에서 끝나는 줄을 sink 로 넘기고, 끝나지 않은 줄은 다음 buffer 를 위해 남겨둡니다. buffer 는 항상 release 합니다.
+     */
+    public void split(DataBuffer buffer, LineSink sink) {
+        try {
+            while (buffer.readableByteCount() > 0) {
+                int start = buffer.readPosition();
+                int newline = buffer.indexOf(b -> b == '\n', start);
+                int chunk = newline < 0 ? buffer.readableByteCount() : newline - start;
+                append(buffer, chunk);
+                if (newline < 0) break;
+                buffer.readPosition(newline + 1);
+                emit(sink);
+            }
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    /**
+     * 본문 끝에서 \n 없이 끝난 마지막 줄을 넘깁니다.
+     */
+    public void finish(LineSink sink) {
+        if (length > 0) emit(sink);
+    }
+
+    private void append(DataBuffer buffer, int chunk) {
+        if (length + chunk > maxLineSize) {
+            throw new LineTooLongException(lineNumber + 1, maxLineSize);
+        }
+        if (line.length < length + chunk) {
+            byte[] grown = new byte[Math.min(maxLineSize, Math.max(length + chunk, line.length * 2))];
+            System.arraycopy(line, 0, grown, 0, length);
+            line = grown;
+        }
+        buffer.read(line, length, chunk);
+        length += chunk;
+    }
+
+    private void emit(LineSink sink) {
+        lineNumber++;
+        int end = length > 0 && line[length - 1] == '\r' ? length - 1 : length;
+        length = 0;
+        if (end > 0) {
+            byte[] copy = new byte[end];
+            System.arraycopy(line, 0, copy, 0, end);
+            sink.accept(lineNumber, copy);
+        }
+    }
+
+    public static final class LineTooLongException extends IllegalStateException {
+        public LineTooLongException(long lineNumber, int maxLineSize) {
+            super("NDJSON 줄이 최대 크기(" + maxLineSize + " bytes)를 넘었습니다 : line " + lineNumber);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.spotifyaggregator.util;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 여러 NDJSON shard(디렉터리 또는 glob) 입력을 다룹니다.
+ * - resolve : 디렉터리면 바로 아래의 일반 파일 전체, glob 이면 패턴에 맞는 파일을 경로 순으로 정렬해 반환
+ * - open : 파일 앞부분(magic number)을 보고 gzip 이면 디스크에 풀지 않고 스트림으로 압축 해제
+ * resume 시에도 같은 순서로 다시 resolve 하므로, 실행 중에는 shard 를 추가 / 삭제하지 않아야 합니다.
+ */
+public final class NdjsonShards {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int GZIP_MAGIC = 0x1f8b;
+    private static final int ZSTD_MAGIC = 0xfd2fb528; // little-endian (28 B5 2F FD)
+
+    private NdjsonShards() {
+    }
+
+    /**
+     * 단일 비압축 파일이 아닌 입력(디렉터리, glob, 압축 파일)인지 여부
+     */
+    public static boolean isShardSource(String location) {
+        if (isGlob(location)) return true;
+        Path path = Path.of(location);
+        return Files.isDirectory(path) || isCompressedName(path);
+    }
+
+    /**
+     * @return 정렬된 shard 경로 (없으면 빈 목록)
+     */
+    public static List<Path> resolve(String location) throws IOException {
+        if (!isGlob(location)) {
+            Path path = Path.of(location);
+            if (!Files.isDirectory(path)) {
+                return Files.isRegularFile(path) ? List.of(path) : List.of();
+            }
+            try (Stream<Path> files = Files.list(path)) {
+                return files.filter(Files::isRegularFile)
+                        .filter(file -> !file.getFileName().toString().startsWith("."))
+                        .sorted()
+                        .toList();
+            }
+        }
+
+        Path base = globBase(location);
+        if (!Files.isDirectory(base)) return List.of();
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + location);
+        try (Stream<Path> files = Files.walk(base)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(matcher::matches)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * shard 를 엽니다. gzip 은 GZIPInputStream 으로 감싸고, zstd 는 지원하지 않으므로 IOException 을 던집니다.
+     */
+    public static InputStream open(Path shard) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(shard), BUFFER_SIZE);
+        try {
+            in.mark(4);
+            byte[] head = in.readNBytes(4);
+            in.reset();
+            if (head.length >= 2 && ((head[0] & 0xff) << 8 | (head[1] & 0xff)) == GZIP_MAGIC) {
+                return new GZIPInputStream(in, BUFFER_SIZE);
+            }
+            if (head.length == 4 && ((head[3] & 0xff) << 24 | (head[2] & 0xff) << 16
+                    | (head[1] & 0xff) << 8 | (head[0] & 0xff)) == ZSTD_MAGIC) {
+                throw new UnsupportedCompressionException(shard);
+            }
+            return in;
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    private static boolean isGlob(String location) {
+        for (int i = 0; i < location.length(); i++) {
+            char c = location.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '{') return true;
+        }
+        return false;
+    }
+
+    private static boolean isCompressedName(Path path) {
+        String name = path.getFileName() == null ? "" : path.getFileName().toString();
+        return name.endsWith(".gz") || name.endsWith(".zst");
+    }
+
+    /**
+     * glob 문자가 처음 나오는 경로 요소 직전까지의 디렉터리
+     */
+    private static Path globBase(String location) {
+        int glob = 0;
+        while (glob < location.length() && "*?[{".indexOf(location.charAt(glob)) < 0) glob++;
+        int separator = location.lastIndexOf('/', glob);
+        if (separator < 0) return Path.of(".");
+        return Path.of(separator == 0 ? "/" : location.substring(0, separator));
+    }
+
+    public static final class UnsupportedCompressionException extends IOException {
+        public UnsupportedCompressionException(Path shard) {
+            super("지원하지 않는 압축 형식입니다 (zstd) : " + shard);
+        }
+    }
+}
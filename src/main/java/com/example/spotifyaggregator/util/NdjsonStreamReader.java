@@ -0,0 +1,102 @@
+package com.example.spotifyaggregator.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * InputStream 의 NDJSON 을 줄 단위 byte[] 로 꺼냅니다. (classpath 처럼 memory-map 할 수 없는 입력용)
+ * MappedNdjsonReader.Cursor 와 같이 문자열 디코딩 없이 재사용 버퍼에 복사하며, 스레드 하나에서만 사용해야 합니다.
+ * maxLineSize 를 넘는 줄은 복사하지 않고 다음 \n 까지 건너뛴 뒤 LINE_TOO_LONG 을 반환합니다. (줄 버퍼가 한없이 커지지 않도록)
+ */
+public final class NdjsonStreamReader implements Closeable {
+
+    public static final int EOF = -1;
+    public static final int LINE_TOO_LONG = -2;
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream in;
+    private final int maxLineSize;
+    private final byte[] buffer = new byte[READ_BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private byte[] line = new byte[8 * 1024];
+    private long lineNumber;
+
+    public NdjsonStreamReader(InputStream in) {
+        this(in, Integer.MAX_VALUE - 1);
+    }
+
+    public NdjsonStreamReader(InputStream in, int maxLineSize) {
+        this.in = in;
+        this.maxLineSize = maxLineSize;
+    }
+
+    /**
+     * 다음 줄을 line() 버퍼에 복사하고 길이를 반환합니다.
+     * (빈 줄은 건너뜀, 입력 끝이면 EOF, maxLineSize 를 넘는 줄이면 LINE_TOO_LONG 이며 lineNumber() 는 그 줄 번호)
+     */
+    public int next() throws IOException {
+        while (true) {
+            int length = 0;
+            boolean tooLong = false;
+            boolean found = false;
+            while (!found) {
+                if (position == limit && !fill()) {
+                    if (length == 0 && !tooLong) return EOF;
+                    break; // 마지막 줄에 \n 이 없는 경우
+                }
+                int start = position;
+                while (position < limit && buffer[position] != '\n') position++;
+                int chunk = position - start;
+                if (!tooLong && (long) length + chunk > maxLineSize + 1L) { // + 1 : 줄 끝의 \r
+                    tooLong = true;
+                }
+                if (!tooLong) {
+                    if (line.length < length + chunk) {
+                        byte[] grown = new byte[(int) Math.min(Math.max(length + chunk, line.length * 2L), maxLineSize + 1L)];
+                        System.arraycopy(line, 0, grown, 0, length);
+                        line = grown;
+                    }
+                    System.arraycopy(buffer, start, line, length, chunk);
+                    length += chunk;
+                }
+                if (position < limit) {
+                    position++; // \n
+                    found = true;
+                }
+            }
+
+            lineNumber++;
+            if (tooLong) return LINE_TOO_LONG;
+            if (length > 0 && line[length - 1] == '\r') length--;
+            if (length > maxLineSize) return LINE_TOO_LONG;
+            if (length > 0) return length;
+        }
+    }
+
+    public byte[] line() {
+        return line;
+    }
+
+    /**
+     * 마지막으로 읽은 줄의 번호 (1 부터, 빈 줄 포함)
+     */
+    public long lineNumber() {
+        return lineNumber;
+    }
+
+    private boolean fill() throws IOException {
+        int read = in.read(buffer, 0, buffer.length);
+        if (read <= 0) return false;
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
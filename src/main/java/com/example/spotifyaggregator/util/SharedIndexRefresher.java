@@ -0,0 +1,109 @@
+package com.example.spotifyaggregator.util;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * 여러 ingestion run 이 함께 쓰는 메모리 인덱스(아티스트 사전, 노래 fingerprint 인덱스)를 언제 다시 읽을지 정합니다.
+ * - 인덱스는 run 사이에 유지하고, run 이 acquire 할 때 refresh(false) 로 마지막 적재 이후 생긴 row 만 읽음
+ * - 처음 한 번, 그리고 acquire 한 run 외에 사용 중인 run 이 없고 마지막 전체 적재 후 fullReloadInterval 이 지났으면
+ *   refresh(true) 로 비우고 전체를 다시 읽음 (삭제된 row 정리). 다른 run 이 사용 중이면 절대 비우지 않음
+ * - 같은 key 로 여러 번 acquire 해도 refresh 는 한 번이며, 나머지는 그 결과를 기다림
+ * - refresh 는 한 번에 하나씩 순서대로 실행
+ * - invalidate() 후 다음 acquire 는 다른 run 이 사용 중이어도 전체를 다시 읽음 (bulk load 처럼 id 를 새로 부여한 경우)
+ * acquire 한 key 는 run 이 끝날 때 같은 횟수만큼 release 해야 합니다.
+ */
+public final class SharedIndexRefresher {
+
+    private final Duration fullReloadInterval;
+    private final Map<String, Holder> holders = new HashMap<>();
+    private Mono<Void> last = Mono.empty();
+    private boolean loaded;
+    private long lastFullLoadNanos;
+
+    private record Holder(int count, Mono<Void> refreshed) {
+    }
+
+    public SharedIndexRefresher(Duration fullReloadInterval) {
+        this.fullReloadInterval = fullReloadInterval;
+    }
+
+    /**
+     * @param refresh true 면 비우고 전체를, false 면 새로 생긴 row 만 읽는 적재
+     */
+    public Mono<Void> acquire(String key, Function<Boolean, Mono<Void>> refresh) {
+        return Mono.defer(() -> {
+            synchronized (this) {
+                Holder holder = holders.get(key);
+                if (holder != null) {
+                    holders.put(key, new Holder(holder.count() + 1, holder.refreshed()));
+                    return holder.refreshed();
+                }
+
+                Mono<Void> previous = last;
+                AtomicReference<Mono<Void>> self = new AtomicReference<>();
+                Mono<Void> refreshed = previous
+                        .onErrorResume(e -> Mono.empty())
+                        .then(Mono.defer(() -> {
+                            boolean full = fullReloadDue();
+                            return refresh.apply(full)
+                                    .doOnSuccess(v -> {
+                                        if (full) fullyLoaded();
+                                    });
+                        }))
+                        .doFinally(signal -> clearLast(self.get()))
+                        .cache();
+                self.set(refreshed);
+                last = refreshed;
+                holders.put(key, new Holder(1, refreshed));
+                return refreshed;
+            }
+        });
+    }
+
+    public synchronized void release(String key) {
+        Holder holder = holders.get(key);
+        if (holder == null) return;
+        if (holder.count() <= 1) {
+            holders.remove(key);
+        } else {
+            holders.put(key, new Holder(holder.count() - 1, holder.refreshed()));
+        }
+    }
+
+    /**
+     * 다음 acquire 가 전체를 다시 읽도록 합니다.
+     */
+    public synchronized void invalidate() {
+        loaded = false;
+    }
+
+    /**
+     * @return 인덱스를 사용 중인 key 수
+     */
+    public synchronized int holders() {
+        return holders.size();
+    }
+
+    private synchronized boolean fullReloadDue() {
+        if (!loaded) return true;
+        return holders.size() <= 1 && System.nanoTime() - lastFullLoadNanos >= fullReloadInterval.toNanos();
+    }
+
+    private synchronized void fullyLoaded() {
+        loaded = true;
+        lastFullLoadNanos = System.nanoTime();
+    }
+
+    /**
+     * 끝난 refresh 를 다음 refresh 가 기다리지 않도록 (이전 refresh 들이 참조로 계속 이어지지 않도록) 끊습니다.
+     */
+    private synchronized void clearLast(Mono<Void> finished) {
+        if (last == finished) last = Mono.empty();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.spotifyaggregator.util;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 같은 key 로 동시에 들어온 요청이 한 번의 실행 결과를 함께 받도록 합니다. (single-flight)
+ * 실행 중에 들어온 요청은 먼저 시작된 실행을 구독하고, 실행이 끝나면(성공 / 실패) key 를 지우므로 결과를 보관하지는 않습니다.
+ * 먼저 구독한 요청이 취소되어도 실행은 계속되어 나머지 요청이 결과를 받습니다.
+ */
+public final class SingleFlight<K> {
+
+    private final Map<K, Mono<?>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> execute(K key, Supplier<Mono<T>> loader) {
+        return Mono.defer(() -> {
+            Mono<?> existing = inFlight.get(key);
+            if (existing != null) {
+                coalesced.increment();
+                return (Mono<T>) existing;
+            }
+
+            AtomicReference<Mono<T>> self = new AtomicReference<>();
+            Mono<T> flight = Mono.defer(loader)
+                    .doFinally(signal -> inFlight.remove(key, self.get()))
+                    .cache();
+            self.set(flight);
+
+            Mono<?> raced = inFlight.putIfAbsent(key, flight);
+            if (raced != null) {
+                coalesced.increment();
+                return (Mono<T>) raced;
+            }
+            executions.increment();
+            return flight;
+        });
+    }
+
+    /**
+     * @return 실제로 loader 를 실행한 횟수
+     */
+    public long executions() {
+        return executions.sum();
+    }
+
+    /**
+     * @return 실행 중인 같은 key 의 결과를 받은(실행하지 않은) 요청 수
+     */
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.spotifyaggregator.util;
+
+import com.example.spotifyaggregator.domain.Song;
+import com.example.spotifyaggregator.dto.SongWithArtists;
+
+import java.util.List;
+
+/**
+ * DELTA ingestion 에서 변경 여부를 판단하기 위한 row 의 64-bit content hash 입니다.
+ * key 인 (isrc, title) 을 제외한 저장 컬럼(album, release_date, release_year, genre, explicit, popularity)과
+ * 아티스트 목록(정렬 후)을 FNV-1a 로 누적한 뒤 murmur3 fmix64 로 섞습니다.
+ */
+public final class SongContentHash {
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+    private static final int NULL_MARKER = 0xFFFE;
+    private static final int SEPARATOR = 0xFFFF;
+
+    private SongContentHash() {
+    }
+
+    public static long of(SongWithArtists row) {
+        Song song = row.song();
+        long hash = OFFSET_BASIS;
+        hash = mix(hash, song.getAlbum());
+        hash = mix(hash, song.getReleaseDate() == null ? null : song.getReleaseDate().toString());
+        hash = mix(hash, song.getReleaseYear() == null ? null : song.getReleaseYear().toString());
+        hash = mix(hash, song.getGenre());
+        hash = mix(hash, song.getExplicit() == null ? null : song.getExplicit().toString());
+        hash = mix(hash, song.getPopularity() == null ? null : song.getPopularity().toString());
+
+        List<String> artists = row.artists().stream().sorted().toList();
+        for (String artist : artists) {
+            hash = mix(hash, artist);
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static long mix(long hash, String value) {
+        if (value == null) {
+            return (hash ^ NULL_MARKER) * PRIME;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * PRIME;
+        }
+        return (hash ^ SEPARATOR) * PRIME;
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.spotifyaggregator.util;
+
+import com.example.spotifyaggregator.domain.Song;
+import com.example.spotifyaggregator.dto.SongWithArtists;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.spotifyaggregator.util.DateUtil.parseReleaseDate;
+
+/**
+ * NDJSON 한 줄을 JsonNode 트리 없이 Jackson 토큰 단위로 읽어 SongWithArtists 로 변환합니다.
+ * - 필요한 필드만 문자열로 꺼내고, 나머지(가사 text 등)는 값을 만들지 않고 skip
+ * - 발매일은 한 번만 파싱, 아티스트 분리는 정규식 없이 처리
+ * - 파서 버퍼는 공유 JsonFactory 의 BufferRecycler 를 통해 재사용
+ * 기존 readTree + path(...).asText() 매핑과 동일한 값을 만들어 냅니다.
+ */
+public class SongRowDecoder {
+
+    private final JsonFactory jsonFactory = JsonFactory.builder()
+            .enable(JsonReadFeature.ALLOW_NON_NUMERIC_NUMBERS)
+            .enable(StreamReadFeature.INCLUDE_SOURCE_IN_LOCATION)
+            .build();
+
+    public SongWithArtists decode(String line) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(line)) {
+            return decode(parser);
+        }
+    }
+
+    public SongWithArtists decode(byte[] buffer, int offset, int length) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(buffer, offset, length)) {
+            return decode(parser);
+        }
+    }
+
+    private SongWithArtists decode(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "NDJSON row 가 JSON object 가 아닙니다.");
+        }
+
+        String isrc = "";
+        String title = "";
+        String album = "";
+        String releaseDate = "";
+        String genre = "";
+        String explicit = "";
+        int popularity = 0;
+        String artists = "";
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "ISRC" -> isrc = text(parser, value);
+                case "song" -> title = text(parser, value);
+                case "Album" -> album = text(parser, value);
+                case "Release Date" -> releaseDate = text(parser, value);
+                case "Genre" -> genre = text(parser, value);
+                case "Explicit" -> explicit = text(parser, value);
+                case "Popularity" -> popularity = integer(parser, value);
+                case "Artist(s)" -> artists = text(parser, value);
+                default -> parser.skipChildren();
+            }
+        }
+
+        LocalDate date = parseReleaseDate(releaseDate);
+        if (date == null) {
+            throw new JsonParseException(parser, "발매일을 파싱할 수 없습니다 : " + releaseDate);
+        }
+
+        Song song = Song.builder()
+                .isrc(isrc)
+                .title(title)
+                .album(album)
+                .releaseDate(date)
+                .releaseYear(date.getYear())
+                .genre(genre)
+                .explicit("Yes".equalsIgnoreCase(explicit))
+                .popularity(popularity)
+                .build();
+
+        return new SongWithArtists(song, splitArtists(artists));
+    }
+
+    /**
+     * JsonNode#asText 와 같은 규칙 : scalar 는 텍스트, null 은 "null", object/array 는 "".
+     */
+    private static String text(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return "";
+        }
+        return parser.getText();
+    }
+
+    /**
+     * JsonNode#asInt 와 같은 규칙 : 숫자 문자열은 파싱, 그 외는 0.
+     */
+    private static int integer(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return 0;
+        }
+        return parser.getValueAsInt(0);
+    }
+
+    /**
+     * "A; B, C" → [A, B, C] : ';' 또는 ',' 로 분리, 앞뒤 공백 제거, 빈 값/중복 제거 (순서 유지)
+     */
+    static List<String> splitArtists(String raw) {
+        List<String> names = new ArrayList<>(2);
+        int length = raw.length();
+        int start = 0;
+        while (start <= length) {
+            int end = start;
+            while (end < length && raw.charAt(end) != ';' && raw.charAt(end) != ',') end++;
+
+            int from = start;
+            int to = end;
+            while (from < to && raw.charAt(from) <= ' ') from++;
+            while (to > from && raw.charAt(to - 1) <= ' ') to--;
+            if (from < to) {
+                String name = raw.substring(from, to);
+                if (!names.contains(name)) names.add(name);
+            }
+            start = end + 1;
+        }
+        return List.copyOf(names);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.spotifyaggregator.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 연도 기준 keyset 페이지네이션 cursor. 클라이언트에는 URL-safe Base64 문자열로만 노출합니다.
+ * 첫 페이지에서 계산한 전체 건수를 cursor 에 실어 보내 다음 페이지에서 COUNT 를 다시 하지 않습니다.
+ *
+ * @param lastYear 이전 페이지의 마지막 연도 (다음 페이지는 이 연도 초과부터)
+ * @param total    전체 건수 (요청하지 않았으면 null)
+ */
+public record YearCursor(int lastYear, Long total) {
+
+    private static final String VERSION = "y1";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public static YearCursor first() {
+        return new YearCursor(Integer.MIN_VALUE, null);
+    }
+
+    public String encode() {
+        String value = VERSION + ':' + lastYear + ':' + (total == null ? "" : total);
+        return ENCODER.encodeToString(value.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @throws IllegalArgumentException 이 클래스가 만든 cursor 가 아닌 경우
+     */
+    public static YearCursor decode(String cursor) {
+        String value = new String(DECODER.decode(cursor), StandardCharsets.US_ASCII);
+        String[] parts = value.split(":", -1);
+        if (parts.length != 3 || !VERSION.equals(parts[0])) {
+            throw new IllegalArgumentException("잘못된 cursor 입니다 : " + cursor);
+        }
+        return new YearCursor(Integer.parseInt(parts[1]), parts[2].isEmpty() ? null : Long.valueOf(parts[2]));
+    }
+}
@@ -1,4 +1,6 @@
 -- 기존 테이블 제거 (사용 시 disable 주석 처리)
+DROP TABLE IF EXISTS album_stats_by_artist_year;
+DROP TABLE IF EXISTS album_stats_by_year;
 DROP TABLE IF EXISTS song_artist;
 DROP TABLE IF EXISTS song;
 DROP TABLE IF EXISTS artist;
@@ -14,6 +16,7 @@ CREATE TABLE IF NOT EXISTS song (
     genre VARCHAR(100),
     explicit BOOLEAN,
     popularity INT,
+    content_hash BIGINT,
     UNIQUE KEY uq_song_isrc_title (isrc, title)
     ) ENGINE=InnoDB
     DEFAULT CHARSET = utf8mb4
@@ -44,4 +47,48 @@ CREATE TABLE IF NOT EXISTS song_artist (
     COLLATE = utf8mb4_unicode_ci;
 
 CREATE INDEX idx_song_artist_song_id ON song_artist(song_id);
-CREATE INDEX idx_song_artist_artist_id ON song_artist(artist_id);
\ No newline at end of file
+CREATE INDEX idx_song_artist_artist_id ON song_artist(artist_id);
+
+-- 앨범 통계 (album-stats.read-source = materialized 일 때 조회, ingestion 이 건드린 연도 / 아티스트만 다시 계산)
+CREATE TABLE IF NOT EXISTS album_stats_by_year (
+    release_year INT PRIMARY KEY,
+    album_count BIGINT NOT NULL
+    ) ENGINE=InnoDB
+    DEFAULT CHARSET = utf8mb4
+    COLLATE = utf8mb4_unicode_ci;
+
+CREATE TABLE IF NOT EXISTS album_stats_by_artist_year (
+    artist_id BIGINT NOT NULL,
+    release_year INT NOT NULL,
+    album_count BIGINT NOT NULL,
+    PRIMARY KEY (artist_id, release_year)
+    ) ENGINE=InnoDB
+    DEFAULT CHARSET = utf8mb4
+    COLLATE = utf8mb4_unicode_ci;
+
+-- ingestion 실행 이력 (재시작 시에도 유지되도록 DROP 하지 않음)
+CREATE TABLE IF NOT EXISTS ingestion_run (
+    run_id VARCHAR(64) PRIMARY KEY,
+    source VARCHAR(1024) NOT NULL,
+    write_mode VARCHAR(20) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    success_count BIGINT NOT NULL DEFAULT 0,
+    failure_count BIGINT NOT NULL DEFAULT 0,
+    started_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+    ) ENGINE=InnoDB
+    DEFAULT CHARSET = utf8mb4
+    COLLATE = utf8mb4_unicode_ci;
+
+-- partition 별 checkpoint (classpath 입력은 줄 번호, 파일 입력은 byte offset)
+CREATE TABLE IF NOT EXISTS ingestion_checkpoint (
+    run_id VARCHAR(64) NOT NULL,
+    partition_no INT NOT NULL,
+    start_offset BIGINT NOT NULL,
+    end_offset BIGINT NOT NULL,
+    committed_offset BIGINT NOT NULL,
+    PRIMARY KEY (run_id, partition_no),
+    FOREIGN KEY (run_id) REFERENCES ingestion_run(run_id) ON DELETE CASCADE
+    ) ENGINE=InnoDB
+    DEFAULT CHARSET = utf8mb4
+    COLLATE = utf8mb4_unicode_ci;
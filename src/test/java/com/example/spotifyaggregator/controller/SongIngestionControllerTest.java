@@ -0,0 +1,260 @@
+package com.example.spotifyaggregator.controller;
+
+import com.example.spotifyaggregator.dto.CommonResponse;
+import com.example.spotifyaggregator.dto.IngestionJobResponse;
+import com.example.spotifyaggregator.dto.IngestionRunResponse;
+import com.example.spotifyaggregator.dto.SongIngestionResult;
+import com.example.spotifyaggregator.service.IngestionRunState;
+import com.example.spotifyaggregator.service.SongIngestionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+class SongIngestionControllerTest {
+
+    static final Path allowedRoot = createAllowedRoot();
+
+    private static final ParameterizedTypeReference<CommonResponse<IngestionJobResponse>> JOB_RESPONSE =
+            new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<ServerSentEvent<IngestionJobResponse>> JOB_EVENT =
+            new ParameterizedTypeReference<>() {};
+
+    @DynamicPropertySource
+    static void overrideProperties(DynamicPropertyRegistry registry) {
+        registry.add("ingestion.file.allowed-root", allowedRoot::toString);
+        registry.add("ingestion.job.progress-interval", () -> "100ms");
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private SongIngestionService songIngestionService;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = webTestClient.mutate().responseTimeout(Duration.ofSeconds(60)).build();
+    }
+
+    @Test
+    @DisplayName("job 을 시작하면 바로 RUNNING 을 돌려주고, 진행 SSE 는 COMPLETED 를 보낸 뒤 끝난다")
+    void testJobRunsToCompletion() throws IOException {
+        String titlePrefix = "job-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        Path file = writeSongs(titlePrefix, 1);
+        int total = Files.readAllLines(file).size();
+
+        IngestionJobResponse started = startJob(file);
+        assertThat(started.status()).isEqualTo(IngestionRunState.RUNNING.name());
+        assertThat(started.source()).isEqualTo(file.toString());
+        assertThat(started.writeMode()).isEqualTo("PER_ROW");
+
+        // 끝나지 않는 stream 이면 여기서 timeout
+        List<ServerSentEvent<IngestionJobResponse>> events = webTestClient.get()
+                .uri("/api/songs/ingest/jobs/{jobId}/events", started.jobId())
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(JOB_EVENT)
+                .getResponseBody()
+                .collectList()
+                .block(Duration.ofSeconds(60));
+
+        assertThat(events).isNotEmpty();
+        ServerSentEvent<IngestionJobResponse> last = events.get(events.size() - 1);
+        assertThat(last.event()).isEqualTo("completed");
+        assertThat(last.data().status()).isEqualTo(IngestionRunState.COMPLETED.name());
+        assertThat(events.subList(0, events.size() - 1))
+                .allMatch(event -> IngestionRunState.RUNNING.name().equals(event.data().status()));
+
+        IngestionJobResponse completed = getJob(started.jobId());
+        assertThat(completed.status()).isEqualTo(IngestionRunState.COMPLETED.name());
+        assertThat(completed.result()).isNotNull();
+        assertThat(completed.result().successCount() + completed.result().failureCount()).isEqualTo(total);
+        assertThat(completed.writtenRows()).isEqualTo(completed.result().successCount());
+        assertThat(songIngestionService.getRun(started.jobId()).block().status())
+                .isEqualTo(IngestionRunState.COMPLETED.name());
+    }
+
+    @Test
+    @DisplayName("DELETE 로 job 을 취소하면 실행 중인 run 의 구독이 해제되고 run 은 CANCELLED 로 저장된다")
+    void testCancelJob() throws IOException {
+        String titlePrefix = "job-cancel-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        Path file = writeSongs(titlePrefix, 40);
+        int total = Files.readAllLines(file).size();
+
+        IngestionJobResponse started = startJob(file);
+        await(() -> Mono.fromSupplier(() -> getJob(started.jobId())), job -> job.writtenRows() > 0);
+
+        IngestionJobResponse cancelled = webTestClient.delete()
+                .uri("/api/songs/ingest/jobs/{jobId}", started.jobId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(JOB_RESPONSE)
+                .returnResult()
+                .getResponseBody()
+                .payload();
+        assertThat(cancelled.status()).isEqualTo(IngestionRunState.CANCELLED.name());
+
+        // 구독이 해제되면 run 이 실행 목록에서 빠지고 CANCELLED 로 저장됨
+        await(() -> Mono.just(songIngestionService.findActiveRun(started.jobId()).isEmpty()), inactive -> inactive);
+        IngestionRunResponse run = await(() -> songIngestionService.getRun(started.jobId()),
+                saved -> IngestionRunState.CANCELLED.name().equals(saved.status()));
+        assertThat(run.successCount() + run.failureCount()).isLessThan(total);
+
+        // 더 이상 저장하지 않음
+        long songs = countSongs(titlePrefix);
+        Mono.delay(Duration.ofMillis(500)).block();
+        assertThat(countSongs(titlePrefix)).isEqualTo(songs).isLessThan(total);
+
+        // 끝난 job 의 SSE 는 마지막 상태 하나만 보내고 끝남
+        List<ServerSentEvent<IngestionJobResponse>> events = webTestClient.get()
+                .uri("/api/songs/ingest/jobs/{jobId}/events", started.jobId())
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .returnResult(JOB_EVENT)
+                .getResponseBody()
+                .collectList()
+                .block(Duration.ofSeconds(10));
+        assertThat(events).extracting(ServerSentEvent::event).containsExactly("cancelled");
+    }
+
+    @Test
+    @DisplayName("NDJSON 업로드는 줄이 DataBuffer 경계에 걸려 잘려 와도 모든 줄을 적재한다")
+    void testUploadSplitAcrossBuffers() throws IOException {
+        String titlePrefix = "upload-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        Path file = writeSongs(titlePrefix, 1);
+        int total = Files.readAllLines(file).size();
+        byte[] body = Files.readAllBytes(file);
+
+        // 줄 길이와 무관한 크기로 잘라 줄 중간(멀티바이트 문자 중간 포함)에서 buffer 가 끊기도록 함
+        DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+        List<DataBuffer> chunks = new ArrayList<>();
+        for (int from = 0, size = 1; from < body.length; from += size, size = size * 7 % 4093 + 1) {
+            chunks.add(bufferFactory.wrap(Arrays.copyOfRange(body, from, Math.min(body.length, from + size))));
+        }
+        assertThat(chunks).hasSizeGreaterThan(total / 10);
+
+        SongIngestionResult result = webTestClient.post()
+                .uri(uri -> uri.path("/api/songs/ingest/upload").queryParam("mode", "BATCH").build())
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(BodyInserters.fromDataBuffers(Flux.fromIterable(chunks)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<CommonResponse<SongIngestionResult>>() {})
+                .returnResult()
+                .getResponseBody()
+                .payload();
+
+        assertThat(result.successCount() + result.failureCount()).isEqualTo(total);
+        assertThat(result.failureCount()).isZero();
+        assertThat(countSongs(titlePrefix)).isEqualTo(total);
+    }
+
+    private IngestionJobResponse startJob(Path file) {
+        return webTestClient.post()
+                .uri(uri -> uri.path("/api/songs/ingest/jobs")
+                        .queryParam("mode", "PER_ROW")
+                        .queryParam("path", file.toString())
+                        .build())
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody(JOB_RESPONSE)
+                .returnResult()
+                .getResponseBody()
+                .payload();
+    }
+
+    private IngestionJobResponse getJob(String jobId) {
+        return webTestClient.get()
+                .uri("/api/songs/ingest/jobs/{jobId}", jobId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(JOB_RESPONSE)
+                .returnResult()
+                .getResponseBody()
+                .payload();
+    }
+
+    /**
+     * probe 결과가 done 을 만족할 때까지 50ms 간격으로 다시 확인합니다. (probe 안에서 block 할 수 있도록 boundedElastic 에서 반복)
+     */
+    private static <T> T await(Supplier<Mono<T>> probe, Predicate<T> done) {
+        return Mono.defer(probe)
+                .filter(done)
+                .repeatWhenEmpty(repeat -> repeat.delayElements(Duration.ofMillis(50), Schedulers.boundedElastic()))
+                .block(Duration.ofSeconds(30));
+    }
+
+    private long countSongs(String titlePrefix) {
+        return databaseClient.sql("SELECT COUNT(*) AS songs FROM song WHERE title LIKE :prefix")
+                .bind("prefix", titlePrefix + "%")
+                .map((row, meta) -> row.get("songs", Long.class))
+                .one()
+                .block(Duration.ofSeconds(10));
+    }
+
+    /**
+     * 테스트 파일을 copies 번 이어 붙이며, 줄마다 다른 노래가 되도록 제목에 prefix 와 줄 번호를 붙입니다.
+     */
+    private static Path writeSongs(String titlePrefix, int copies) throws IOException {
+        List<String> lines;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource("data/songs_test.json").getInputStream(), StandardCharsets.UTF_8))) {
+            lines = reader.lines().filter(line -> !line.isBlank()).toList();
+        }
+        List<String> songs = new ArrayList<>(lines.size() * copies);
+        for (int copy = 0; copy < copies; copy++) {
+            for (String line : lines) {
+                songs.add(line.replace("\"song\": \"", "\"song\": \"" + titlePrefix + songs.size() + "-"));
+            }
+        }
+        return Files.write(allowedRoot.resolve(titlePrefix + "songs.ndjson"), songs, StandardCharsets.UTF_8);
+    }
+
+    private static Path createAllowedRoot() {
+        try {
+            return Files.createTempDirectory("song-ingestion-controller").toRealPath();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
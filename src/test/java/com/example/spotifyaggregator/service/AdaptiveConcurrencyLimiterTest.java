@@ -0,0 +1,152 @@
+package com.example.spotifyaggregator.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("성공이 이어지면 limit 이 작업마다 1 / limit 씩 늘어난다")
+    void additiveIncrease() {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(2, 32, 10, 1e9, Duration.ofHours(1));
+        double expected = 10;
+        for (int i = 0; i < 20; i++) {
+            success(limiter);
+            expected += 1.0 / expected;
+        }
+        assertThat(limiter.getLimit()).isCloseTo(expected, within(1e-9));
+    }
+
+    @Test
+    @DisplayName("실패하거나 에러가 나면 limit 을 backoff-ratio 만큼 줄이고, cooldown 동안은 다시 줄이지 않는다")
+    void multiplicativeDecreaseOnFailureWithCooldown() {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(2, 32, 10, 1e9, Duration.ofHours(1));
+
+        limiter.run(Mono.just(true), failed -> failed).block();
+        assertThat(limiter.getLimit()).isCloseTo(9.0, within(1e-9));
+
+        assertThatThrownBy(() -> limiter.run(Mono.error(new IllegalStateException("db")), failed -> false).block())
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(limiter.getLimit()).isCloseTo(9.0, within(1e-9));
+
+        AdaptiveConcurrencyLimiter noCooldown = newLimiter(2, 32, 10, 1e9, Duration.ZERO);
+        noCooldown.run(Mono.just(true), failed -> failed).block();
+        assertThatThrownBy(() -> noCooldown.run(Mono.error(new IllegalStateException("db")), failed -> false).block())
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(noCooldown.getLimit()).isCloseTo(10 * 0.9 * 0.9, within(1e-9));
+    }
+
+    @Test
+    @DisplayName("지연이 무부하 지연 * tolerance 를 넘으면 limit 을 줄인다")
+    void multiplicativeDecreaseOnLatency() {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(2, 32, 10, 2.0, Duration.ZERO);
+
+        for (int i = 0; i < 5; i++) {
+            success(limiter); // 무부하 지연 측정
+        }
+        double afterFast = limiter.getLimit();
+        limiter.run(Mono.delay(Duration.ofMillis(50)).thenReturn(false), failed -> failed).block();
+
+        assertThat(limiter.getLimit()).isCloseTo(afterFast * 0.9, within(1e-9));
+    }
+
+    @Test
+    @DisplayName("limit 은 min ~ max 밖으로 나가지 않는다")
+    void clampsToMinAndMax() {
+        AdaptiveConcurrencyLimiter capped = newLimiter(2, 4, 40, 1e9, Duration.ZERO);
+        assertThat(capped.getLimit()).isEqualTo(4.0);
+        for (int i = 0; i < 10; i++) {
+            success(capped);
+        }
+        assertThat(capped.getLimit()).isEqualTo(4.0);
+
+        AdaptiveConcurrencyLimiter floored = newLimiter(2, 32, 1, 1e9, Duration.ZERO);
+        assertThat(floored.getLimit()).isEqualTo(2.0);
+        for (int i = 0; i < 10; i++) {
+            floored.run(Mono.just(true), failed -> failed).block();
+        }
+        assertThat(floored.getLimit()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("대기 중에 취소된 요청은 permit 을 가져가지 않고, 실행 중에 취소된 작업은 permit 을 돌려준다")
+    void cancelledWaiterReleasesPermit() {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(1, 1, 1, 1e9, Duration.ZERO);
+
+        Disposable running = limiter.run(Mono.<Boolean>never(), failed -> failed).subscribe();
+        AtomicBoolean started = new AtomicBoolean();
+        Disposable waiting = limiter.run(Mono.fromCallable(() -> started.getAndSet(true)), failed -> false).subscribe();
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+        assertThat(started).isFalse();
+
+        waiting.dispose();
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+        running.dispose();
+        assertThat(limiter.getInFlight()).isZero();
+        assertThat(started).isFalse();
+
+        // permit 이 남아 있지 않으면 여기서 대기하게 됨
+        assertThat(limiter.run(Mono.just(false), failed -> failed).block(Duration.ofSeconds(1))).isFalse();
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("아무것도 쓰지 않은 작업은 지연과 무관하게 limit 조절에 쓰지 않는다")
+    void noOpWritesAreIgnored() {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(2, 32, 10, 2.0, Duration.ZERO);
+
+        limiter.run(Mono.just(false), failed -> failed, noOp -> true).block();
+        limiter.run(Mono.delay(Duration.ofMillis(50)).thenReturn(false), failed -> failed, noOp -> true).block();
+        assertThat(limiter.getLimit()).isEqualTo(10.0);
+
+        // no-op 이어도 실패는 반영
+        limiter.run(Mono.just(true), failed -> failed, noOp -> true).block();
+        assertThat(limiter.getLimit()).isCloseTo(9.0, within(1e-9));
+    }
+
+    @Test
+    @DisplayName("현재 limit 과 실행 중인 작업 수를 ingestion.write.concurrency.* gauge 로 노출한다")
+    void exposesGauges() {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(2, 32, 10, 1e9, Duration.ofHours(1));
+        assertThat(meterRegistry.get("ingestion.write.concurrency.limit").gauge().value()).isEqualTo(10.0);
+
+        Disposable running = limiter.run(Mono.<Boolean>never(), failed -> failed).subscribe();
+        assertThat(meterRegistry.get("ingestion.write.concurrency.inflight").gauge().value()).isEqualTo(1.0);
+
+        running.dispose();
+        assertThat(meterRegistry.get("ingestion.write.concurrency.inflight").gauge().value()).isZero();
+        limiter.run(Mono.just(true), failed -> failed).block();
+        assertThat(meterRegistry.get("ingestion.write.concurrency.limit").gauge().value())
+                .isCloseTo(limiter.getLimit(), within(1e-9));
+    }
+
+    private static void success(AdaptiveConcurrencyLimiter limiter) {
+        limiter.run(Mono.just(false), failed -> failed).block();
+    }
+
+    private AdaptiveConcurrencyLimiter newLimiter(int min, int max, int initial, double latencyTolerance,
+                                                  Duration cooldown) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(meterRegistry);
+        ReflectionTestUtils.setField(limiter, "minLimit", min);
+        ReflectionTestUtils.setField(limiter, "maxLimit", max);
+        ReflectionTestUtils.setField(limiter, "initialLimit", initial);
+        ReflectionTestUtils.setField(limiter, "latencyTolerance", latencyTolerance);
+        ReflectionTestUtils.setField(limiter, "backoffRatio", 0.9);
+        ReflectionTestUtils.setField(limiter, "cooldown", cooldown);
+        ReflectionTestUtils.invokeMethod(limiter, "init");
+        return limiter;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.spotifyaggregator.service;
+
+import com.example.spotifyaggregator.dto.AlbumStatsByYearResponse;
+import com.example.spotifyaggregator.dto.ApproximatePagedResponse;
+import com.example.spotifyaggregator.dto.PagedResponse;
+import com.example.spotifyaggregator.repository.ArtistRepository;
+import com.example.spotifyaggregator.repository.SongArtistRepository;
+import com.example.spotifyaggregator.repository.SongRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@ActiveProfiles("test")
+@Testcontainers
+@SpringBootTest(properties = {
+        "album-stats.sketch.enabled=true",
+        "album-stats.sketch.flush-interval=1h" // 테스트에서는 flush() 로 직접 반영
+})
+class AlbumSketchStoreTest {
+
+    @Container
+    static final GenericContainer<?> redis = new GenericContainer<>("redis:7.0.0")
+            .withExposedPorts(6379)
+            .waitingFor(Wait.forListeningPort())
+            .withStartupTimeout(Duration.ofSeconds(10));
+
+    @DynamicPropertySource
+    static void overrideRedisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", redis::getHost);
+        registry.add("spring.data.redis.port", () -> redis.getMappedPort(6379));
+    }
+
+    @Autowired private SongIngestionService songIngestionService;
+    @Autowired private AlbumSketchStore albumSketchStore;
+    @Autowired private AlbumStatsService albumStatsService;
+    @Autowired private SongRepository songRepository;
+    @Autowired private ArtistRepository artistRepository;
+    @Autowired private SongArtistRepository songArtistRepository;
+
+    @BeforeEach
+    void setUp() {
+        songArtistRepository.deleteAll().block();
+        songRepository.deleteAll().block();
+        artistRepository.deleteAll().block();
+        albumSketchStore.rebuild().block();
+    }
+
+    @Test
+    @DisplayName("ingestion 후 sketch 로 추정한 연도별 앨범 수가 정확한 값의 오차 범위 안에 있다")
+    void approximateCountsWithinErrorBound() {
+        songIngestionService.ingestFromJsonFile("data/songs_test.json", IngestionWriteMode.BATCH)
+                .then(albumSketchStore.flush())
+                .block();
+
+        PagedResponse<AlbumStatsByYearResponse> exact = albumStatsService.getAlbumStatsByYear(0, 100).block();
+        ApproximatePagedResponse<AlbumStatsByYearResponse> approximate =
+                albumStatsService.getApproximateAlbumStatsByYear(0, 100).block();
+
+        assertThat(approximate.approximate()).isTrue();
+        assertThat(approximate.relativeStandardError()).isEqualTo(AlbumSketchStore.RELATIVE_STANDARD_ERROR);
+        assertThat(approximate.content()).isNotEmpty();
+        approximate.content().forEach(estimated -> {
+            long actual = exact.content().stream()
+                    .filter(row -> row.releaseYear() == estimated.releaseYear())
+                    .findFirst()
+                    .map(AlbumStatsByYearResponse::albumCount)
+                    .orElseThrow();
+            assertThat((double) estimated.albumCount())
+                    .isCloseTo(actual, within(Math.max(1.0, actual * 3 * approximate.relativeStandardError())));
+        });
+    }
+
+    @Test
+    @DisplayName("rebuild 는 원본 테이블에서 sketch 를 다시 만든다")
+    void rebuildFromSource() {
+        songIngestionService.ingestFromJsonFile("data/songs_test.json", IngestionWriteMode.PER_ROW).block();
+
+        StepVerifier.create(albumSketchStore.rebuild())
+                .expectNextMatches(result -> result.entries() > 0)
+                .verifyComplete();
+        StepVerifier.create(albumStatsService.getApproximateAlbumStatsByYear(0, 10))
+                .expectNextMatches(page -> page.approximate() && page.totalElements() > 0)
+                .verifyComplete();
+    }
+}
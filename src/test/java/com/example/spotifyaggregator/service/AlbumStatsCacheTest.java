@@ -0,0 +1,84 @@
+package com.example.spotifyaggregator.service;
+
+import com.fasterxml.jackson.databind.JavaType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "album-stats.cache.enabled=true")
+@ActiveProfiles("test")
+class AlbumStatsCacheTest {
+
+    @Autowired private AlbumStatsCache albumStatsCache;
+
+    @Test
+    @DisplayName("같은 key 는 캐시에서 반환하고, data version 이 오르면 다시 조회한다")
+    void invalidatesOnDataVersionBump() {
+        AtomicInteger loads = new AtomicInteger();
+        JavaType type = albumStatsCache.type(List.class, Integer.class);
+
+        StepVerifier.create(albumStatsCache.get("cache-test:hit", type, () -> Mono.just(List.of(loads.incrementAndGet()))))
+                .expectNext(List.of(1)).verifyComplete();
+        StepVerifier.create(albumStatsCache.get("cache-test:hit", type, () -> Mono.just(List.of(loads.incrementAndGet()))))
+                .expectNext(List.of(1)).verifyComplete();
+
+        albumStatsCache.invalidate();
+
+        StepVerifier.create(albumStatsCache.get("cache-test:hit", type, () -> Mono.just(List.of(loads.incrementAndGet()))))
+                .expectNext(List.of(2)).verifyComplete();
+    }
+
+    @Test
+    @DisplayName("loader 의 에러는 캐시하지 않는다")
+    void doesNotCacheErrors() {
+        JavaType type = albumStatsCache.type(List.class, Integer.class);
+
+        StepVerifier.create(albumStatsCache.<List<Integer>>get("cache-test:error", type,
+                        () -> Mono.error(new IllegalStateException("boom"))))
+                .verifyError(IllegalStateException.class);
+        StepVerifier.create(albumStatsCache.get("cache-test:error", type, () -> Mono.just(List.of(7))))
+                .expectNext(List.of(7)).verifyComplete();
+    }
+
+    @Test
+    @DisplayName("무효화 뒤에 들어온 요청은 무효화 전에 시작한 조회에 합쳐지지 않고, 늦게 끝난 이전 결과가 캐시되지 않는다")
+    void doesNotCoalesceAcrossDataVersions() {
+        JavaType type = albumStatsCache.type(List.class, Integer.class);
+        AtomicInteger loads = new AtomicInteger();
+        Sinks.One<List<Integer>> beforeIngestion = Sinks.one();
+
+        CompletableFuture<List<Integer>> stale = albumStatsCache.<List<Integer>>get("cache-test:version", type, () -> {
+            loads.incrementAndGet();
+            return beforeIngestion.asMono();
+        }).toFuture();
+
+        albumStatsCache.invalidate();
+
+        StepVerifier.create(albumStatsCache.get("cache-test:version", type, () -> {
+                    loads.incrementAndGet();
+                    return Mono.just(List.of(2));
+                }))
+                .expectNext(List.of(2)).verifyComplete();
+
+        beforeIngestion.tryEmitValue(List.of(1));
+        assertThat(stale.join()).containsExactly(1);
+
+        StepVerifier.create(albumStatsCache.get("cache-test:version", type, () -> {
+                    loads.incrementAndGet();
+                    return Mono.just(List.of(3));
+                }))
+                .expectNext(List.of(2)).verifyComplete();
+        assertThat(loads).hasValue(2);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.spotifyaggregator.service;
+
+import com.example.spotifyaggregator.repository.ArtistRepository;
+import com.example.spotifyaggregator.repository.SongArtistRepository;
+import com.example.spotifyaggregator.repository.SongRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+@SpringBootTest(properties = {
+        "album-stats.read-source=materialized",
+        "album-stats.materialized.refresh-interval=1h" // 테스트에서는 flush() 로 직접 갱신
+})
+@ActiveProfiles("test")
+class AlbumStatsMaintainerTest {
+
+    @Autowired private SongIngestionService songIngestionService;
+    @Autowired private AlbumStatsMaintainer albumStatsMaintainer;
+    @Autowired private AlbumStatsService albumStatsService;
+    @Autowired private SongRepository songRepository;
+    @Autowired private ArtistRepository artistRepository;
+    @Autowired private SongArtistRepository songArtistRepository;
+    @Autowired private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void setUp() {
+        songArtistRepository.deleteAll().block();
+        songRepository.deleteAll().block();
+        artistRepository.deleteAll().block();
+        albumStatsMaintainer.recomputeAll().block();
+    }
+
+    @Test
+    @DisplayName("ingestion 후 dirty key 갱신만으로 통계 테이블이 원본 집계와 같아진다")
+    void incrementalRefreshMatchesSource() {
+        StepVerifier.create(songIngestionService.ingestFromJsonFile("data/songs_test.json", IngestionWriteMode.BATCH)
+                        .then(albumStatsMaintainer.flush())
+                        .then(albumStatsMaintainer.rebuild()))
+                .expectNextMatches(result -> result.consistent() && result.yearRows() > 0 && result.artistYearRows() > 0)
+                .verifyComplete();
+
+        StepVerifier.create(albumStatsService.getAlbumStatsByYear(0, 10))
+                .expectNextMatches(page -> !page.content().isEmpty() && page.totalElements() > 0)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("rebuild 는 원본과 다른 row 를 보고하고 테이블을 교정한다")
+    void rebuildReportsAndFixesDrift() {
+        StepVerifier.create(songIngestionService.ingestFromJsonFile("data/songs_test.json", IngestionWriteMode.PER_ROW)
+                        .then(albumStatsMaintainer.flush())
+                        .then(databaseClient.sql("UPDATE album_stats_by_year SET album_count = album_count + 1").then())
+                        .then(databaseClient.sql("INSERT INTO album_stats_by_year (release_year, album_count) VALUES (1800, 1)").then())
+                        .then(albumStatsMaintainer.rebuild()))
+                .expectNextMatches(result -> !result.consistent()
+                        && result.yearMismatched() == result.yearRows()
+                        && result.yearStale() == 1)
+                .verifyComplete();
+
+        StepVerifier.create(albumStatsMaintainer.rebuild())
+                .expectNextMatches(result -> result.consistent())
+                .verifyComplete();
+    }
+}
@@ -5,6 +5,8 @@ import com.example.spotifyaggregator.domain.Song;
 import com.example.spotifyaggregator.domain.SongArtist;
 import com.example.spotifyaggregator.dto.AlbumStatsByArtistResponse;
 import com.example.spotifyaggregator.dto.AlbumStatsByYearResponse;
+import com.example.spotifyaggregator.dto.ArtistAlbumStatsResponse;
+import com.example.spotifyaggregator.exception.InvalidCursorException;
 import com.example.spotifyaggregator.repository.ArtistRepository;
 import com.example.spotifyaggregator.repository.SongArtistRepository;
 import com.example.spotifyaggregator.repository.SongRepository;
@@ -18,6 +20,7 @@ import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
 import java.time.LocalDate;
+import java.util.List;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -101,4 +104,66 @@ class AlbumStatsServiceTest {
                 })
                 .verifyComplete();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("전체 내보내기는 연도 / 아티스트·연도 순으로 모든 통계를 스트리밍한다.")
+    void testStreamAlbumStats() {
+        StepVerifier.create(albumStatsService.streamAlbumStatsByYear(), 1)
+                .expectNext(new AlbumStatsByYearResponse(2021, 2))
+                .thenRequest(1)
+                .expectNext(new AlbumStatsByYearResponse(2022, 1))
+                .thenRequest(1)
+                .verifyComplete();
+
+        StepVerifier.create(albumStatsService.streamAlbumStatsByArtist())
+                .expectNext(new AlbumStatsByArtistResponse("ArtistA", 2021, 2))
+                .expectNext(new AlbumStatsByArtistResponse("ArtistB", 2022, 1))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("여러 아티스트 조회는 아티스트별 결과를 내보내고, 없는 아티스트는 found=false 로 응답한다.")
+    void testGetAlbumStatsByArtists() {
+        StepVerifier.create(albumStatsService.getAlbumStatsByArtists(List.of("ArtistA", "ArtistB", "Unknown", "ArtistA"))
+                        .collectMap(ArtistAlbumStatsResponse::artist))
+                .assertNext(results -> {
+                    assert results.size() == 3;
+                    assert results.get("ArtistA").found();
+                    assert results.get("ArtistA").years().size() == 1;
+                    assert results.get("ArtistA").years().get(0).albumCount() == 2;
+                    assert results.get("ArtistB").years().get(0).releaseYear() == 2022;
+                    assert !results.get("Unknown").found();
+                    assert results.get("Unknown").years().isEmpty();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("cursor 페이지네이션은 nextCursor 로 다음 연도부터 이어서 조회하고, 전체 건수는 cursor 에 실려 유지된다.")
+    void testGetAlbumStatsByYearAfter() {
+        StepVerifier.create(albumStatsService.getAlbumStatsByYearAfter(null, 1, true)
+                        .flatMap(first -> {
+                            assert first.content().size() == 1;
+                            assert first.content().get(0).releaseYear() == 2021;
+                            assert first.totalElements() == 2;
+                            assert first.nextCursor() != null;
+                            return albumStatsService.getAlbumStatsByYearAfter(first.nextCursor(), 1, false);
+                        }))
+                .assertNext(second -> {
+                    assert second.content().size() == 1;
+                    assert second.content().get(0).releaseYear() == 2022;
+                    assert second.content().get(0).albumCount() == 1;
+                    assert second.totalElements() == 2;
+                    assert second.nextCursor() == null;
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("잘못된 cursor 는 INVALID_CURSOR 로 거부되어야 한다.")
+    void testInvalidCursor() {
+        StepVerifier.create(albumStatsService.getAlbumStatsByArtistAfter("ArtistA", "not-a-cursor", 10, false))
+                .expectErrorMatches(ex -> ex instanceof InvalidCursorException)
+                .verify();
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.spotifyaggregator.service;
+
+import com.example.spotifyaggregator.domain.Song;
+import com.example.spotifyaggregator.dto.SongWithArtists;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeadLetterQueueTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("메모리 한도를 넘는 건은 파일로 spill 되고, 재시작 후에도 전체 레코드로 복구된다")
+    void spillAndRecover() throws IOException {
+        Path spillFile = tempDir.resolve("dlq.ndjson");
+        DeadLetterQueue dlq = newQueue(spillFile, 2);
+        for (int i = 0; i < 5; i++) {
+            dlq.add(row(i));
+        }
+
+        assertThat(dlq.depth()).isEqualTo(5);
+        assertThat(dlq.status().inMemory()).isEqualTo(2);
+        assertThat(dlq.status().spilled()).isEqualTo(5);
+        assertThat(dlq.oldestAgeMillis()).isGreaterThanOrEqualTo(0);
+
+        dlq.flush(); // 종료
+        DeadLetterQueue restarted = newQueue(spillFile, 2);
+        assertThat(restarted.depth()).isEqualTo(5);
+
+        List<DeadLetterQueue.DeadLetter> drained = restarted.drain().collectList().block();
+        assertThat(drained).hasSize(5);
+        assertThat(drained).extracting(letter -> letter.row().song().getIsrc())
+                .containsExactlyInAnyOrder("ISRC0", "ISRC1", "ISRC2", "ISRC3", "ISRC4");
+        assertThat(drained.get(0).row().artists()).containsExactly("Artist A", "Artist B");
+        assertThat(drained.get(0).row().song().getReleaseDate()).isNotNull();
+        assertThat(restarted.depth()).isZero();
+        assertThat(Files.list(tempDir)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("replay 에 실패한 건은 max-attempts 전까지 다시 적재된다")
+    void retryLaterUntilMaxAttempts() {
+        DeadLetterQueue dlq = newQueue(tempDir.resolve("dlq.ndjson"), 10);
+        dlq.add(row(0));
+
+        DeadLetterQueue.DeadLetter letter = drainOne(dlq);
+        assertThat(dlq.retryLater(letter)).isTrue();
+        letter = drainOne(dlq);
+        assertThat(letter.attempts()).isEqualTo(1);
+        assertThat(dlq.retryLater(letter)).isTrue();
+        letter = drainOne(dlq);
+        assertThat(dlq.retryLater(letter)).isFalse();
+        assertThat(dlq.depth()).isZero();
+    }
+
+    @Test
+    @DisplayName("spill 파일의 읽을 수 없는 줄은 corrupt 파일로 옮기고 나머지를 replay 한다")
+    void drainSkipsCorruptLines() throws IOException {
+        Path spillFile = tempDir.resolve("dlq.ndjson");
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        String corrupt = "{\"row\": {\"song\": ";
+        Files.write(spillFile, List.of(
+                objectMapper.writeValueAsString(new DeadLetterQueue.DeadLetter(row(0), 0, 1L)),
+                corrupt,
+                objectMapper.writeValueAsString(new DeadLetterQueue.DeadLetter(row(1), 0, 2L))));
+
+        DeadLetterQueue dlq = newQueue(spillFile, 10);
+        assertThat(dlq.depth()).isEqualTo(3);
+
+        List<DeadLetterQueue.DeadLetter> drained = dlq.drain().collectList().block();
+        assertThat(drained).extracting(letter -> letter.row().song().getIsrc())
+                .containsExactly("ISRC0", "ISRC1");
+        assertThat(dlq.depth()).isZero();
+        assertThat(tempDir.resolve("dlq.ndjson.replaying")).doesNotExist();
+        assertThat(Files.readAllLines(tempDir.resolve("dlq.ndjson.corrupt"))).containsExactly(corrupt);
+
+        // 다음 drain 에서 같은 줄 때문에 다시 실패하지 않음
+        assertThat(dlq.drain().collectList().block()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("메모리에 있는 건도 적재 즉시 파일에 기록되어, flush 없이 종료되어도 재시작 후 복구된다")
+    void recoverWithoutFlush() {
+        Path spillFile = tempDir.resolve("dlq.ndjson");
+        DeadLetterQueue dlq = newQueue(spillFile, 10);
+        for (int i = 0; i < 3; i++) {
+            dlq.add(row(i));
+        }
+        assertThat(dlq.status().inMemory()).isEqualTo(3);
+
+        // 비정상 종료 : @PreDestroy 없이 같은 파일로 다시 시작
+        DeadLetterQueue restarted = newQueue(spillFile, 10);
+        assertThat(restarted.depth()).isEqualTo(3);
+        assertThat(restarted.drain().collectList().block())
+                .extracting(letter -> letter.row().song().getIsrc())
+                .containsExactly("ISRC0", "ISRC1", "ISRC2");
+        assertThat(restarted.depth()).isZero();
+    }
+
+    private DeadLetterQueue.DeadLetter drainOne(DeadLetterQueue dlq) {
+        List<DeadLetterQueue.DeadLetter> drained = dlq.drain().collectList().block();
+        assertThat(drained).hasSize(1);
+        return drained.get(0);
+    }
+
+    private DeadLetterQueue newQueue(Path spillFile, int memoryCapacity) {
+        DeadLetterQueue dlq = new DeadLetterQueue(new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(dlq, "memoryCapacity", memoryCapacity);
+        ReflectionTestUtils.setField(dlq, "spillFilePath", spillFile.toString());
+        ReflectionTestUtils.setField(dlq, "maxAttempts", 3);
+        ReflectionTestUtils.invokeMethod(dlq, "init");
+        return dlq;
+    }
+
+    private SongWithArtists row(int i) {
+        Song song = Song.builder()
+                .isrc("ISRC" + i)
+                .title("title " + i)
+                .album("album")
+                .releaseDate(LocalDate.of(2020, 1, 1))
+                .releaseYear(2020)
+                .genre("pop")
+                .explicit(false)
+                .popularity(50)
+                .build();
+        return new SongWithArtists(song, List.of("Artist A", "Artist B"));
+    }
+}
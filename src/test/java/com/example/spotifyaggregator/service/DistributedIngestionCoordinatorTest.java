@@ -0,0 +1,136 @@
+package com.example.spotifyaggregator.service;
+
+import com.example.spotifyaggregator.dto.DistributedIngestionResponse;
+import com.example.spotifyaggregator.dto.SongIngestionResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("test")
+@Testcontainers
+@SpringBootTest(properties = {
+        "ingestion.distributed.enabled=true",
+        "ingestion.distributed.instance-id=node-a",
+        "ingestion.distributed.partitions=2",
+        "ingestion.distributed.lease-ttl=1s",
+        "ingestion.distributed.poll-interval=200ms",
+        "ingestion.distributed.max-partition-attempts=2"
+})
+class DistributedIngestionCoordinatorTest {
+
+    @Container
+    static final GenericContainer<?> redis = new GenericContainer<>("redis:7.0.0")
+            .withExposedPorts(6379)
+            .waitingFor(Wait.forListeningPort())
+            .withStartupTimeout(Duration.ofSeconds(10));
+
+    static final Path allowedRoot = createAllowedRoot();
+
+    @DynamicPropertySource
+    static void overrideProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", redis::getHost);
+        registry.add("spring.data.redis.port", () -> redis.getMappedPort(6379));
+        registry.add("ingestion.file.allowed-root", allowedRoot::toString);
+    }
+
+    @Autowired
+    private DistributedIngestionCoordinator coordinator;
+
+    @Autowired
+    private SongIngestionService songIngestionService;
+
+    @Autowired
+    private PartitionLeaseStore leaseStore;
+
+    @Test
+    @DisplayName("죽은 인스턴스의 lease 가 만료되면 다른 인스턴스가 마지막 checkpoint 부터 이어서 처리한다")
+    void reclaimsExpiredPartitionFromCheckpoint() throws IOException {
+        Path file = writeSongs("reclaim.ndjson", 40);
+        SongIngestionResult singlePass = songIngestionService.ingestFromFile(file, IngestionWriteMode.PER_ROW)
+                .block(Duration.ofSeconds(30));
+        assertThat(singlePass).isNotNull();
+
+        String runId = songIngestionService.createDistributedRun(file.toString(), IngestionWriteMode.PER_ROW, 2)
+                .block(Duration.ofSeconds(10))
+                .getRunId();
+        // partition 0 을 끝까지 처리했지만 완료 표시 전에 죽은 인스턴스
+        assertThat(leaseStore.tryAcquire(runId, 0, "dead-node", Duration.ofSeconds(1)).block()).isTrue();
+        songIngestionService.ingestPartition(runId, 0).block(Duration.ofSeconds(30));
+        leaseStore.register(runId).block();
+
+        StepVerifier.create(awaitStatus(runId, IngestionRunState.COMPLETED))
+                .assertNext(status -> {
+                    assertThat(status.donePartitions()).isEqualTo(2);
+                    assertThat(status.failedPartitions()).isZero();
+                    // partition 0 을 처음부터 다시 처리했다면 한 번 적재한 건수보다 많아짐
+                    assertThat(status.successCount() + status.failureCount())
+                            .isEqualTo(singlePass.successCount() + singlePass.failureCount());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("계속 실패하는 partition 은 max-partition-attempts 번 시도 후 FAILED 로 두고 run 을 FAILED 로 끝낸다")
+    void marksRepeatedlyFailingPartitionsFailed() throws IOException {
+        Path file = writeSongs("missing.ndjson", 10);
+        String runId = songIngestionService.createDistributedRun(file.toString(), IngestionWriteMode.PER_ROW, 2)
+                .block(Duration.ofSeconds(10))
+                .getRunId();
+        // run 을 만든 인스턴스에만 있고 이 인스턴스에는 없는 파일
+        Files.delete(file);
+        leaseStore.register(runId).block();
+
+        StepVerifier.create(awaitStatus(runId, IngestionRunState.FAILED))
+                .assertNext(status -> {
+                    assertThat(status.failedPartitions()).isEqualTo(2);
+                    assertThat(status.partitions()).allMatch(DistributedIngestionResponse.Partition::failed);
+                })
+                .verifyComplete();
+        StepVerifier.create(leaseStore.activeRuns().filter(runId::equals)).verifyComplete();
+    }
+
+    private Mono<DistributedIngestionResponse> awaitStatus(String runId, IngestionRunState state) {
+        return coordinator.status(runId)
+                .filter(status -> state.name().equals(status.status()))
+                .repeatWhenEmpty(75, attempts -> attempts.delayElements(Duration.ofMillis(200)));
+    }
+
+    private static Path writeSongs(String name, int lines) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource("data/songs_test.json").getInputStream(), StandardCharsets.UTF_8))) {
+            List<String> songs = reader.lines().limit(lines).toList();
+            return Files.write(allowedRoot.resolve(name), songs, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Path createAllowedRoot() {
+        try {
+            return Files.createTempDirectory("distributed-ingestion").toRealPath();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
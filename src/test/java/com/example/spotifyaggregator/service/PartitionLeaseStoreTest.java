@@ -0,0 +1,81 @@
+package com.example.spotifyaggregator.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Set;
+
+@ActiveProfiles("test")
+@Testcontainers
+@SpringBootTest
+class PartitionLeaseStoreTest {
+
+    @Container
+    static final GenericContainer<?> redis = new GenericContainer<>("redis:7.0.0")
+            .withExposedPorts(6379)
+            .waitingFor(Wait.forListeningPort())
+            .withStartupTimeout(Duration.ofSeconds(10));
+
+    @DynamicPropertySource
+    static void overrideRedisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", redis::getHost);
+        registry.add("spring.data.redis.port", () -> redis.getMappedPort(6379));
+    }
+
+    @Autowired
+    private PartitionLeaseStore leaseStore;
+
+    private final Duration ttl = Duration.ofSeconds(30);
+
+    @Test
+    @DisplayName("lease 는 한 인스턴스만 얻고, 소유자만 갱신 / 반납할 수 있다")
+    void leaseIsExclusiveToOwner() {
+        StepVerifier.create(leaseStore.tryAcquire("run-1", 0, "node-a", ttl)).expectNext(true).verifyComplete();
+        StepVerifier.create(leaseStore.tryAcquire("run-1", 0, "node-b", ttl)).expectNext(false).verifyComplete();
+        StepVerifier.create(leaseStore.owner("run-1", 0)).expectNext("node-a").verifyComplete();
+
+        StepVerifier.create(leaseStore.renew("run-1", 0, "node-b", ttl)).expectNext(false).verifyComplete();
+        StepVerifier.create(leaseStore.release("run-1", 0, "node-b")).expectNext(false).verifyComplete();
+        StepVerifier.create(leaseStore.renew("run-1", 0, "node-a", ttl)).expectNext(true).verifyComplete();
+        StepVerifier.create(leaseStore.release("run-1", 0, "node-a")).expectNext(true).verifyComplete();
+
+        StepVerifier.create(leaseStore.tryAcquire("run-1", 0, "node-b", ttl)).expectNext(true).verifyComplete();
+    }
+
+    @Test
+    @DisplayName("만료된 lease 는 갱신되지 않고 다른 인스턴스가 가져갈 수 있다")
+    void expiredLeaseCanBeReclaimed() {
+        StepVerifier.create(leaseStore.tryAcquire("run-2", 0, "node-a", Duration.ofMillis(200)))
+                .expectNext(true).verifyComplete();
+        StepVerifier.create(leaseStore.renew("run-2", 0, "node-a", ttl)
+                        .delaySubscription(Duration.ofMillis(500)))
+                .expectNext(false).verifyComplete();
+        StepVerifier.create(leaseStore.tryAcquire("run-2", 0, "node-b", ttl)).expectNext(true).verifyComplete();
+    }
+
+    @Test
+    @DisplayName("완료 partition 과 진행 중 run 목록을 관리한다")
+    void tracksDonePartitionsAndActiveRuns() {
+        StepVerifier.create(leaseStore.register("run-3")
+                        .then(leaseStore.markDone("run-3", 1))
+                        .then(leaseStore.markDone("run-3", 4))
+                        .then(leaseStore.donePartitions("run-3")))
+                .expectNext(Set.of(1, 4))
+                .verifyComplete();
+        StepVerifier.create(leaseStore.activeRuns().filter("run-3"::equals)).expectNext("run-3").verifyComplete();
+
+        StepVerifier.create(leaseStore.unregister("run-3").thenMany(leaseStore.activeRuns().filter("run-3"::equals)))
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.spotifyaggregator.service;
+
+import com.example.spotifyaggregator.domain.Song;
+import com.example.spotifyaggregator.dto.SongWithArtists;
+import com.example.spotifyaggregator.repository.SongRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SongBatchWriterTest {
+
+    @Autowired private SongBatchWriter songBatchWriter;
+    @Autowired private SongRepository songRepository;
+
+    @Test
+    @DisplayName("같은 isrc 의 다른 노래가 DB 에 있어도 새로 INSERT 하지 않은 row 만 중복으로 센다")
+    void testDuplicatesWithSharedIsrc() {
+        String isrc = "DUP-" + UUID.randomUUID().toString().substring(0, 8);
+        songRepository.save(song(isrc, "existing")).block();
+        songRepository.save(song(isrc, "other title")).block();
+
+        List<SongWithArtists> batch = List.of(
+                new SongWithArtists(song(isrc, "new"), List.of("batch artist")),
+                new SongWithArtists(song(isrc, "new"), List.of("batch artist")),
+                new SongWithArtists(song(isrc, "existing"), List.of("batch artist")));
+
+        StepVerifier.create(songBatchWriter.write(batch))
+                .assertNext(result -> {
+                    assertThat(result.written()).isEqualTo(3);
+                    assertThat(result.duplicates()).isEqualTo(2);
+                    assertThat(result.unresolved()).isEmpty();
+                })
+                .verifyComplete();
+    }
+
+    private static Song song(String isrc, String title) {
+        return Song.builder().isrc(isrc).title(title).build();
+    }
+}
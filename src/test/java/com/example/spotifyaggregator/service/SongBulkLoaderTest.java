@@ -0,0 +1,222 @@
+package com.example.spotifyaggregator.service;
+
+import com.example.spotifyaggregator.domain.Song;
+import com.example.spotifyaggregator.dto.SongWithArtists;
+import com.example.spotifyaggregator.exception.ErrorCode;
+import com.example.spotifyaggregator.exception.SongIngestionException;
+import com.example.spotifyaggregator.repository.ArtistRepository;
+import com.example.spotifyaggregator.repository.SongArtistRepository;
+import com.example.spotifyaggregator.repository.SongRepository;
+import com.example.spotifyaggregator.util.CollationKey;
+import com.example.spotifyaggregator.util.SongRowDecoder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.test.StepVerifier;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SongBulkLoaderTest {
+
+    static final Path allowedRoot = createAllowedRoot();
+
+    @DynamicPropertySource
+    static void overrideProperties(DynamicPropertyRegistry registry) {
+        registry.add("ingestion.file.allowed-root", allowedRoot::toString);
+    }
+
+    @Autowired private SongIngestionService songIngestionService;
+    @Autowired private SongRepository songRepository;
+    @Autowired private ArtistRepository artistRepository;
+    @Autowired private SongArtistRepository songArtistRepository;
+    @Autowired private SecondaryIndexManager secondaryIndexManager;
+    @Autowired private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void setUp() {
+        songArtistRepository.deleteAll().block();
+        songRepository.deleteAll().block();
+        artistRepository.deleteAll().block();
+    }
+
+    @Test
+    @DisplayName("bulk load 모드는 빈 테이블에 CSV staging 후 한 번에 적재한다")
+    void testBulkLoad() throws IOException {
+        ExpectedCounts expected = expectedCounts();
+        StepVerifier.create(songIngestionService.ingestFromJsonFile("data/songs_test.json", IngestionWriteMode.BULK_LOAD))
+                .assertNext(result -> {
+                    assertThat(result.successCount()).isEqualTo(expected.rows());
+                    assertThat(result.failureCount()).isZero();
+                    assertThat(result.rowsPerSecond()).isPositive();
+                    assertThat(result.indexRebuildMillis()).isNotNull();
+                })
+                .verifyComplete();
+
+        // 적재 후 보조 index 가 모두 다시 만들어져 있어야 함
+        StepVerifier.create(secondaryIndexManager.rebuild())
+                .expectNextMatches(rebuild -> rebuild.rebuilt().isEmpty())
+                .verifyComplete();
+
+        // (isrc, title) / 아티스트 이름의 collation key 기준으로 중복이 제거되어 적재되어야 함
+        StepVerifier.create(songRepository.count())
+                .expectNext(expected.songs())
+                .verifyComplete();
+        StepVerifier.create(artistRepository.count())
+                .expectNext(expected.artists())
+                .verifyComplete();
+        StepVerifier.create(songArtistRepository.count())
+                .expectNext(expected.links())
+                .verifyComplete();
+
+        // 적재 후 일반 INSERT 의 id 가 bulk load 로 부여한 id 와 겹치지 않아야 함
+        Song song = Song.builder().isrc("BULK-AFTER").title("after bulk load")
+                .releaseDate(LocalDate.of(2024, 1, 1)).releaseYear(2024).build();
+        StepVerifier.create(songRepository.save(song))
+                .expectNextMatches(saved -> saved.getId() != null)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("대상 테이블이 비어 있지 않으면 bulk load 를 거부한다")
+    void testBulkLoadRejectsNonEmptyTables() {
+        StepVerifier.create(songRepository.save(Song.builder().isrc("EXISTING").title("existing").build()))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        StepVerifier.create(songIngestionService.ingestFromJsonFile("data/songs_test.json", IngestionWriteMode.BULK_LOAD))
+                .expectErrorMatches(ex -> ex instanceof SongIngestionException e
+                        && e.getErrorCode() == ErrorCode.INGESTION_BULK_LOAD_TARGET_NOT_EMPTY)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("bulk load 후에는 이전 run 이 채운 노래 인덱스 / 아티스트 사전을 쓰지 않고 다시 읽는다")
+    void testBulkLoadInvalidatesWarmIndexes() throws IOException {
+        // 이전 run : 파일 끝의 노래를 역순으로 적재해 bulk load 와 다른 순서로 id 1.. 을 받게 함
+        restartIds();
+        Path warmFile = writeLastSongsReversed("warm.ndjson", 20);
+        int warmFailures = songIngestionService.ingestFromFile(warmFile, IngestionWriteMode.PER_ROW)
+                .block(Duration.ofSeconds(30)).failureCount();
+
+        // 테이블을 비우고 bulk load 로 id 1.. 을 다시 부여 (이전 최대 id 보다 많은 row)
+        songArtistRepository.deleteAll().block();
+        songRepository.deleteAll().block();
+        artistRepository.deleteAll().block();
+        songIngestionService.ingestFromJsonFile("data/songs_test.json", IngestionWriteMode.BULK_LOAD)
+                .block(Duration.ofSeconds(60));
+        Set<String> loaded = links();
+        long songs = songRepository.count().block();
+        assertThat(loaded).isNotEmpty();
+
+        // 이미 있는 노래를 다시 적재하면 아무것도 바뀌지 않아야 함 (이전 id 를 쓰면 엉뚱한 노래 / 아티스트에 연결됨)
+        for (IngestionWriteMode mode : List.of(IngestionWriteMode.PER_ROW, IngestionWriteMode.BATCH)) {
+            StepVerifier.create(songIngestionService.ingestFromFile(warmFile, mode))
+                    .expectNextMatches(result -> result.failureCount() == warmFailures)
+                    .verifyComplete();
+            assertThat(songRepository.count().block()).isEqualTo(songs);
+            assertThat(links()).isEqualTo(loaded);
+        }
+    }
+
+    private record ExpectedCounts(int rows, long songs, long artists, long links) {}
+
+    /**
+     * 테스트 파일을 직접 디코딩해 bulk load 가 만들어야 할 row 수를 셉니다.
+     */
+    private static ExpectedCounts expectedCounts() throws IOException {
+        SongRowDecoder decoder = new SongRowDecoder();
+        int rows = 0;
+        long nullKeySongs = 0;
+        Set<String> songs = new HashSet<>();
+        Set<String> artists = new HashSet<>();
+        Set<String> links = new HashSet<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource("data/songs_test.json").getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                SongWithArtists row = decoder.decode(line);
+                rows++;
+                Song song = row.song();
+                String songKey;
+                if (song.getIsrc() == null || song.getTitle() == null) {
+                    songKey = "#" + nullKeySongs++;
+                } else {
+                    songKey = CollationKey.of(song.getIsrc()) + '\u0000' + CollationKey.of(song.getTitle());
+                }
+                songs.add(songKey);
+                for (String name : row.artists()) {
+                    artists.add(CollationKey.of(name));
+                    links.add(songKey + '\u0001' + CollationKey.of(name));
+                }
+            }
+        }
+        return new ExpectedCounts(rows, songs.size(), artists.size(), links.size());
+    }
+
+    private void restartIds() {
+        databaseClient.sql("ALTER TABLE song ALTER COLUMN id RESTART WITH 1").then()
+                .then(databaseClient.sql("ALTER TABLE artist ALTER COLUMN id RESTART WITH 1").then())
+                .block();
+    }
+
+    /**
+     * @return song_artist 를 (isrc, title, 아티스트 이름) 로 풀어 쓴 집합
+     */
+    private Set<String> links() {
+        return databaseClient.sql("""
+                        SELECT s.isrc, s.title, a.name
+                        FROM song_artist sa
+                        JOIN song s ON s.id = sa.song_id
+                        JOIN artist a ON a.id = sa.artist_id
+                        """)
+                .map((row, meta) -> row.get("isrc", String.class) + '\u0000' + row.get("title", String.class)
+                        + '\u0000' + row.get("name", String.class))
+                .all()
+                .collect(Collectors.toSet())
+                .block(Duration.ofSeconds(10));
+    }
+
+    private static Path writeLastSongsReversed(String name, int lines) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource("data/songs_test.json").getInputStream(), StandardCharsets.UTF_8))) {
+            List<String> songs = new ArrayList<>(reader.lines().toList());
+            List<String> last = new ArrayList<>(songs.subList(songs.size() - lines, songs.size()));
+            Collections.reverse(last);
+            return Files.write(allowedRoot.resolve(name), last, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Path createAllowedRoot() {
+        try {
+            return Files.createTempDirectory("bulk-load").toRealPath();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.spotifyaggregator.service;
+
+import com.example.spotifyaggregator.dto.IngestionRunResponse;
+import com.example.spotifyaggregator.dto.SongIngestionResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import reactor.core.publisher.Mono;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = "ingestion.checkpoint.interval=0ms")
+class SongIngestionResumeTest {
+
+    static final Path allowedRoot = createAllowedRoot();
+
+    @DynamicPropertySource
+    static void overrideProperties(DynamicPropertyRegistry registry) {
+        registry.add("ingestion.file.allowed-root", allowedRoot::toString);
+    }
+
+    @Autowired
+    private SongIngestionService songIngestionService;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @MockitoSpyBean
+    private IngestionCheckpointStore checkpointStore;
+
+    @Test
+    @DisplayName("중간에 실패한 run 을 resume 하면 committed offset 이후의 row 만 처리하고 COMPLETED 로 끝난다")
+    void testResumeAfterFailure() throws IOException {
+        String titlePrefix = "resume-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        Path file = writeSongs(titlePrefix);
+        int total = Files.readAllLines(file).size();
+        String runId = UUID.randomUUID().toString();
+
+        // 세 번째 중간 checkpoint 저장에서 실패시켜 파일 중간에서 run 을 중단
+        AtomicInteger checkpoints = new AtomicInteger();
+        doAnswer(invocation -> {
+            IngestionRun run = invocation.getArgument(0);
+            IngestionRunState state = invocation.getArgument(1);
+            if (run.getRunId().equals(runId) && state == IngestionRunState.RUNNING
+                    && checkpoints.incrementAndGet() == 3) {
+                return Mono.error(new IllegalStateException("checkpoint 저장 실패"));
+            }
+            return invocation.callRealMethod();
+        }).when(checkpointStore).save(any(), any());
+
+        assertThatThrownBy(() -> songIngestionService.startRun(runId, file.toString(), IngestionWriteMode.PER_ROW)
+                .block(Duration.ofSeconds(60)))
+                .hasMessageContaining("checkpoint 저장 실패");
+
+        IngestionRunResponse failed = songIngestionService.getRun(runId).block(Duration.ofSeconds(10));
+        assertThat(failed.status()).isEqualTo(IngestionRunState.FAILED.name());
+        long processedBefore = failed.successCount() + failed.failureCount();
+        assertThat(processedBefore).isPositive().isLessThan(total);
+        assertThat(failed.partitions())
+                .anyMatch(partition -> partition.committedOffset() > partition.startOffset());
+
+        // 이미 처리한 row 가 다시 저장되는지 알 수 있도록 지금까지 저장된 노래를 지움
+        deleteSongs(titlePrefix);
+
+        SongIngestionResult resumed = songIngestionService.resume(runId).block(Duration.ofSeconds(60));
+
+        assertThat(resumed).isNotNull();
+        assertThat(resumed.successCount() + resumed.failureCount()).isEqualTo(total);
+        assertThat(resumed.failureCount()).isZero();
+        assertThat(countSongs(titlePrefix)).isEqualTo(total - processedBefore);
+
+        IngestionRunResponse completed = songIngestionService.getRun(runId).block(Duration.ofSeconds(10));
+        assertThat(completed.status()).isEqualTo(IngestionRunState.COMPLETED.name());
+        assertThat(completed.successCount()).isEqualTo(total);
+    }
+
+    private long countSongs(String titlePrefix) {
+        return databaseClient.sql("SELECT COUNT(*) AS songs FROM song WHERE title LIKE :prefix")
+                .bind("prefix", titlePrefix + "%")
+                .map((row, meta) -> row.get("songs", Long.class))
+                .one()
+                .block(Duration.ofSeconds(10));
+    }
+
+    private void deleteSongs(String titlePrefix) {
+        databaseClient.sql("DELETE FROM song_artist WHERE song_id IN (SELECT id FROM song WHERE title LIKE :prefix)")
+                .bind("prefix", titlePrefix + "%")
+                .then()
+                .then(databaseClient.sql("DELETE FROM song WHERE title LIKE :prefix")
+                        .bind("prefix", titlePrefix + "%")
+                        .then())
+                .block(Duration.ofSeconds(10));
+    }
+
+    /**
+     * 줄마다 다른 노래가 되도록 제목에 prefix 와 줄 번호를 붙입니다.
+     */
+    private static Path writeSongs(String titlePrefix) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource("data/songs_test.json").getInputStream(), StandardCharsets.UTF_8))) {
+            List<String> songs = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                songs.add(line.replace("\"song\": \"", "\"song\": \"" + titlePrefix + songs.size() + "-"));
+            }
+            return Files.write(allowedRoot.resolve(titlePrefix + "songs.ndjson"), songs, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Path createAllowedRoot() {
+        try {
+            return Files.createTempDirectory("song-ingestion-resume").toRealPath();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
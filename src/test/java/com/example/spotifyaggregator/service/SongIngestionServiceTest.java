@@ -1,17 +1,51 @@
 package com.example.spotifyaggregator.service;
 
+import com.example.spotifyaggregator.dto.IngestionDeltaCounts;
+import com.example.spotifyaggregator.dto.SongIngestionResult;
+import com.example.spotifyaggregator.exception.ErrorCode;
+import com.example.spotifyaggregator.exception.SongIngestionException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 import reactor.test.StepVerifier;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
 @SpringBootTest
 class SongIngestionServiceTest {
 
+    static final Path allowedRoot = createAllowedRoot();
+
+    @DynamicPropertySource
+    static void overrideProperties(DynamicPropertyRegistry registry) {
+        registry.add("ingestion.file.allowed-root", allowedRoot::toString);
+    }
+
     @Autowired
     private SongIngestionService songIngestionService;
 
+    @Autowired
+    private DatabaseClient databaseClient;
+
     @Test
     @DisplayName("테스트 파일을 정상적으로 파싱하고 저장한다")
     void testIngest() {
@@ -23,4 +57,264 @@ class SongIngestionServiceTest {
                 })
                 .verifyComplete();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("batch 모드는 같은 파일을 per-row 로 저장한 것과 같은 노래 / 아티스트 / 연결을 만든다")
+    void testIngestBatchMode() throws IOException {
+        // 기존 데이터와 섞이지 않도록 제목에 run 마다 다른 prefix 를 붙인 같은 내용의 파일 두 개
+        String runPrefix = UUID.randomUUID().toString().substring(0, 8);
+        String perRowPrefix = "per-row-" + runPrefix + "-";
+        String batchPrefix = "batch-" + runPrefix + "-";
+
+        SongIngestionResult perRow = songIngestionService
+                .ingestFromFile(writeSongs(perRowPrefix), IngestionWriteMode.PER_ROW)
+                .block(Duration.ofSeconds(60));
+        SongIngestionResult batch = songIngestionService
+                .ingestFromFile(writeSongs(batchPrefix), IngestionWriteMode.BATCH)
+                .block(Duration.ofSeconds(60));
+
+        assertThat(perRow).isNotNull();
+        assertThat(batch).isNotNull();
+        assertThat(batch.successCount()).isPositive().isEqualTo(perRow.successCount());
+        assertThat(batch.failureCount()).isEqualTo(perRow.failureCount());
+        assertThat(batch.rowsPerSecond()).isPositive();
+        assertThat(counts(batchPrefix)).containsExactly(counts(perRowPrefix));
+    }
+
+    @Test
+    @DisplayName("allowed-root 밖의 파일 경로는 INGESTION_PATH_NOT_ALLOWED 로 거절한다")
+    void testIngestFromFileOutsideAllowedRoot() {
+        StepVerifier.create(songIngestionService.ingestFromFile(Path.of("/etc/passwd"), IngestionWriteMode.PER_ROW))
+                .expectErrorMatches(e -> e instanceof SongIngestionException ex
+                        && ex.getErrorCode() == ErrorCode.INGESTION_PATH_NOT_ALLOWED)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("가장 큰 id 보다 작은 song 이 삭제되면 노래 인덱스를 다시 읽어 삭제된 id 로 연결하지 않는다")
+    void testIngestAfterDeletingSongsBelowMaxId() throws IOException {
+        String runPrefix = UUID.randomUUID().toString().substring(0, 8);
+        String deletedPrefix = "deleted-" + runPrefix + "-";
+        String keptPrefix = "kept-" + runPrefix + "-";
+        Path deletedSongs = writeSongs(deletedPrefix);
+
+        // 인덱스가 두 파일의 song 을 모두 알게 한 뒤, 먼저 적재한(id 가 작은) 쪽만 삭제
+        SongIngestionResult first = songIngestionService.ingestFromFile(deletedSongs, IngestionWriteMode.PER_ROW)
+                .block(Duration.ofSeconds(60));
+        songIngestionService.ingestFromFile(writeSongs(keptPrefix), IngestionWriteMode.PER_ROW)
+                .block(Duration.ofSeconds(60));
+        deleteSongs(deletedPrefix);
+        assertThat(counts(deletedPrefix)).containsExactly(0L, 0L, 0L);
+
+        SongIngestionResult again = songIngestionService.ingestFromFile(deletedSongs, IngestionWriteMode.BATCH)
+                .block(Duration.ofSeconds(60));
+
+        assertThat(again).isNotNull();
+        assertThat(again.successCount()).isEqualTo(first.successCount());
+        assertThat(again.failureCount()).isEqualTo(first.failureCount());
+        assertThat(counts(deletedPrefix)).containsExactly(counts(keptPrefix));
+    }
+
+    @Test
+    @DisplayName("가장 큰 id 보다 작은 artist 가 삭제되면 아티스트 사전을 다시 읽어 삭제된 id 로 연결하지 않는다")
+    void testIngestAfterDeletingArtistsBelowMaxId() throws IOException {
+        String runPrefix = UUID.randomUUID().toString().substring(0, 8);
+        String deletedPrefix = "deleted-artist-" + runPrefix + "-";
+        String keptPrefix = "kept-artist-" + runPrefix + "-";
+        Path deletedSongs = writeSongs(deletedPrefix, deletedPrefix);
+
+        // 사전이 두 파일의 artist 를 모두 알게 한 뒤, 먼저 적재한(id 가 작은) 쪽의 artist 만 삭제
+        SongIngestionResult first = songIngestionService.ingestFromFile(deletedSongs, IngestionWriteMode.PER_ROW)
+                .block(Duration.ofSeconds(60));
+        songIngestionService.ingestFromFile(writeSongs(keptPrefix, keptPrefix), IngestionWriteMode.PER_ROW)
+                .block(Duration.ofSeconds(60));
+        deleteSongs(deletedPrefix);
+        databaseClient.sql("DELETE FROM artist WHERE name LIKE :prefix")
+                .bind("prefix", deletedPrefix + "%")
+                .then()
+                .block(Duration.ofSeconds(10));
+
+        SongIngestionResult again = songIngestionService.ingestFromFile(deletedSongs, IngestionWriteMode.BATCH)
+                .block(Duration.ofSeconds(60));
+
+        assertThat(again).isNotNull();
+        assertThat(again.successCount()).isEqualTo(first.successCount());
+        assertThat(again.failureCount()).isEqualTo(first.failureCount());
+        assertThat(counts(deletedPrefix)).containsExactly(counts(keptPrefix));
+    }
+
+    @Test
+    @DisplayName("DELTA 모드는 새 row 는 INSERT, 내용이 바뀐 row 는 song / song_artist 를 UPDATE, 같은 row 는 건너뛴다")
+    void testIngestDeltaMode() throws IOException {
+        String titlePrefix = "delta-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        List<String> lines = uniqueSongs(titlePrefix, 33);
+        List<String> original = lines.subList(0, 30);
+
+        SongIngestionResult first = songIngestionService
+                .ingestFromFile(write(titlePrefix + "v1.ndjson", original), IngestionWriteMode.DELTA)
+                .block(Duration.ofSeconds(60));
+        assertThat(first.delta()).isEqualTo(new IngestionDeltaCounts(30, 0, 0));
+        Map<String, Long> idsBefore = songIds(titlePrefix);
+
+        // 0 ~ 4 : 앨범 변경, 5 ~ 9 : 아티스트 변경, 10 ~ 29 : 그대로, 30 ~ 32 : 새 노래
+        String changedAlbum = titlePrefix + "album";
+        String changedArtist = titlePrefix + "artist";
+        List<String> updated = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (i < 5) {
+                line = line.replaceFirst("\"Album\": \"(?:[^\"\\\\]|\\\\.)*\"", "\"Album\": \"" + changedAlbum + "\"");
+            } else if (i < 10) {
+                line = line.replaceFirst("^\\{\"Artist\\(s\\)\": \"(?:[^\"\\\\]|\\\\.)*\"",
+                        "{\"Artist(s)\": \"" + changedArtist + "\"");
+            }
+            updated.add(line);
+        }
+
+        SongIngestionResult second = songIngestionService
+                .ingestFromFile(write(titlePrefix + "v2.ndjson", updated), IngestionWriteMode.DELTA)
+                .block(Duration.ofSeconds(60));
+
+        assertThat(second.failureCount()).isZero();
+        assertThat(second.delta()).isEqualTo(new IngestionDeltaCounts(3, 10, 20));
+
+        // 바뀐 row 는 새로 INSERT 하지 않고 기존 id 를 UPDATE
+        Map<String, Long> idsAfter = songIds(titlePrefix);
+        assertThat(idsAfter).hasSize(33).containsAllEntriesOf(idsBefore);
+        assertThat(databaseClient.sql("SELECT title FROM song WHERE album = :album")
+                .bind("album", changedAlbum)
+                .map((row, meta) -> row.get("title", String.class))
+                .all()
+                .collectList()
+                .block(Duration.ofSeconds(10)))
+                .containsExactlyInAnyOrderElementsOf(titles(titlePrefix, 0, 5));
+        assertThat(databaseClient.sql("""
+                        SELECT s.title, a.name
+                        FROM song s
+                        JOIN song_artist sa ON sa.song_id = s.id
+                        JOIN artist a ON a.id = sa.artist_id
+                        WHERE s.title LIKE :prefix AND (a.name = :artist OR s.title IN (:changed))
+                        """)
+                .bind("prefix", titlePrefix + "%")
+                .bind("artist", changedArtist)
+                .bind("changed", titles(titlePrefix, 5, 10))
+                .map((row, meta) -> row.get("title", String.class) + " / " + row.get("name", String.class))
+                .all()
+                .collectList()
+                .block(Duration.ofSeconds(10)))
+                // 이전 아티스트 연결은 지워지고 새 아티스트 연결만 남음
+                .containsExactlyInAnyOrderElementsOf(titles(titlePrefix, 5, 10).stream()
+                        .map(title -> title + " / " + changedArtist)
+                        .toList());
+    }
+
+    @Test
+    @DisplayName("shard 입력에서 한 줄 최대 크기를 넘는 줄은 파싱 에러로 건너뛰고 나머지 줄은 저장한다")
+    void testIngestShardSkipsOversizeLine() throws IOException {
+        String titlePrefix = "oversize-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        List<String> songs = uniqueSongs(titlePrefix, 3);
+        // 기본 ingestion.file.max-line-size(1MB) 를 넘는 줄
+        String oversize = songs.get(0).replaceFirst("\"song\": \"(?:[^\"\\\\]|\\\\.)*\"",
+                "\"song\": \"" + titlePrefix + "x".repeat(2 * 1024 * 1024) + "\"");
+        Path shards = Files.createDirectory(allowedRoot.resolve(titlePrefix + "shards"));
+        Files.write(shards.resolve("part-0.ndjson"), List.of(songs.get(0), oversize, songs.get(1), songs.get(2)),
+                StandardCharsets.UTF_8);
+
+        SongIngestionResult result = songIngestionService.ingestFromFile(shards, IngestionWriteMode.BATCH)
+                .block(Duration.ofSeconds(60));
+
+        assertThat(result.successCount()).isEqualTo(3);
+        assertThat(result.failureCount()).isZero();
+        assertThat(songIds(titlePrefix).keySet()).containsExactlyInAnyOrderElementsOf(titles(titlePrefix, 0, 3));
+    }
+
+    /**
+     * @return 테스트 파일 앞의 count 줄. 줄마다 다른 노래가 되도록 제목을 prefix + 줄 번호로 바꿈
+     */
+    private static List<String> uniqueSongs(String titlePrefix, int count) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource("data/songs_test.json").getInputStream(), StandardCharsets.UTF_8))) {
+            List<String> lines = reader.lines().filter(line -> !line.isBlank()).limit(count).toList();
+            List<String> songs = new ArrayList<>();
+            for (int i = 0; i < lines.size(); i++) {
+                songs.add(lines.get(i).replaceFirst("\"song\": \"(?:[^\"\\\\]|\\\\.)*\"",
+                        "\"song\": \"" + titlePrefix + i + "\""));
+            }
+            return songs;
+        }
+    }
+
+    private static List<String> titles(String titlePrefix, int from, int to) {
+        return IntStream.range(from, to).mapToObj(i -> titlePrefix + i).toList();
+    }
+
+    /**
+     * @return title 이 prefix 로 시작하는 노래의 title → id
+     */
+    private Map<String, Long> songIds(String titlePrefix) {
+        return databaseClient.sql("SELECT id, title FROM song WHERE title LIKE :prefix")
+                .bind("prefix", titlePrefix + "%")
+                .map((row, meta) -> Map.entry(row.get("title", String.class), row.get("id", Long.class)))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .block(Duration.ofSeconds(10));
+    }
+
+    private static Path write(String name, List<String> lines) throws IOException {
+        return Files.write(allowedRoot.resolve(name), lines, StandardCharsets.UTF_8);
+    }
+
+    private void deleteSongs(String titlePrefix) {
+        databaseClient.sql("DELETE FROM song_artist WHERE song_id IN (SELECT id FROM song WHERE title LIKE :prefix)")
+                .bind("prefix", titlePrefix + "%")
+                .then()
+                .then(databaseClient.sql("DELETE FROM song WHERE title LIKE :prefix")
+                        .bind("prefix", titlePrefix + "%")
+                        .then())
+                .block(Duration.ofSeconds(10));
+    }
+
+    /**
+     * @return title 이 prefix 로 시작하는 노래의 (노래 수, 연결된 아티스트 수, 연결 수)
+     */
+    private long[] counts(String titlePrefix) {
+        return databaseClient.sql("""
+                        SELECT COUNT(DISTINCT s.id) AS songs, COUNT(DISTINCT sa.artist_id) AS artists,
+                               COUNT(sa.artist_id) AS links
+                        FROM song s
+                        LEFT JOIN song_artist sa ON sa.song_id = s.id
+                        WHERE s.title LIKE :prefix
+                        """)
+                .bind("prefix", titlePrefix + "%")
+                .map((row, meta) -> new long[]{
+                        row.get("songs", Long.class), row.get("artists", Long.class), row.get("links", Long.class)})
+                .one()
+                .block(Duration.ofSeconds(10));
+    }
+
+    private static Path writeSongs(String titlePrefix) throws IOException {
+        return writeSongs(titlePrefix, "");
+    }
+
+    /**
+     * @param artistPrefix 첫 번째 아티스트 이름 앞에 붙일 prefix
+     */
+    private static Path writeSongs(String titlePrefix, String artistPrefix) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource("data/songs_test.json").getInputStream(), StandardCharsets.UTF_8))) {
+            List<String> songs = reader.lines()
+                    .map(line -> line.replace("\"song\": \"", "\"song\": \"" + titlePrefix)
+                            .replace("\"Artist(s)\": \"", "\"Artist(s)\": \"" + artistPrefix))
+                    .toList();
+            return Files.write(allowedRoot.resolve(titlePrefix + "songs.ndjson"), songs, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Path createAllowedRoot() {
+        try {
+            return Files.createTempDirectory("song-ingestion").toRealPath();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
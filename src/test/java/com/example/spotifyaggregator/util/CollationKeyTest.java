@@ -0,0 +1,26 @@
+package com.example.spotifyaggregator.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CollationKeyTest {
+
+    @Test
+    @DisplayName("unicode_ci 에서 같은 값(대소문자, 악센트, 끝 공백 차이)은 같은 key 가 된다")
+    void foldsCollationEquivalentValues() {
+        assertThat(CollationKey.of("Beyoncé")).isEqualTo(CollationKey.of("beyonce"));
+        assertThat(CollationKey.of("DRAKE  ")).isEqualTo(CollationKey.of("drake"));
+        assertThat(CollationKey.of("Straße")).isEqualTo(CollationKey.of("STRASSE"));
+        assertThat(CollationKey.of("Ｄｒａｋｅ")).isEqualTo(CollationKey.of("drake"));
+    }
+
+    @Test
+    @DisplayName("앞 공백과 다른 글자는 구분하고, null 은 null 로 둔다")
+    void keepsDistinctValuesApart() {
+        assertThat(CollationKey.of(" drake")).isNotEqualTo(CollationKey.of("drake"));
+        assertThat(CollationKey.of("Drake")).isNotEqualTo(CollationKey.of("Drakeo"));
+        assertThat(CollationKey.of(null)).isNull();
+    }
+}
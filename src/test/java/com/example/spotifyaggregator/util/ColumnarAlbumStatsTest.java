@@ -0,0 +1,87 @@
+package com.example.spotifyaggregator.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnarAlbumStatsTest {
+
+    @Test
+    @DisplayName("연도별 / 아티스트·연도별 DISTINCT album 수를 GROUP BY 와 같게 센다")
+    void countsDistinctAlbums() {
+        ColumnarAlbumStats stats = ColumnarAlbumStats.builder()
+                .addSong(1, 2021, 2021, "ALB1")
+                .addSong(2, 2021, 2021, "ALB1")
+                .addSong(3, 2021, 2021, "ALB2")
+                .addSong(4, 2022, 2022, "ALB1")
+                .addSong(5, 2023, 2023, null)
+                .addSong(6, null, null, "ALB3")
+                .addArtistSong(1, "ArtistA", 1)
+                .addArtistSong(1, "ArtistA", 2)
+                .addArtistSong(1, "ArtistA", 4)
+                .addArtistSong(2, "ArtistB", 3)
+                .addArtistSong(2, "ArtistB", 6)
+                .addArtistSong(2, "ArtistB", 99)
+                .build();
+
+        ColumnarAlbumStats.YearCounts byYear = stats.byYear();
+        assertThat(byYear.size()).isEqualTo(3);
+        assertThat(new int[]{byYear.year(0), byYear.year(1), byYear.year(2)}).containsExactly(2021, 2022, 2023);
+        assertThat(new long[]{byYear.count(0), byYear.count(1), byYear.count(2)}).containsExactly(2, 1, 0);
+
+        ColumnarAlbumStats.YearCounts artistA = stats.byArtist("ArtistA");
+        assertThat(artistA.size()).isEqualTo(2);
+        assertThat(new long[]{artistA.count(0), artistA.count(1)}).containsExactly(1, 1);
+
+        ColumnarAlbumStats.YearCounts artistB = stats.byArtist("ArtistB");
+        assertThat(artistB.size()).isEqualTo(1);
+        assertThat(artistB.year(0)).isEqualTo(2021);
+
+        assertThat(stats.byArtist("Unknown").size()).isZero();
+        assertThat(stats.songCount()).isEqualTo(6);
+        assertThat(stats.albumCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("앨범명 / 아티스트 이름은 DB collation 처럼 대소문자·악센트를 구분하지 않는다")
+    void foldsNamesLikeCollation() {
+        ColumnarAlbumStats stats = ColumnarAlbumStats.builder()
+                .addSong(1, 2021, 2021, "Renaissance")
+                .addSong(2, 2021, 2021, "RENAISSANCE")
+                .addSong(3, 2021, 2021, "renaissance ")
+                .addSong(4, 2022, 2022, "Lemonade")
+                .addArtistSong(7, "Beyoncé", 1)
+                .addArtistSong(7, "BEYONCE", 2)
+                .addArtistSong(7, "beyonce", 4)
+                .addArtistSong(3, "Drake", 3)
+                .build();
+
+        assertThat(stats.byYear().count(0)).isEqualTo(1);
+        assertThat(stats.albumCount()).isEqualTo(2);
+        assertThat(stats.artistCount()).isEqualTo(2);
+        // artist id 순 (live / materialized 조회의 ORDER BY artist_id 와 같은 순서)
+        assertThat(stats.artists()).containsExactly("Drake", "Beyoncé");
+
+        ColumnarAlbumStats.YearCounts beyonce = stats.byArtist("beyonce");
+        assertThat(beyonce.size()).isEqualTo(2);
+        assertThat(new long[]{beyonce.count(0), beyonce.count(1)}).containsExactly(1, 1);
+        assertThat(stats.byArtist("DRAKE").size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("indexAfter 는 lastYear 보다 큰 첫 연도의 위치를 반환한다")
+    void findsIndexAfterYear() {
+        ColumnarAlbumStats.YearCounts years = ColumnarAlbumStats.builder()
+                .addSong(1, 2000, 2000, "A")
+                .addSong(2, 2005, 2005, "B")
+                .addSong(3, 2010, 2010, "C")
+                .build()
+                .byYear();
+
+        assertThat(years.indexAfter(Integer.MIN_VALUE)).isZero();
+        assertThat(years.indexAfter(2000)).isEqualTo(1);
+        assertThat(years.indexAfter(2003)).isEqualTo(1);
+        assertThat(years.indexAfter(2010)).isEqualTo(3);
+    }
+}
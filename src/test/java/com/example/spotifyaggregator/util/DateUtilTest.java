@@ -0,0 +1,113 @@
+package com.example.spotifyaggregator.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DateUtilTest {
+
+    private static final DateTimeFormatter LEGACY_FORMATTER = DateTimeFormatter.ofPattern("d MMMM yyyy", Locale.ENGLISH);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("샘플 데이터셋의 모든 발매일은 기존 regex 구현과 같은 결과로 파싱된다")
+    void parseMatchesLegacyOnSampleDataset() throws IOException {
+        List<String> dates = readSampleReleaseDates();
+        assertThat(dates).isNotEmpty();
+
+        for (String date : dates) {
+            assertThat(DateUtil.parseReleaseDate(date)).as("date: %s", date).isEqualTo(legacyParse(date));
+        }
+    }
+
+    @Test
+    @DisplayName("경계 입력도 기존 regex 구현과 같은 결과로 파싱된다")
+    void parseMatchesLegacyOnEdgeCases() {
+        List<String> dates = List.of(
+                "1st January 2020", "2nd March 2021", "3rd May 1999", "4th July 1776",
+                "31st February 2020", "31st February 2021", "29th February 1900", "31st April 2020",
+                "0 May 2020", "32 May 2020", "01 May 2020", "0000000000000000001 May 2020",
+                "00000000000000000001 May 2020", "1st9 May 2020", "1stst May 2020", "1nd May 2020",
+                "1 May 2020th", "1 May 2020thth", "1 may 2020", "1 MAY 2020", "1 Sept 2020", "1 Mayx 2020",
+                "1 May 20", "1 May 20201", "1 May +20201", "1 May +2020", "1 May -2020", "1 May 0000",
+                "1 May +999999999", "1 May +1000000000", "+1 May 2020", "-1 May 2020",
+                " 1 May 2020", "1 May 2020 ", "1  May 2020", "1May 2020", "1 May2020", "", "   ", null);
+
+        for (String date : dates) {
+            assertThat(DateUtil.parseReleaseDate(date)).as("date: %s", date).isEqualTo(legacyParse(date));
+        }
+    }
+
+    @Test
+    @DisplayName("같은 문자열은 캐시된 결과를 돌려준다")
+    void parseIsMemoized() {
+        assertThat(DateUtil.parseReleaseDate("6th March 2020")).isSameAs(DateUtil.parseReleaseDate("6th March 2020"));
+        assertThat(DateUtil.parseReleaseDate("not a date")).isNull();
+        assertThat(DateUtil.parseReleaseDate("not a date")).isNull();
+    }
+
+    @Test
+    @DisplayName("캐시가 가득 차도 새 문자열을 캐시하고, 자주 쓰는 문자열은 남기며 크기 제한을 지킨다")
+    void cacheEvictsLeastRecentlyUsed() {
+        String hot = "6th March 2020";
+        LocalDate hotDate = DateUtil.parseReleaseDate(hot);
+        String[] months = {"January", "February", "March", "April", "May", "June",
+                "July", "August", "September", "October", "November", "December"};
+
+        String last = null;
+        for (int i = 0; i < DateUtil.CACHE_MAX_SIZE + 1_000; i++) {
+            last = (i % 28 + 1) + " " + months[i / 28 % 12] + " " + (1000 + i / (28 * 12));
+            assertThat(DateUtil.parseReleaseDate(last)).isNotNull();
+            if (i % 1_000 == 0) {
+                assertThat(DateUtil.parseReleaseDate(hot)).isSameAs(hotDate);
+            }
+        }
+
+        assertThat(DateUtil.cacheSize()).isEqualTo(DateUtil.CACHE_MAX_SIZE);
+        assertThat(DateUtil.parseReleaseDate(hot)).isSameAs(hotDate);
+        assertThat(DateUtil.parseReleaseDate(last)).isSameAs(DateUtil.parseReleaseDate(last));
+    }
+
+    private List<String> readSampleReleaseDates() throws IOException {
+        List<String> dates = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource("data/songs_test.json").getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    dates.add(objectMapper.readTree(line).path("Release Date").asText());
+                } catch (IOException e) {
+                    // 잘린 줄은 비교 대상에서 제외
+                }
+            }
+        }
+        return dates;
+    }
+
+    /**
+     * 기존 DateUtil#parseReleaseDate 구현
+     */
+    private static LocalDate legacyParse(String rawDate) {
+        if (rawDate == null || rawDate.isBlank()) return null;
+        try {
+            String cleaned = rawDate.replaceAll("(?<=\\d)(st|nd|rd|th)", "");
+            return LocalDate.parse(cleaned, LEGACY_FORMATTER);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.spotifyaggregator.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongLongHashMapTest {
+
+    @Test
+    @DisplayName("resize 를 거쳐도 HashMap 과 같은 값을 반환한다 (key 0 포함)")
+    void behavesLikeHashMap() {
+        LongLongHashMap map = new LongLongHashMap(4);
+        Map<Long, Long> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 200_000; i++) {
+            long key = i % 1000 == 0 ? 0 : random.nextLong(1_000_000) - 500_000;
+            map.put(key, i);
+            expected.put(key, (long) i);
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        expected.forEach((key, value) -> assertThat(map.get(key, -1)).isEqualTo(value));
+        assertThat(map.get(1_000_001, -1)).isEqualTo(-1);
+
+        map.clear();
+        assertThat(map.size()).isZero();
+        assertThat(map.get(0, -1)).isEqualTo(-1);
+    }
+}
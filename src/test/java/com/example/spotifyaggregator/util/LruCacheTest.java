@@ -0,0 +1,39 @@
+package com.example.spotifyaggregator.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LruCacheTest {
+
+    @Test
+    @DisplayName("크기를 넘으면 가장 오래 조회되지 않은 항목부터 제거한다")
+    void evictsLeastRecentlyUsed() {
+        LruCache<String, Integer> cache = new LruCache<>(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        assertThat(cache.get("a")).isEqualTo(1); // a 가 최근 항목이 됨
+
+        cache.put("c", 3);
+
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("c")).isEqualTo(3);
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.evictions()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("같은 key 를 다시 넣으면 제거 없이 값만 바뀐다")
+    void replacesExistingKey() {
+        LruCache<String, Integer> cache = new LruCache<>(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("a", 10);
+
+        assertThat(cache.get("a")).isEqualTo(10);
+        assertThat(cache.get("b")).isEqualTo(2);
+        assertThat(cache.evictions()).isZero();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.spotifyaggregator.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedNdjsonReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("range 분할 개수와 관계없이 모든 줄을 한 번씩 읽는다")
+    void splitReadsEveryLineOnce() throws IOException {
+        Path file = tempDir.resolve("songs.json");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            lines.add("{\"song\":\"제목 " + i + "\"}");
+        }
+        Files.writeString(file, String.join("\n", lines) + "\r\n\n", StandardCharsets.UTF_8);
+
+        for (int partitions : new int[]{1, 3, 7, 500}) {
+            List<String> read = new ArrayList<>();
+            List<MappedNdjsonReader.ByteRange> ranges = MappedNdjsonReader.split(file, partitions);
+            for (MappedNdjsonReader.ByteRange range : ranges) {
+                try (MappedNdjsonReader.Cursor cursor = MappedNdjsonReader.open(file, range)) {
+                    int length;
+                    while ((length = cursor.next()) >= 0) {
+                        read.add(new String(cursor.line(), 0, length, StandardCharsets.UTF_8));
+                    }
+                    assertThat(cursor.position()).isEqualTo(range.end());
+                }
+            }
+            assertThat(read).as("partitions = %d", partitions).isEqualTo(lines);
+        }
+    }
+}
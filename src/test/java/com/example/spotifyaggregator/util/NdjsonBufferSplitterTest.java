@@ -0,0 +1,55 @@
+package com.example.spotifyaggregator.util;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NdjsonBufferSplitterTest {
+
+    private final NettyDataBufferFactory factory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+
+    @Test
+    @DisplayName("여러 DataBuffer 에 걸친 줄을 이어 붙이고, 빈 줄은 건너뛰며, 읽은 buffer 는 release 한다")
+    void splitsLinesAcrossBuffers() {
+        byte[] body = "{\"a\":\"가나다\"}\r\n\n{\"b\":2}\n{\"c\":3}".getBytes(StandardCharsets.UTF_8);
+        NdjsonBufferSplitter splitter = new NdjsonBufferSplitter(1024);
+        List<String> lines = new ArrayList<>();
+        List<Long> numbers = new ArrayList<>();
+        NdjsonBufferSplitter.LineSink sink = (number, line) -> {
+            numbers.add(number);
+            lines.add(new String(line, StandardCharsets.UTF_8));
+        };
+
+        for (int i = 0; i < body.length; i += 5) {
+            DataBuffer buffer = factory.wrap(Arrays.copyOfRange(body, i, Math.min(body.length, i + 5)));
+            splitter.split(buffer, sink);
+            assertThat(((NettyDataBuffer) buffer).getNativeBuffer().refCnt()).isZero();
+        }
+        splitter.finish(sink);
+
+        assertThat(lines).containsExactly("{\"a\":\"가나다\"}", "{\"b\":2}", "{\"c\":3}");
+        assertThat(numbers).containsExactly(1L, 3L, 4L);
+    }
+
+    @Test
+    @DisplayName("최대 크기를 넘는 줄은 예외로 중단한다")
+    void rejectsTooLongLine() {
+        NdjsonBufferSplitter splitter = new NdjsonBufferSplitter(8);
+        DataBuffer buffer = factory.wrap("{\"too\":\"long\"}\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> splitter.split(buffer, (number, line) -> {
+        })).isInstanceOf(NdjsonBufferSplitter.LineTooLongException.class);
+        assertThat(((NettyDataBuffer) buffer).getNativeBuffer().refCnt()).isZero();
+    }
+}
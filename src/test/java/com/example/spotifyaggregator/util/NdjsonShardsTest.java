@@ -0,0 +1,64 @@
+package com.example.spotifyaggregator.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NdjsonShardsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("디렉터리와 glob 은 정렬된 shard 목록으로, gzip shard 는 압축을 풀며 읽는다")
+    void resolvesAndReadsGzipShards() throws IOException {
+        Files.writeString(tempDir.resolve("part-0.ndjson"), "{\"a\":1}\n{\"a\":2}\n");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tempDir.resolve("part-1.ndjson.gz")))) {
+            out.write("{\"b\":1}\r\n\n{\"b\":2}".getBytes(StandardCharsets.UTF_8));
+        }
+        Files.writeString(tempDir.resolve(".part-2.ndjson.crc"), "ignored");
+
+        assertThat(NdjsonShards.isShardSource(tempDir.toString())).isTrue();
+        assertThat(NdjsonShards.isShardSource(tempDir.resolve("part-0.ndjson").toString())).isFalse();
+        assertThat(NdjsonShards.resolve(tempDir.toString()))
+                .containsExactly(tempDir.resolve("part-0.ndjson"), tempDir.resolve("part-1.ndjson.gz"));
+        assertThat(NdjsonShards.resolve(tempDir + "/*.gz"))
+                .containsExactly(tempDir.resolve("part-1.ndjson.gz"));
+
+        assertThat(readLines(tempDir.resolve("part-1.ndjson.gz"))).containsExactly("{\"b\":1}", "{\"b\":2}");
+        assertThat(readLines(tempDir.resolve("part-0.ndjson"))).containsExactly("{\"a\":1}", "{\"a\":2}");
+    }
+
+    @Test
+    @DisplayName("zstd shard 는 지원하지 않는 압축 형식으로 거부한다")
+    void rejectsZstd() throws IOException {
+        Path shard = tempDir.resolve("part-0.ndjson.zst");
+        Files.write(shard, new byte[]{0x28, (byte) 0xb5, 0x2f, (byte) 0xfd, 0});
+
+        assertThatThrownBy(() -> NdjsonShards.open(shard))
+                .isInstanceOf(NdjsonShards.UnsupportedCompressionException.class);
+    }
+
+    private List<String> readLines(Path shard) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (NdjsonStreamReader reader = new NdjsonStreamReader(NdjsonShards.open(shard))) {
+            int length;
+            while ((length = reader.next()) >= 0) {
+                lines.add(new String(reader.line(), 0, length, StandardCharsets.UTF_8));
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.spotifyaggregator.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NdjsonStreamReaderTest {
+
+    @Test
+    @DisplayName("BufferedReader.lines() 와 같은 줄과 줄 번호를 읽는다 (빈 줄 제외, 번호는 빈 줄 포함)")
+    void readsSameLinesAsBufferedReader() throws IOException {
+        String longLine = "{\"song\":\"" + "가".repeat(100_000) + "\"}";
+        String text = "{\"a\":1}\r\n\n{\"b\":2}\n" + longLine + "\n\n{\"c\":3}";
+
+        List<String> expected = new ArrayList<>();
+        List<Long> expectedNumbers = new ArrayList<>();
+        long number = 0;
+        for (String line : new BufferedReader(new StringReader(text)).lines().toList()) {
+            number++;
+            if (line.isEmpty()) continue;
+            expected.add(line);
+            expectedNumbers.add(number);
+        }
+
+        List<String> read = new ArrayList<>();
+        List<Long> numbers = new ArrayList<>();
+        try (NdjsonStreamReader reader = new NdjsonStreamReader(
+                new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)))) {
+            int length;
+            while ((length = reader.next()) >= 0) {
+                read.add(new String(reader.line(), 0, length, StandardCharsets.UTF_8));
+                numbers.add(reader.lineNumber());
+            }
+        }
+
+        assertThat(read).isEqualTo(expected);
+        assertThat(numbers).isEqualTo(expectedNumbers);
+    }
+
+    @Test
+    @DisplayName("최대 크기를 넘는 줄은 LINE_TOO_LONG 으로 알리고 건너뛰며, 다음 줄과 줄 번호는 그대로 읽는다")
+    void skipsLinesLongerThanMaxLineSize() throws IOException {
+        // 읽기 버퍼(64KB) 여러 개에 걸친 초과 줄, \r 을 빼면 최대 크기인 줄, 1 byte 초과한 줄, \n 없이 끝나는 초과 줄
+        String text = "{\"a\":1}\n" + "x".repeat(200_000) + "\n{\"b\":2222}\r\n{\"c\":33333}\n" + "y".repeat(11);
+
+        List<String> read = new ArrayList<>();
+        List<Long> numbers = new ArrayList<>();
+        try (NdjsonStreamReader reader = new NdjsonStreamReader(
+                new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), 10)) {
+            int length;
+            while ((length = reader.next()) != NdjsonStreamReader.EOF) {
+                read.add(length == NdjsonStreamReader.LINE_TOO_LONG
+                        ? "TOO_LONG"
+                        : new String(reader.line(), 0, length, StandardCharsets.UTF_8));
+                numbers.add(reader.lineNumber());
+            }
+        }
+
+        assertThat(read).containsExactly("{\"a\":1}", "TOO_LONG", "{\"b\":2222}", "TOO_LONG", "TOO_LONG");
+        assertThat(numbers).containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.spotifyaggregator.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SharedIndexRefresherTest {
+
+    @Test
+    @DisplayName("처음에만 전체를 읽고, 이후 run 은 새 row 만 읽으며 같은 key 는 다시 읽지 않는다")
+    void loadsFullyOnceThenIncrementally() {
+        SharedIndexRefresher refresher = new SharedIndexRefresher(Duration.ofDays(1));
+        List<Boolean> refreshes = new ArrayList<>();
+
+        StepVerifier.create(refresher.acquire("run-1#0", record(refreshes))).verifyComplete();
+        StepVerifier.create(refresher.acquire("run-1#0", record(refreshes))).verifyComplete();
+        StepVerifier.create(refresher.acquire("run-2", record(refreshes))).verifyComplete();
+
+        assertThat(refreshes).containsExactly(true, false);
+        assertThat(refresher.holders()).isEqualTo(2);
+
+        refresher.release("run-1#0");
+        refresher.release("run-1#0");
+        refresher.release("run-2");
+        assertThat(refresher.holders()).isZero();
+    }
+
+    @Test
+    @DisplayName("다른 run 이 사용 중이면 전체 다시 읽기(비우기) 주기가 지나도 새 row 만 읽는다")
+    void neverReloadsFullyWhileAnotherRunIsActive() {
+        SharedIndexRefresher refresher = new SharedIndexRefresher(Duration.ZERO);
+        List<Boolean> refreshes = new ArrayList<>();
+
+        StepVerifier.create(refresher.acquire("delta-run", record(refreshes))).verifyComplete();
+        StepVerifier.create(refresher.acquire("upload-run", record(refreshes))).verifyComplete();
+        refresher.release("upload-run");
+        refresher.release("delta-run");
+        StepVerifier.create(refresher.acquire("next-run", record(refreshes))).verifyComplete();
+
+        assertThat(refreshes).containsExactly(true, false, true);
+    }
+
+    @Test
+    @DisplayName("적재가 진행 중이면 다음 run 의 적재는 끝난 뒤에 시작한다")
+    void serializesRefreshes() {
+        SharedIndexRefresher refresher = new SharedIndexRefresher(Duration.ofDays(1));
+        Sinks.Empty<Void> firstLoad = Sinks.empty();
+        List<Boolean> refreshes = new ArrayList<>();
+
+        Mono<Void> first = refresher.acquire("run-1", full -> {
+            refreshes.add(full);
+            return firstLoad.asMono();
+        });
+        Mono<Void> second = refresher.acquire("run-2", record(refreshes));
+
+        StepVerifier.create(Mono.when(first, second))
+                .then(() -> assertThat(refreshes).containsExactly(true))
+                .then(firstLoad::tryEmitEmpty)
+                .verifyComplete();
+        assertThat(refreshes).containsExactly(true, false);
+    }
+
+    private static Function<Boolean, Mono<Void>> record(List<Boolean> refreshes) {
+        return full -> Mono.fromRunnable(() -> refreshes.add(full));
+    }
+}
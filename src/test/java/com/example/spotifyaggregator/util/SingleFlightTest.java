@@ -0,0 +1,62 @@
+package com.example.spotifyaggregator.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import reactor.util.function.Tuples;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTest {
+
+    @Test
+    @DisplayName("실행 중인 같은 key 의 요청은 한 번의 실행 결과를 공유하고, 끝난 뒤에는 다시 실행한다")
+    void coalescesInFlightRequests() {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        Sinks.One<String> result = Sinks.one();
+
+        Mono<String> first = singleFlight.execute("by-year:0:10", () -> {
+            calls.incrementAndGet();
+            return result.asMono();
+        });
+        Mono<String> second = singleFlight.execute("by-year:0:10", () -> {
+            calls.incrementAndGet();
+            return result.asMono();
+        });
+
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> result.tryEmitValue("stats"))
+                .expectNext(Tuples.of("stats", "stats"))
+                .verifyComplete();
+        assertThat(calls).hasValue(1);
+        assertThat(singleFlight.coalesced()).isEqualTo(1);
+        assertThat(singleFlight.inFlight()).isZero();
+
+        StepVerifier.create(singleFlight.execute("by-year:0:10", () -> {
+                    calls.incrementAndGet();
+                    return Mono.just("fresh");
+                }))
+                .expectNext("fresh")
+                .verifyComplete();
+        assertThat(calls).hasValue(2);
+        assertThat(singleFlight.executions()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("실패한 실행은 남기지 않아 다음 요청이 다시 실행한다")
+    void doesNotKeepFailures() {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+
+        StepVerifier.create(singleFlight.<String>execute("key", () -> Mono.error(new IllegalStateException("boom"))))
+                .verifyError(IllegalStateException.class);
+        StepVerifier.create(singleFlight.execute("key", () -> Mono.just("ok")))
+                .expectNext("ok")
+                .verifyComplete();
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+}
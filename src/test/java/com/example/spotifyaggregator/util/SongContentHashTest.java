@@ -0,0 +1,41 @@
+package com.example.spotifyaggregator.util;
+
+import com.example.spotifyaggregator.domain.Song;
+import com.example.spotifyaggregator.dto.SongWithArtists;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SongContentHashTest {
+
+    @Test
+    @DisplayName("key 와 아티스트 순서는 hash 에 영향이 없고, 메타데이터나 아티스트가 바뀌면 hash 가 달라진다")
+    void detectsContentChanges() {
+        long base = SongContentHash.of(row("title", 50, "pop", List.of("A", "B")));
+
+        assertThat(SongContentHash.of(row("other title", 50, "pop", List.of("B", "A")))).isEqualTo(base);
+        assertThat(SongContentHash.of(row("title", 51, "pop", List.of("A", "B")))).isNotEqualTo(base);
+        assertThat(SongContentHash.of(row("title", 50, "rock", List.of("A", "B")))).isNotEqualTo(base);
+        assertThat(SongContentHash.of(row("title", 50, null, List.of("A", "B")))).isNotEqualTo(base);
+        assertThat(SongContentHash.of(row("title", 50, "pop", List.of("A")))).isNotEqualTo(base);
+        assertThat(SongContentHash.of(row("title", 50, "pop", List.of("AB")))).isNotEqualTo(base);
+    }
+
+    private SongWithArtists row(String title, Integer popularity, String genre, List<String> artists) {
+        Song song = Song.builder()
+                .isrc("ISRC0")
+                .title(title)
+                .album("album")
+                .releaseDate(LocalDate.of(2020, 1, 1))
+                .releaseYear(2020)
+                .genre(genre)
+                .explicit(false)
+                .popularity(popularity)
+                .build();
+        return new SongWithArtists(song, artists);
+    }
+}
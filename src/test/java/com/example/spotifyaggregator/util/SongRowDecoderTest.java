@@ -0,0 +1,131 @@
+package com.example.spotifyaggregator.util;
+
+import com.example.spotifyaggregator.domain.Song;
+import com.example.spotifyaggregator.dto.SongWithArtists;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.example.spotifyaggregator.util.DateUtil.parseReleaseDate;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class SongRowDecoderTest {
+
+    private final SongRowDecoder decoder = new SongRowDecoder();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("토큰 디코더는 기존 readTree 매핑과 동일한 결과를 만든다")
+    void decodeMatchesTreeMapping() throws IOException {
+        List<String> lines = readSampleLines();
+        int compared = 0;
+
+        for (String line : lines) {
+            SongWithArtists expected = treeMapOrNull(line);
+            SongWithArtists actual = decodeOrNull(line);
+
+            if (expected == null) {
+                assertThat(actual).as("line: %s", line).isNull();
+                continue;
+            }
+            assertThat(actual).as("line: %s", line).isNotNull();
+            assertThat(actual.song()).isEqualTo(expected.song());
+            assertThat(actual.artists()).isEqualTo(expected.artists());
+            compared++;
+        }
+        assertThat(compared).isPositive();
+    }
+
+    @Test
+    @DisplayName("아티스트 문자열은 ; , 로 분리되고 공백/빈 값/중복이 제거된다")
+    void splitArtists() {
+        assertThat(SongRowDecoder.splitArtists(" A ; B,C ,, A;")).containsExactly("A", "B", "C");
+        assertThat(SongRowDecoder.splitArtists("")).isEmpty();
+        assertThat(SongRowDecoder.splitArtists("!!!")).containsExactly("!!!");
+    }
+
+    @Test
+    @DisplayName("토큰 디코더는 row 당 할당량이 readTree 보다 적다")
+    void decodeAllocatesLessThanTree() throws IOException {
+        // 스레드별 할당량은 HotSpot 확장 API 로만 측정할 수 있으므로, 지원하지 않는 JVM 에서는 건너뜀
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean mxBean
+                        && mxBean.isThreadAllocatedMemorySupported() && mxBean.isThreadAllocatedMemoryEnabled(),
+                "thread allocated memory 측정을 지원하지 않는 JVM");
+        List<String> lines = readSampleLines();
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        // warm-up
+        for (int i = 0; i < 5; i++) {
+            lines.forEach(this::treeMapOrNull);
+            lines.forEach(this::decodeOrNull);
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        lines.forEach(this::treeMapOrNull);
+        long treeBytes = threads.getCurrentThreadAllocatedBytes() - before;
+
+        before = threads.getCurrentThreadAllocatedBytes();
+        lines.forEach(this::decodeOrNull);
+        long decoderBytes = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertThat(decoderBytes)
+                .as("bytes/row : decoder = %d, readTree = %d", decoderBytes / lines.size(), treeBytes / lines.size())
+                .isLessThan(treeBytes);
+    }
+
+    private List<String> readSampleLines() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource("data/songs_test.json").getInputStream(), StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        }
+    }
+
+    private SongWithArtists decodeOrNull(String line) {
+        try {
+            return decoder.decode(line);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 기존 SongIngestionService#mapJsonToSongWithArtists 구현
+     */
+    private SongWithArtists treeMapOrNull(String line) {
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            Song song = Song.builder()
+                    .isrc(node.path("ISRC").asText())
+                    .title(node.path("song").asText())
+                    .album(node.path("Album").asText())
+                    .releaseDate(parseReleaseDate(node.path("Release Date").asText()))
+                    .releaseYear(parseReleaseDate(node.path("Release Date").asText()).getYear())
+                    .genre(node.path("Genre").asText())
+                    .explicit("Yes".equalsIgnoreCase(node.path("Explicit").asText()))
+                    .popularity(node.path("Popularity").asInt())
+                    .build();
+
+            List<String> artistNames = Arrays.stream(node.path("Artist(s)").asText().split("[;,]"))
+                    .map(String::trim)
+                    .filter(name -> !name.isEmpty())
+                    .distinct()
+                    .toList();
+
+            return new SongWithArtists(song, artistNames);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}